@@ -0,0 +1,234 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.libreofficedraw;
+
+import com.pravles.libreofficedraw.model.Edge;
+import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
+import com.pravles.libreofficedraw.model.Vertex;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single-pass streaming counterpart of {@link LibreOfficeDrawParser}. It
+ * produces the same result without building a DOM and skips the style,
+ * settings and metadata sections of the document, which can't contain
+ * shapes.
+ */
+public class LibreOfficeDrawStaxParser {
+    private static final XMLInputFactory XML_INPUT_FACTORY =
+            createXmlInputFactory();
+    private static final Set<String> SKIPPED_OFFICE_ELEMENTS = Set.of(
+            "meta",
+            "settings",
+            "scripts",
+            "font-face-decls",
+            "styles",
+            "automatic-styles");
+
+    public LibreOfficeDrawParsingResult read(final InputStream is)
+            throws XMLStreamException {
+        final List<Vertex> customShapeVertices = new ArrayList<>();
+        final List<Vertex> groupVertices = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        final Deque<Shape> openShapes = new ArrayDeque<>();
+        int capturingShapes = 0;
+        int depth = 0;
+
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        if (openShapes.isEmpty()
+                                && "office".equals(reader.getPrefix())
+                                && SKIPPED_OFFICE_ELEMENTS.contains(
+                                        reader.getLocalName())) {
+                            skipElement(reader);
+                            depth--;
+                            break;
+                        }
+                        final Shape parent = openShapes.peek();
+                        if ((parent != null)
+                                && (parent.depth == (depth - 1))
+                                && !parent.captured
+                                && (parent.text == null)
+                                && parent.childName.equals(
+                                        qualifiedName(reader))) {
+                            parent.text = new StringBuilder();
+                            parent.textDepth = depth;
+                            capturingShapes++;
+                        }
+                        final Shape shape = startShape(reader, depth,
+                                customShapeVertices, groupVertices, edges);
+                        if (shape != null) {
+                            openShapes.push(shape);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (capturingShapes > 0) {
+                            for (final Shape s : openShapes) {
+                                if ((s.text != null) && !s.captured) {
+                                    s.text.append(reader.getTextCharacters(),
+                                            reader.getTextStart(),
+                                            reader.getTextLength());
+                                }
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (capturingShapes > 0) {
+                            for (final Shape s : openShapes) {
+                                if ((s.text != null) && !s.captured
+                                        && (s.textDepth == depth)) {
+                                    s.captured = true;
+                                    capturingShapes--;
+                                }
+                            }
+                        }
+                        final Shape top = openShapes.peek();
+                        if ((top != null) && (top.depth == depth)) {
+                            openShapes.pop();
+                            top.finish();
+                        }
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        final List<Vertex> allVertices = new ArrayList<>(
+                customShapeVertices.size() + groupVertices.size());
+        allVertices.addAll(customShapeVertices);
+        allVertices.addAll(groupVertices);
+
+        return LibreOfficeDrawParsingResult.builder()
+                .vertices(allVertices)
+                .edges(edges)
+                .build();
+    }
+
+    private static Shape startShape(final XMLStreamReader reader,
+                                    final int depth,
+                                    final List<Vertex> customShapeVertices,
+                                    final List<Vertex> groupVertices,
+                                    final List<Edge> edges) {
+        final String localName = reader.getLocalName();
+        if ("custom-shape".equals(localName) || "g".equals(localName)) {
+            final Vertex vertex = Vertex.builder()
+                    .id(extractAttribute(reader, "xml", "id"))
+                    .name(extractAttribute(reader, "draw", "name"))
+                    .description("")
+                    .build();
+            if ("g".equals(localName)) {
+                groupVertices.add(vertex);
+            } else {
+                customShapeVertices.add(vertex);
+            }
+            return new Shape(depth, "svg:desc", vertex, null);
+        } else if ("connector".equals(localName)) {
+            final Edge edge = Edge.builder()
+                    .source(extractAttribute(reader, "draw", "start-shape"))
+                    .target(extractAttribute(reader, "draw", "end-shape"))
+                    .label("")
+                    .build();
+            edges.add(edge);
+            return new Shape(depth, "text:p", null, edge);
+        }
+        return null;
+    }
+
+    private static void skipElement(final XMLStreamReader reader)
+            throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String qualifiedName(final XMLStreamReader reader) {
+        final String prefix = reader.getPrefix();
+        if ((prefix == null) || prefix.isEmpty()) {
+            return reader.getLocalName();
+        }
+        return prefix + ":" + reader.getLocalName();
+    }
+
+    private static String extractAttribute(final XMLStreamReader reader,
+                                           final String prefix,
+                                           final String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (localName.equals(reader.getAttributeLocalName(i))
+                    && prefix.equals(reader.getAttributePrefix(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return "";
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                false);
+        return factory;
+    }
+
+    private static class Shape {
+        private final int depth;
+        private final String childName;
+        private final Vertex vertex;
+        private final Edge edge;
+        private StringBuilder text;
+        private int textDepth;
+        private boolean captured;
+
+        private Shape(final int depth,
+                      final String childName,
+                      final Vertex vertex,
+                      final Edge edge) {
+            this.depth = depth;
+            this.childName = childName;
+            this.vertex = vertex;
+            this.edge = edge;
+        }
+
+        private void finish() {
+            if (text == null) {
+                return;
+            }
+            if (vertex != null) {
+                vertex.setDescription(text.toString());
+            } else {
+                edge.setLabel(text.toString());
+            }
+        }
+    }
+}
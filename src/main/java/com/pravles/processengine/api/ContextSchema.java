@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys a process declares for its context, each resolved to a slot
+ * index. Activities resolve the slots they need once, e. g. in a static
+ * field or their constructor, and then use the typed accessors of
+ * {@link ProcessContext} instead of hashing the key on every access.
+ */
+public class ContextSchema {
+    private final List<String> keys;
+    private final ContextType[] types;
+    private final Map<String, Integer> slotsByKeys;
+
+    private ContextSchema(final List<String> keys,
+                          final List<ContextType> types) {
+        this.keys = Collections.unmodifiableList(new ArrayList<>(keys));
+        this.types = types.toArray(new ContextType[0]);
+        final Map<String, Integer> slotsByKeys = new HashMap<>(keys.size() * 2);
+        for (int slot = 0; slot < keys.size(); slot++) {
+            slotsByKeys.put(keys.get(slot), slot);
+        }
+        this.slotsByKeys = Collections.unmodifiableMap(slotsByKeys);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return slot of the key, -1 if it isn't declared
+     */
+    public int slotOf(final Object key) {
+        final Integer slot = slotsByKeys.get(key);
+        return (slot == null) ? -1 : slot;
+    }
+
+    public String getKey(final int slot) {
+        return keys.get(slot);
+    }
+
+    public ContextType getType(final int slot) {
+        return types[slot];
+    }
+
+    public int size() {
+        return types.length;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public static class Builder {
+        private final List<String> keys = new ArrayList<>();
+        private final List<ContextType> types = new ArrayList<>();
+
+        public Builder key(final String key, final ContextType type) {
+            if (keys.contains(key)) {
+                throw new IllegalArgumentException(String.format(
+                        "Key '%s' is declared twice", key));
+            }
+            keys.add(key);
+            types.add(type);
+            return this;
+        }
+
+        public ContextSchema build() {
+            return new ContextSchema(keys, types);
+        }
+    }
+}
@@ -13,7 +13,10 @@ package com.pravles.processengine.api;
 import org.jgrapht.graph.DefaultDirectedGraph;
 
 import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface Engine {
     public Map<String, Object> runWithoutSubprocesses(
@@ -30,6 +33,134 @@ public interface Engine {
             final Map<String, ConditionFunction> conditionFns,
             final String processId);
 
+    Map<String, Object> runWithSubprocesses(
+            ProcessDefinitionRepository repository,
+            Map<String, Object> initCtx,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, ConditionFunction> conditionFns,
+            String processId);
+
     Map<String, Object> runGraphWithSubprocesses(Map<String,
             DefaultDirectedGraph> processGraphsByProcessIds, Map<String, Object> initCtx, Map<String, ActivityFunction> activityFns, Map<String, ConditionFunction> conditionFns, String processId);
+
+    ProcessDefinition compile(String processId,
+                              DefaultDirectedGraph processGraph);
+
+    ProcessDefinition compile(String processId,
+                              InputStream diagramInputStream);
+
+    /**
+     * Returns the definitions with the nodes of every called subprocess
+     * copied into its callers, so that calls cost no more than any other
+     * node. Definitions that aren't called stay as they are.
+     *
+     * @throws IllegalArgumentException if subprocesses call each other in a
+     *                                  cycle
+     */
+    Map<String, ProcessDefinition> inlineSubProcesses(
+            Map<String, ProcessDefinition> definitionsByProcessIds);
+
+    Map<String, Object> runDefinitionWithSubprocesses(
+            Map<String, ProcessDefinition> definitionsByProcessIds,
+            Map<String, Object> initCtx,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, ConditionFunction> conditionFns,
+            String processId);
+
+    /**
+     * Runs an instance until it ends or reaches a {@code wait} node. In the
+     * latter case, the returned handle carries a snapshot of the instance
+     * that {@link #resume} continues from.
+     */
+    ProcessInstanceHandle start(
+            Map<String, ProcessDefinition> definitionsByProcessIds,
+            Map<String, Object> initCtx,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, ConditionFunction> conditionFns,
+            String processId);
+
+    /**
+     * Continues a waiting instance after its {@code wait} node. The entries
+     * of {@code input} (may be null) are put into the restored context
+     * first. The definitions must contain the processes of the snapshot's
+     * call stack.
+     *
+     * @throws IllegalArgumentException if the handle isn't waiting or the
+     *                                  snapshot doesn't match the definitions
+     */
+    ProcessInstanceHandle resume(
+            Map<String, ProcessDefinition> definitionsByProcessIds,
+            ProcessInstanceHandle handle,
+            Map<String, Object> input,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, ConditionFunction> conditionFns);
+
+    /**
+     * Starts an instance that doesn't hold a thread while it waits for
+     * async activities: the walk stops when an activity returns a pending
+     * future and is continued on the engine's async executor once the future
+     * completes. Activities are looked up in {@code activityFns} first.
+     * Inside subprocesses and parallel branches, async activities are
+     * waited for on the thread running them. Cancelling the returned future
+     * abandons the instance and stops what it is waiting for, e. g. a
+     * message.
+     */
+    CompletableFuture<Map<String, Object>> runAsync(
+            Map<String, ProcessDefinition> definitionsByProcessIds,
+            Map<String, Object> initCtx,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, AsyncActivityFunction> asyncActivityFns,
+            Map<String, ConditionFunction> conditionFns,
+            String processId);
+
+    /**
+     * Delivers a message to the instance waiting at a {@code receive} node
+     * for {@code messageName} with the given correlation key. The payload
+     * is put into the instance's context and the instance continues.
+     *
+     * @return false if no instance is waiting for the message and key; the
+     * message is dropped then
+     */
+    boolean correlate(String messageName,
+                      Object correlationKey,
+                      Map<String, Object> payload);
+
+    /**
+     * Runs one instance of the process per initial context. The definition is
+     * resolved and the instance state is set up once for the whole batch.
+     * Results are in input order. An exception in one instance is reported
+     * in its result and doesn't stop the others; an instance that stops at a
+     * {@code wait} node is reported as waiting.
+     */
+    List<InstanceResult> runBatch(
+            Map<String, ProcessDefinition> definitionsByProcessIds,
+            List<Map<String, Object>> initCtxs,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, ConditionFunction> conditionFns,
+            String processId);
+
+    /**
+     * Streaming variant of {@link #runBatch(Map, List, Map, Map, String)}:
+     * every call to {@code next()} of the returned iterator takes the next
+     * initial context and runs its instance.
+     */
+    Iterator<InstanceResult> runBatch(
+            Map<String, ProcessDefinition> definitionsByProcessIds,
+            Iterator<Map<String, Object>> initCtxs,
+            Map<String, ActivityFunction> activityFns,
+            Map<String, ConditionFunction> conditionFns,
+            String processId);
+
+    /**
+     * Runs the process {@code iterations} times so that the engine code paths
+     * are loaded and JIT-compiled before real traffic arrives. Every run
+     * starts with a shallow copy of {@code initCtx}. The functions passed
+     * here are really invoked, so they should be side-effect free stubs.
+     */
+    void warmUp(Map<String, ProcessDefinition> definitionsByProcessIds,
+                Map<String, Object> initCtx,
+                Map<String, ActivityFunction> activityFns,
+                Map<String, ConditionFunction> conditionFns,
+                String processId,
+                int iterations);
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+/**
+ * Gets notified of what happens inside the engine. Methods are called on
+ * the thread running the instance, parallel branches and multi-instance
+ * runs included, so implementations must be thread-safe and should return
+ * quickly. All methods do nothing by default.
+ */
+public interface EngineListener {
+    /**
+     * A new top-level instance starts walking.
+     */
+    default void instanceStarted(final String processId) {
+    }
+
+    /**
+     * A top-level instance has reached its end, or has failed with
+     * {@code error}. Instances that suspend at a {@code wait} node end when
+     * their last resume does.
+     */
+    default void instanceEnded(final String processId,
+                               final Throwable error) {
+    }
+
+    /**
+     * A top-level instance stops walking on this thread without having
+     * ended: it has suspended at a {@code wait}, {@code receive} or
+     * {@code timer} node, or goes on on the async executor once an async
+     * activity completes. {@link #instanceResumed} tells when and where it
+     * continues.
+     */
+    default void instanceSuspended(final String processId) {
+    }
+
+    /**
+     * A suspended top-level instance continues walking on this thread, until
+     * it ends or suspends again.
+     */
+    default void instanceResumed(final String processId) {
+    }
+
+    default void nodeEntered(final String processId,
+                             final String vertexId) {
+    }
+
+    /**
+     * @param fn            the function of an activity node, null for other
+     *                      nodes
+     * @param durationNanos the time spent in the node. For a
+     *                      {@code call-subprocess} node that runs its
+     *                      subprocess in the walk loop, this excludes the
+     *                      subprocess itself.
+     */
+    default void nodeExited(final String processId,
+                            final String vertexId,
+                            final String fn,
+                            final long durationNanos) {
+    }
+
+    /**
+     * A {@code gateway-open} or {@code gateway-switch} node has picked the
+     * edge to {@code targetVertexId}.
+     */
+    default void gatewayDecided(final String processId,
+                                final String gatewayVertexId,
+                                final String targetVertexId) {
+    }
+
+    default void subProcessCalled(final String processId,
+                                  final String callVertexId,
+                                  final String subProcessId) {
+    }
+}
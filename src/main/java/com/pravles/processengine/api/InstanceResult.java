@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Outcome of one process instance of a batch. {@code index} is the position
+ * of the instance's initial context in the batch input. If the instance
+ * failed, {@code error} is set and {@code ctx} is the context at the point
+ * of failure. If the instance stopped at a {@code wait} node,
+ * {@code snapshot} is set and can be continued with {@link Engine#resume}
+ * via {@link ProcessInstanceHandle#fromSnapshot(byte[])}.
+ */
+@Value
+@Builder
+public class InstanceResult {
+    int index;
+    Map<String, Object> ctx;
+    Throwable error;
+    byte[] snapshot;
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public boolean isWaiting() {
+        return snapshot != null;
+    }
+}
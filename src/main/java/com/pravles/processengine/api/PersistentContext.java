@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+import clojure.lang.IPersistentMap;
+import clojure.lang.MapEntry;
+import clojure.lang.PersistentHashMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Context backed by a Clojure {@link PersistentHashMap}. Every update
+ * replaces the root with a new version that shares all untouched nodes of
+ * the trie with the old one, in O(log32 n). This makes {@link #fork()} and
+ * {@link #snapshot()} O(1): subprocesses, branches and snapshots get
+ * their own context without copying it.
+ * <p>
+ * Not thread-safe, like the {@code HashMap} it replaces; forks may be used
+ * by different threads.
+ */
+public class PersistentContext extends AbstractMap<String, Object> {
+    private IPersistentMap root;
+
+    public PersistentContext() {
+        this(PersistentHashMap.EMPTY);
+    }
+
+    private PersistentContext(final IPersistentMap root) {
+        this.root = root;
+    }
+
+    public static PersistentContext of(final Map<String, Object> ctx) {
+        if (ctx instanceof PersistentContext) {
+            return ((PersistentContext) ctx).fork();
+        }
+        return new PersistentContext(PersistentHashMap.create(ctx));
+    }
+
+    /**
+     * @return a context that starts out with the entries of this one and
+     * is updated independently of it
+     */
+    public PersistentContext fork() {
+        return new PersistentContext(root);
+    }
+
+    /**
+     * @return the current entries as an immutable map
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> snapshot() {
+        return (Map<String, Object>) root;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        return root.valAt(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return root.containsKey(key);
+    }
+
+    @Override
+    public Object put(final String key, final Object value) {
+        final Object previous = root.valAt(key);
+        if ((previous != value) || !root.containsKey(key)) {
+            root = root.assoc(key, value);
+        }
+        return previous;
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ?> m) {
+        if ((m instanceof PersistentContext)
+                && (((PersistentContext) m).root == root)) {
+            return;
+        }
+        super.putAll(m);
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        final Object previous = root.valAt(key);
+        root = root.without(key);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return root.count();
+    }
+
+    @Override
+    public void clear() {
+        root = PersistentHashMap.EMPTY;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator(root);
+            }
+
+            @Override
+            public int size() {
+                return root.count();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the version that was current when it was created, so
+     * removing through it doesn't disturb the iteration.
+     */
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<?> entries;
+        private Object lastKey;
+
+        EntryIterator(final IPersistentMap version) {
+            this.entries = version.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<String, Object> next() {
+            final MapEntry entry = (MapEntry) entries.next();
+            lastKey = entry.getKey();
+            return new SimpleEntry<>((String) entry.getKey(),
+                    entry.getValue()) {
+                @Override
+                public Object setValue(final Object value) {
+                    super.setValue(value);
+                    return put(getKey(), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            PersistentContext.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Context of an instance whose process declares a {@link ContextSchema}.
+ * Declared keys live in flat arrays at their slot index, booleans, longs
+ * and doubles unboxed in {@code primitives}. Keys that aren't declared go
+ * to an overflow map, so the context is still a complete
+ * {@code Map<String, Object>} for activities and conditions written
+ * against maps; the typed accessors are the fast path.
+ * <p>
+ * Not thread-safe, like the {@code HashMap} it replaces.
+ */
+public class ProcessContext extends AbstractMap<String, Object> {
+    private final ContextSchema schema;
+    private final long[] primitives;
+    private final Object[] objects;
+    private final boolean[] present;
+    private int presentCount;
+    private Map<String, Object> undeclared;
+
+    public ProcessContext(final ContextSchema schema) {
+        this.schema = schema;
+        this.primitives = new long[schema.size()];
+        this.objects = new Object[schema.size()];
+        this.present = new boolean[schema.size()];
+    }
+
+    public static ProcessContext of(final ContextSchema schema,
+                                    final Map<String, Object> ctx) {
+        final ProcessContext result = new ProcessContext(schema);
+        result.putAll(ctx);
+        return result;
+    }
+
+    public ContextSchema getSchema() {
+        return schema;
+    }
+
+    public boolean isSet(final int slot) {
+        return present[slot];
+    }
+
+    public boolean getBoolean(final int slot) {
+        return primitives[slot] != 0;
+    }
+
+    public void setBoolean(final int slot, final boolean value) {
+        primitives[slot] = value ? 1 : 0;
+        markPresent(slot);
+    }
+
+    public long getLong(final int slot) {
+        return primitives[slot];
+    }
+
+    public void setLong(final int slot, final long value) {
+        primitives[slot] = value;
+        markPresent(slot);
+    }
+
+    public double getDouble(final int slot) {
+        return Double.longBitsToDouble(primitives[slot]);
+    }
+
+    public void setDouble(final int slot, final double value) {
+        primitives[slot] = Double.doubleToRawLongBits(value);
+        markPresent(slot);
+    }
+
+    public Object getObject(final int slot) {
+        return objects[slot];
+    }
+
+    public void setObject(final int slot, final Object value) {
+        objects[slot] = value;
+        markPresent(slot);
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final int slot = schema.slotOf(key);
+        if (slot < 0) {
+            return (undeclared == null) ? null : undeclared.get(key);
+        }
+        return present[slot] ? box(slot) : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        final int slot = schema.slotOf(key);
+        if (slot < 0) {
+            return (undeclared != null) && undeclared.containsKey(key);
+        }
+        return present[slot];
+    }
+
+    /**
+     * @throws IllegalArgumentException if a declared primitive key gets a
+     *                                  value of another type
+     */
+    @Override
+    public Object put(final String key, final Object value) {
+        final int slot = schema.slotOf(key);
+        if (slot < 0) {
+            if (undeclared == null) {
+                undeclared = new HashMap<>();
+            }
+            return undeclared.put(key, value);
+        }
+
+        final Object previous = present[slot] ? box(slot) : null;
+        if ((value == null) && (schema.getType(slot) != ContextType.OBJECT)) {
+            unset(slot);
+            return previous;
+        }
+        switch (schema.getType(slot)) {
+            case BOOLEAN:
+                setBoolean(slot, (Boolean) checkType(key, value,
+                        Boolean.class));
+                break;
+            case LONG:
+                setLong(slot, ((Number) checkType(key, value, Number.class))
+                        .longValue());
+                break;
+            case DOUBLE:
+                setDouble(slot, ((Number) checkType(key, value,
+                        Number.class)).doubleValue());
+                break;
+            default:
+                setObject(slot, value);
+                break;
+        }
+        return previous;
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        final int slot = schema.slotOf(key);
+        if (slot < 0) {
+            return (undeclared == null) ? null : undeclared.remove(key);
+        }
+        final Object previous = present[slot] ? box(slot) : null;
+        unset(slot);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return presentCount + ((undeclared == null) ? 0 : undeclared.size());
+    }
+
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < present.length; slot++) {
+            unset(slot);
+        }
+        if (undeclared != null) {
+            undeclared.clear();
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ProcessContext.this.size();
+            }
+        };
+    }
+
+    private Object box(final int slot) {
+        switch (schema.getType(slot)) {
+            case BOOLEAN:
+                return getBoolean(slot);
+            case LONG:
+                return getLong(slot);
+            case DOUBLE:
+                return getDouble(slot);
+            default:
+                return objects[slot];
+        }
+    }
+
+    private void markPresent(final int slot) {
+        if (!present[slot]) {
+            present[slot] = true;
+            presentCount++;
+        }
+    }
+
+    private void unset(final int slot) {
+        if (present[slot]) {
+            present[slot] = false;
+            presentCount--;
+        }
+        primitives[slot] = 0;
+        objects[slot] = null;
+    }
+
+    private static Object checkType(final String key,
+                                    final Object value,
+                                    final Class<?> type) {
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException(String.format("Key '%s' " +
+                    "is declared as %s, got %s", key, type.getSimpleName(),
+                    value.getClass().getName()));
+        }
+        return value;
+    }
+
+    /**
+     * Declared keys in slot order, then the undeclared ones.
+     */
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int nextSlot = nextPresentSlot(0);
+        private Iterator<Entry<String, Object>> undeclaredEntries;
+        private String lastKey;
+
+        @Override
+        public boolean hasNext() {
+            if (nextSlot < present.length) {
+                return true;
+            }
+            if ((undeclaredEntries == null) && (undeclared != null)) {
+                undeclaredEntries = undeclared.entrySet().iterator();
+            }
+            return (undeclaredEntries != null) && undeclaredEntries.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextSlot < present.length) {
+                final int slot = nextSlot;
+                nextSlot = nextPresentSlot(slot + 1);
+                lastKey = schema.getKey(slot);
+                return new SlotEntry(slot);
+            }
+            final Entry<String, Object> entry = undeclaredEntries.next();
+            lastKey = null;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                undeclaredEntries.remove();
+            } else {
+                ProcessContext.this.remove(lastKey);
+            }
+        }
+
+        private int nextPresentSlot(int slot) {
+            while ((slot < present.length) && !present[slot]) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+    private class SlotEntry implements Entry<String, Object> {
+        private final int slot;
+
+        SlotEntry(final int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.getKey(slot);
+        }
+
+        @Override
+        public Object getValue() {
+            return box(slot);
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            return put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> other = (Entry<?, ?>) o;
+            return getKey().equals(other.getKey())
+                    && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode()
+                    ^ Objects.hashCode(getValue());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Keeps compiled process definitions so that a diagram is parsed and
+ * compiled only once no matter how often it is loaded or run. Definitions
+ * are cached by the content hash of the diagram together with the process
+ * id, so loading unchanged diagrams again is a cache hit.
+ */
+public interface ProcessDefinitionRepository {
+    /**
+     * Returns the definition for the diagram, parsing and compiling it only
+     * if this content hasn't been seen before, and makes it the current
+     * definition of the process. Returns null if the diagram can't be
+     * parsed.
+     */
+    ProcessDefinition load(String processId, InputStream diagramInputStream);
+
+    ProcessDefinition get(String processId);
+
+    /**
+     * Current definitions of all loaded processes. The returned map is an
+     * immutable snapshot and cheap to obtain.
+     */
+    Map<String, ProcessDefinition> getDefinitionsByProcessIds();
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+}
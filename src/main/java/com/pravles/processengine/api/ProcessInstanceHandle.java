@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.api;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * What's left of an instance after {@code Engine.start} or
+ * {@code Engine.resume} returned. A waiting instance is nothing but its
+ * {@code snapshot}: the call stack down to the {@code wait} node and the
+ * context in a compact binary form. The snapshot can be stored anywhere and
+ * resumed in another thread or JVM with {@link #fromSnapshot(byte[])}. An
+ * instance that ran to its end has no snapshot, only its final {@code ctx}.
+ */
+@Value
+@Builder
+public class ProcessInstanceHandle {
+    byte[] snapshot;
+    Map<String, Object> ctx;
+
+    public boolean isWaiting() {
+        return snapshot != null;
+    }
+
+    public static ProcessInstanceHandle fromSnapshot(final byte[] snapshot) {
+        return ProcessInstanceHandle.builder()
+                .snapshot(snapshot)
+                .build();
+    }
+}
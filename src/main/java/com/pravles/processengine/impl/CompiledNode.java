@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import clojure.lang.Keyword;
+import com.pravles.libreofficedraw.model.Vertex;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A vertex of a compiled process. Successors are referred to by their index
+ * in {@link ProcessDefinitionImpl#getNodes()}; {@code next} is the target of
+ * the first outgoing edge (-1 if there is none) and {@code transitions} are
+ * all outgoing edges in the order a gateway has to evaluate them. For a
+ * {@code gateway-parallel-open} node, {@code join} is its matching
+ * {@code gateway-parallel-close} node. For a {@code timer} node,
+ * {@code delayMillis} is its delay. A {@code gateway-switch} node looks up
+ * the value of the context key {@code switchKey} in {@code switchTargets}
+ * and goes to {@code defaultTarget} if it isn't there. A {@code receive}
+ * node waits for the message {@code messageName} correlated by the context
+ * key {@code correlationKey}. A {@code multi-instance} node is configured
+ * by {@code multiInstance}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class CompiledNode {
+    int index;
+    Vertex vertex;
+    Keyword type;
+    NodeProcessor nodeProcessor;
+    String fn;
+    String subProcessId;
+    Map<String, Object> data;
+    int next;
+    List<Transition> transitions;
+    @Builder.Default
+    int join = -1;
+    @Builder.Default
+    long delayMillis = -1;
+    String switchKey;
+    Map<Object, Integer> switchTargets;
+    @Builder.Default
+    int defaultTarget = -1;
+    String messageName;
+    String correlationKey;
+    MultiInstanceSpec multiInstance;
+}
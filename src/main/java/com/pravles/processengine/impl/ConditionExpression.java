@@ -0,0 +1,406 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.ConditionFunction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Compiles the condition on a gateway edge label, like
+ * {@code amount > 1000 && customer.tier == "gold"}, into a tree of lambdas,
+ * once, when the process is compiled.
+ * <p>
+ * Supported are {@code ||}, {@code &&}, {@code !}, parentheses, the
+ * comparisons {@code == != < <= > >=}, number, string ({@code "..."} or
+ * {@code '...'}), {@code true}, {@code false} and {@code null} literals and
+ * context paths: {@code a.b} is {@code ctx.get("a").get("b")}. Numbers
+ * compare by value regardless of their type, other values with
+ * {@code equals} and {@code compareTo}. Comparing incomparable values and
+ * the logical operators on anything but booleans yield false.
+ */
+public final class ConditionExpression {
+    private static final int INCOMPARABLE = Integer.MIN_VALUE;
+    private static final String EXPRESSION_CHARS = "=<>!&|()\"'";
+
+    private ConditionExpression() {
+    }
+
+    /**
+     * Only labels with an operator, a parenthesis or a quote may be
+     * expressions. All others, like {@code approved},
+     * {@code parent.my-condition} or {@code Is counter greater than 2},
+     * keep naming a condition function or a boolean key, and {@code false}
+     * keeps marking the default edge. Whether a candidate really is an
+     * expression, only {@link #compile} tells.
+     */
+    public static boolean isExpression(final String label) {
+        if (label == null) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (EXPRESSION_CHARS.indexOf(label.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static ConditionFunction compile(final String source) {
+        final Parser parser = new Parser(source, tokenize(source));
+        final Function<Map<String, Object>, Object> expression =
+                parser.parseOr();
+        parser.expectEnd();
+        return ctx -> Boolean.TRUE.equals(expression.apply(ctx));
+    }
+
+    private static boolean isIdentifierStart(final char c) {
+        return Character.isLetter(c) || (c == '_');
+    }
+
+    private static boolean isIdentifierPart(final char c) {
+        return Character.isLetterOrDigit(c) || (c == '_') || (c == '-')
+                || (c == '?');
+    }
+
+    private enum TokenType {
+        IDENTIFIER, NUMBER, STRING, OPERATOR, END
+    }
+
+    private static class Token {
+        final TokenType type;
+        final String text;
+        final int position;
+
+        Token(final TokenType type, final String text, final int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+    }
+
+    private static List<Token> tokenize(final String source) {
+        final List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            final char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (isIdentifierStart(c)) {
+                final int start = i;
+                while ((i < source.length())
+                        && isIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER,
+                        source.substring(start, i), start));
+            } else if (Character.isDigit(c) || ((c == '-')
+                    && (i + 1 < source.length())
+                    && Character.isDigit(source.charAt(i + 1)))) {
+                final int start = i++;
+                while ((i < source.length())
+                        && (Character.isDigit(source.charAt(i))
+                        || (source.charAt(i) == '.'))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.NUMBER,
+                        source.substring(start, i), start));
+            } else if ((c == '"') || (c == '\'')) {
+                final int start = i++;
+                final StringBuilder text = new StringBuilder();
+                while ((i < source.length()) && (source.charAt(i) != c)) {
+                    if ((source.charAt(i) == '\\')
+                            && (i + 1 < source.length())) {
+                        i++;
+                    }
+                    text.append(source.charAt(i++));
+                }
+                if (i >= source.length()) {
+                    throw error(source, start, "unterminated string");
+                }
+                i++;
+                tokens.add(new Token(TokenType.STRING, text.toString(),
+                        start));
+            } else {
+                final String operator = operatorAt(source, i);
+                if (operator == null) {
+                    throw error(source, i, String.format(
+                            "unexpected character '%s'", c));
+                }
+                tokens.add(new Token(TokenType.OPERATOR, operator, i));
+                i += operator.length();
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", source.length()));
+        return tokens;
+    }
+
+    private static String operatorAt(final String source, final int i) {
+        for (final String operator : new String[]{"||", "&&", "==", "!=",
+                "<=", ">=", "<", ">", "!", "(", ")", "."}) {
+            if (source.startsWith(operator, i)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    private static IllegalArgumentException error(final String source,
+                                                  final int position,
+                                                  final String message) {
+        return new IllegalArgumentException(String.format(
+                "Invalid condition '%s' at %d: %s", source, position,
+                message));
+    }
+
+    /**
+     * Recursive descent, one method per precedence level.
+     */
+    private static class Parser {
+        private final String source;
+        private final List<Token> tokens;
+        private int pos;
+
+        Parser(final String source, final List<Token> tokens) {
+            this.source = source;
+            this.tokens = tokens;
+        }
+
+        Function<Map<String, Object>, Object> parseOr() {
+            Function<Map<String, Object>, Object> left = parseAnd();
+            while (accept("||")) {
+                final Function<Map<String, Object>, Object> l = left;
+                final Function<Map<String, Object>, Object> r = parseAnd();
+                left = ctx -> Boolean.TRUE.equals(l.apply(ctx))
+                        || Boolean.TRUE.equals(r.apply(ctx));
+            }
+            return left;
+        }
+
+        private Function<Map<String, Object>, Object> parseAnd() {
+            Function<Map<String, Object>, Object> left = parseNot();
+            while (accept("&&")) {
+                final Function<Map<String, Object>, Object> l = left;
+                final Function<Map<String, Object>, Object> r = parseNot();
+                left = ctx -> Boolean.TRUE.equals(l.apply(ctx))
+                        && Boolean.TRUE.equals(r.apply(ctx));
+            }
+            return left;
+        }
+
+        private Function<Map<String, Object>, Object> parseNot() {
+            if (accept("!")) {
+                final Function<Map<String, Object>, Object> operand =
+                        parseNot();
+                return ctx -> Boolean.FALSE.equals(operand.apply(ctx));
+            }
+            return parseComparison();
+        }
+
+        private Function<Map<String, Object>, Object> parseComparison() {
+            final Function<Map<String, Object>, Object> l = parseOperand();
+            final Token token = tokens.get(pos);
+            if ((token.type != TokenType.OPERATOR)
+                    || !isComparison(token.text)) {
+                return l;
+            }
+            pos++;
+            final Function<Map<String, Object>, Object> r = parseOperand();
+            switch (token.text) {
+                case "==":
+                    return ctx -> valuesEqual(l.apply(ctx), r.apply(ctx));
+                case "!=":
+                    return ctx -> !valuesEqual(l.apply(ctx), r.apply(ctx));
+                case "<":
+                    return ctx -> {
+                        final int result = compare(l.apply(ctx), r.apply(ctx));
+                        return (result < 0) && (result != INCOMPARABLE);
+                    };
+                case "<=":
+                    return ctx -> {
+                        final int result = compare(l.apply(ctx), r.apply(ctx));
+                        return (result <= 0) && (result != INCOMPARABLE);
+                    };
+                case ">":
+                    return ctx -> {
+                        final int result = compare(l.apply(ctx), r.apply(ctx));
+                        return (result > 0) && (result != INCOMPARABLE);
+                    };
+                default:
+                    return ctx -> {
+                        final int result = compare(l.apply(ctx), r.apply(ctx));
+                        return (result >= 0) && (result != INCOMPARABLE);
+                    };
+            }
+        }
+
+        private Function<Map<String, Object>, Object> parseOperand() {
+            final Token token = tokens.get(pos++);
+            switch (token.type) {
+                case NUMBER:
+                    final Object number = parseNumber(token);
+                    return ctx -> number;
+                case STRING:
+                    final String string = token.text;
+                    return ctx -> string;
+                case IDENTIFIER:
+                    if ("true".equals(token.text)) {
+                        return ctx -> Boolean.TRUE;
+                    } else if ("false".equals(token.text)) {
+                        return ctx -> Boolean.FALSE;
+                    } else if ("null".equals(token.text)) {
+                        return ctx -> null;
+                    }
+                    return parsePath(token.text);
+                case OPERATOR:
+                    if ("(".equals(token.text)) {
+                        final Function<Map<String, Object>, Object> inner =
+                                parseOr();
+                        expect(")");
+                        return inner;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            throw error(source, token.position, (token.type == TokenType.END)
+                    ? "unexpected end"
+                    : String.format("unexpected '%s'", token.text));
+        }
+
+        private Function<Map<String, Object>, Object> parsePath(
+                final String first) {
+            final List<String> keys = new ArrayList<>();
+            keys.add(first);
+            while (accept(".")) {
+                final Token token = tokens.get(pos++);
+                if (token.type != TokenType.IDENTIFIER) {
+                    throw error(source, token.position,
+                            "expected a key after '.'");
+                }
+                keys.add(token.text);
+            }
+            if (keys.size() == 1) {
+                return ctx -> ctx.get(first);
+            }
+            final String[] path = keys.toArray(new String[0]);
+            return ctx -> {
+                Object value = ctx;
+                for (final String key : path) {
+                    if (!(value instanceof Map)) {
+                        return null;
+                    }
+                    value = ((Map<?, ?>) value).get(key);
+                }
+                return value;
+            };
+        }
+
+        private Object parseNumber(final Token token) {
+            try {
+                if (token.text.indexOf('.') >= 0) {
+                    return Double.parseDouble(token.text);
+                }
+                return Long.parseLong(token.text);
+            } catch (final NumberFormatException e) {
+                throw error(source, token.position, String.format(
+                        "invalid number '%s'", token.text));
+            }
+        }
+
+        private boolean accept(final String operator) {
+            final Token token = tokens.get(pos);
+            if ((token.type == TokenType.OPERATOR)
+                    && operator.equals(token.text)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(final String operator) {
+            if (!accept(operator)) {
+                throw error(source, tokens.get(pos).position,
+                        String.format("expected '%s'", operator));
+            }
+        }
+
+        void expectEnd() {
+            final Token token = tokens.get(pos);
+            if (token.type != TokenType.END) {
+                throw error(source, token.position, String.format(
+                        "unexpected '%s'", token.text));
+            }
+        }
+
+        private static boolean isComparison(final String operator) {
+            switch (operator) {
+                case "==":
+                case "!=":
+                case "<":
+                case "<=":
+                case ">":
+                case ">=":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static boolean valuesEqual(final Object a, final Object b) {
+        if ((a instanceof Number) && (b instanceof Number)) {
+            return compareNumbers((Number) a, (Number) b) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
+    /**
+     * @return the sign of the comparison, or {@link #INCOMPARABLE}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(final Object a, final Object b) {
+        if ((a instanceof Number) && (b instanceof Number)) {
+            return compareNumbers((Number) a, (Number) b);
+        }
+        if ((a instanceof Comparable) && (b != null)
+                && (a.getClass() == b.getClass())) {
+            return Integer.signum(((Comparable) a).compareTo(b));
+        }
+        return INCOMPARABLE;
+    }
+
+    private static int compareNumbers(final Number a, final Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        if ((a instanceof BigDecimal) || (b instanceof BigDecimal)
+                || (a instanceof BigInteger) || (b instanceof BigInteger)) {
+            return new BigDecimal(a.toString())
+                    .compareTo(new BigDecimal(b.toString()));
+        }
+        return Double.compare(a.doubleValue(), b.doubleValue());
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return (number instanceof Long) || (number instanceof Integer)
+                || (number instanceof Short) || (number instanceof Byte);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import lombok.Value;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instances waiting at {@code receive} nodes, keyed by message name and
+ * correlation key. Registering, delivering and cancelling are single hash
+ * operations on a {@link ConcurrentHashMap}, so the cost of delivering a
+ * message doesn't depend on the number of waiting instances.
+ */
+public class CorrelationIndex {
+    private final Map<Key, CompletableFuture<Map<String, Object>>> waiting;
+
+    public CorrelationIndex(final int expectedWaitingInstances) {
+        this.waiting = new ConcurrentHashMap<>(expectedWaitingInstances);
+    }
+
+    /**
+     * @return the future completed with the payload of the message
+     * @throws IllegalArgumentException if the correlation key is null
+     * @throws IllegalStateException    if another instance already waits for
+     *                                  this message and key
+     */
+    public CompletableFuture<Map<String, Object>> register(
+            final String messageName,
+            final Object correlationKey) {
+        if (correlationKey == null) {
+            throw new IllegalArgumentException(String.format("No " +
+                    "correlation key to wait for message '%s' with",
+                    messageName));
+        }
+        final CompletableFuture<Map<String, Object>> payload =
+                new CompletableFuture<>();
+        if (waiting.putIfAbsent(new Key(messageName, correlationKey),
+                payload) != null) {
+            throw new IllegalStateException(String.format("An instance is " +
+                    "already waiting for message '%s' with key '%s'",
+                    messageName, correlationKey));
+        }
+        return payload;
+    }
+
+    /**
+     * @return false if no instance waits for this message and key
+     */
+    public boolean deliver(final String messageName,
+                           final Object correlationKey,
+                           final Map<String, Object> payload) {
+        final CompletableFuture<Map<String, Object>> waitingInstance =
+                waiting.remove(new Key(messageName, correlationKey));
+        if (waitingInstance == null) {
+            return false;
+        }
+        waitingInstance.complete(payload);
+        return true;
+    }
+
+    /**
+     * Removes the instance waiting for this message and key, e. g. because
+     * it failed or was abandoned, and cancels its future.
+     *
+     * @return false if no instance waits for this message and key
+     */
+    public boolean cancel(final String messageName,
+                          final Object correlationKey) {
+        final CompletableFuture<Map<String, Object>> waitingInstance =
+                waiting.remove(new Key(messageName, correlationKey));
+        if (waitingInstance == null) {
+            return false;
+        }
+        waitingInstance.cancel(false);
+        return true;
+    }
+
+    public int size() {
+        return waiting.size();
+    }
+
+    @Value
+    private static class Key {
+        String messageName;
+        Object correlationKey;
+    }
+}
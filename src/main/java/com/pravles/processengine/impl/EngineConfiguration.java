@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.BranchMergeStrategy;
+import com.pravles.processengine.api.EngineListener;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.ObjectInputFilter;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+@Value
+@Builder
+public class EngineConfiguration {
+    @Builder.Default
+    GraphBuilder graphBuilder = new JavaGraphBuilder();
+    /**
+     * Runs the branches of parallel gateways and the parallel runs of
+     * {@code multi-instance} nodes.
+     */
+    @Builder.Default
+    Executor branchExecutor = ForkJoinPool.commonPool();
+    /**
+     * Continues instances started with {@code runAsync} once the future of
+     * an async activity completes.
+     */
+    @Builder.Default
+    Executor asyncExecutor = ForkJoinPool.commonPool();
+    /**
+     * If set, every {@code call-subprocess} node runs its subprocess on this
+     * executor and waits for it, e. g. one virtual thread per call with
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}. If null, the
+     * subprocess runs on the calling thread.
+     */
+    @Builder.Default
+    Executor subProcessExecutor = null;
+    /**
+     * If set, every node transition of top-level instances is journaled so
+     * that running instances can be recovered after a crash.
+     */
+    @Builder.Default
+    Journal journal = null;
+    /**
+     * Fires {@code timer} nodes. If null, the engine uses a wheel with
+     * 10 ms ticks that all such engines share. Instances started with
+     * {@code runAsync} hold no thread until the timer fires and then
+     * continue on the async executor; all others wait on the thread
+     * running them.
+     */
+    @Builder.Default
+    TimingWheel timingWheel = null;
+    /**
+     * Initial capacity of the index of instances waiting at
+     * {@code receive} nodes.
+     */
+    @Builder.Default
+    int expectedWaitingInstances = 1024;
+    /**
+     * How long a {@code receive} node waits for its message on the thread
+     * running the instance, i. e. outside {@code runAsync}, before the
+     * instance fails.
+     */
+    @Builder.Default
+    long receiveTimeoutMillis = 60_000;
+    /**
+     * Gets notified of instances, nodes, gateway decisions and subprocess
+     * calls, e. g. a {@link MetricsListener}. If null, the walk loop skips
+     * all notifications and doesn't read the clock.
+     */
+    @Builder.Default
+    EngineListener listener = null;
+    @Builder.Default
+    BranchMergeStrategy branchMergeStrategy = new PutAllMergeStrategy();
+    @Builder.Default
+    ContextMode contextMode = ContextMode.MUTABLE;
+    /**
+     * Decides which classes of serialized context values {@code resume} may
+     * read back from a snapshot.
+     */
+    @Builder.Default
+    ObjectInputFilter deserializationFilter =
+            InstanceSnapshot.DEFAULT_DESERIALIZATION_FILTER;
+}
@@ -10,50 +10,147 @@
 
 package com.pravles.processengine.impl;
 
-import clojure.java.api.Clojure;
-import clojure.lang.IFn;
 import clojure.lang.Keyword;
-import com.pravles.libreofficedraw.LibreOfficeDrawParser;
+import com.pravles.libreofficedraw.LibreOfficeDrawStaxParser;
 import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
-import com.pravles.libreofficedraw.model.Vertex;
 import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.AsyncActivityFunction;
 import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.ContextSchema;
 import com.pravles.processengine.api.Engine;
+import com.pravles.processengine.api.EngineListener;
+import com.pravles.processengine.api.InstanceResult;
+import com.pravles.processengine.api.PersistentContext;
+import com.pravles.processengine.api.ProcessContext;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessDefinitionRepository;
+import com.pravles.processengine.api.ProcessInstanceHandle;
 import com.pravles.processengine.impl.nodeprocessors.Activity;
 import com.pravles.processengine.impl.nodeprocessors.CallSubProcess;
 import com.pravles.processengine.impl.nodeprocessors.End;
 import com.pravles.processengine.impl.nodeprocessors.FindNextEdge;
 import com.pravles.processengine.impl.nodeprocessors.GatewayOpen;
+import com.pravles.processengine.impl.nodeprocessors.GatewaySwitch;
+import com.pravles.processengine.impl.nodeprocessors.MultiInstance;
+import com.pravles.processengine.impl.nodeprocessors.ParallelGatewayOpen;
+import com.pravles.processengine.impl.nodeprocessors.Receive;
+import com.pravles.processengine.impl.nodeprocessors.Timer;
+import com.pravles.processengine.impl.nodeprocessors.Wait;
 import org.apache.commons.lang3.StringUtils;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPathExpressionException;
-import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
 import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Thread-safe; one engine can run any number of instances on any number of
+ * threads. The fields, the node processors and the definitions it compiles
+ * don't change once constructed. All per-instance state lives in an
+ * {@link ExecutionFrame} that only one thread uses at a time: the one
+ * running the instance, or the async executor once it continues there.
+ * <p>
+ * The engine also holds state that all its instances share, and each part
+ * is safe for concurrent use on its own:
+ * <ul>
+ * <li>the {@link Journal}, whose appends take its lock;</li>
+ * <li>the {@link CorrelationIndex} of instances waiting at {@code receive}
+ * nodes, a {@code ConcurrentHashMap};</li>
+ * <li>the {@link TimingWheel} of {@code timer} nodes, which only hands
+ * timeouts to its ticker thread through lock-free queues. Engines without
+ * one of their own share a default wheel.</li>
+ * </ul>
+ * The configured executors, merge strategy and {@link EngineListener} are
+ * called from many threads at once and must be thread-safe themselves. The iterator
+ * returned by the streaming {@code runBatch} is not thread-safe.
+ */
 public class EngineImpl implements Engine {
     private final static Logger LOGGER =
             LoggerFactory.getLogger(EngineImpl.class);
+    private static final Keyword GATEWAY_OPEN =
+            Keyword.intern("gateway-open");
+    private static final Keyword GATEWAY_SWITCH =
+            Keyword.intern("gateway-switch");
     private final Map<Keyword, NodeProcessor> nodeProcessorsByTypes;
+    private final ProcessDefinitionCompiler compiler;
+    private final GraphBuilder graphBuilder;
+    private final Executor asyncExecutor;
+    private final Journal journal;
+    private final CorrelationIndex correlationIndex;
+    private final ContextMode contextMode;
+    private final SubProcessInliner subProcessInliner;
+    private final Executor subProcessExecutor;
+    private final ObjectInputFilter deserializationFilter;
+    private final EngineListener listener;
 
     public EngineImpl() {
-        this.nodeProcessorsByTypes = new HashMap<>();
+        this(EngineConfiguration.builder().build());
+    }
+
+    public EngineImpl(final GraphBuilder graphBuilder) {
+        this(EngineConfiguration.builder()
+                .graphBuilder(graphBuilder)
+                .build());
+    }
+
+    public EngineImpl(final EngineConfiguration configuration) {
+        this.graphBuilder = configuration.getGraphBuilder();
+        this.asyncExecutor = configuration.getAsyncExecutor();
+        this.journal = configuration.getJournal();
+        this.contextMode = configuration.getContextMode();
+        this.listener = configuration.getListener();
+        this.subProcessExecutor = configuration.getSubProcessExecutor();
+        this.deserializationFilter = configuration.getDeserializationFilter();
+        this.correlationIndex = new CorrelationIndex(
+                configuration.getExpectedWaitingInstances());
+        final Map<Keyword, NodeProcessor> nodeProcessorsByTypes =
+                new HashMap<>();
         final FindNextEdge findNextEdge = new FindNextEdge();
-        this.nodeProcessorsByTypes.put(Keyword.intern("start"),
+        nodeProcessorsByTypes.put(Keyword.intern("start"),
+                findNextEdge);
+        nodeProcessorsByTypes.put(Keyword.intern("activity"), new Activity());
+        nodeProcessorsByTypes.put(GATEWAY_OPEN, new GatewayOpen());
+        nodeProcessorsByTypes.put(GATEWAY_SWITCH,
+                new GatewaySwitch());
+        nodeProcessorsByTypes.put(Keyword.intern("gateway-close"), findNextEdge);
+        nodeProcessorsByTypes.put(Keyword.intern("end"), new End());
+        nodeProcessorsByTypes.put(Keyword.intern("call-subprocess"),
+                new CallSubProcess(this,
+                        subProcessExecutor));
+        nodeProcessorsByTypes.put(Keyword.intern("gateway-parallel-open"),
+                new ParallelGatewayOpen(this,
+                        configuration.getBranchExecutor(),
+                        configuration.getBranchMergeStrategy()));
+        nodeProcessorsByTypes.put(Keyword.intern("gateway-parallel-close"),
                 findNextEdge);
-        this.nodeProcessorsByTypes.put(Keyword.intern("activity"), new Activity());
-        this.nodeProcessorsByTypes.put(Keyword.intern("gateway-open"), new GatewayOpen());
-        this.nodeProcessorsByTypes.put(Keyword.intern("gateway-close"), findNextEdge);
-        this.nodeProcessorsByTypes.put(Keyword.intern("end"), new End());
-        this.nodeProcessorsByTypes.put(Keyword.intern("call-subprocess"),
-                new CallSubProcess(this));
+        nodeProcessorsByTypes.put(Keyword.intern("multi-instance"),
+                new MultiInstance(this, configuration.getBranchExecutor()));
+        nodeProcessorsByTypes.put(Keyword.intern("wait"), new Wait());
+        nodeProcessorsByTypes.put(Keyword.intern("receive"),
+                new Receive(correlationIndex,
+                        configuration.getReceiveTimeoutMillis()));
+        nodeProcessorsByTypes.put(Keyword.intern("timer"), new Timer(
+                (configuration.getTimingWheel() != null)
+                        ? configuration.getTimingWheel()
+                        : DefaultTimingWheel.INSTANCE));
+        this.nodeProcessorsByTypes =
+                Collections.unmodifiableMap(nodeProcessorsByTypes);
+        this.subProcessInliner = new SubProcessInliner(findNextEdge);
+        this.compiler = new ProcessDefinitionCompiler(
+                this.nodeProcessorsByTypes);
     }
 
     @Override
@@ -82,6 +179,18 @@ public class EngineImpl implements Engine {
         return runGraphWithSubprocesses(processGraphsByProcessIds, initCtx, activityFns, conditionFns, processId);
     }
 
+    @Override
+    public Map<String, Object> runWithSubprocesses(
+            final ProcessDefinitionRepository repository,
+            final Map<String, Object> initCtx,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        return runDefinitionWithSubprocesses(
+                repository.getDefinitionsByProcessIds(), initCtx,
+                activityFns, conditionFns, processId);
+    }
+
     @Override
     public Map<String, Object> runGraphWithSubprocesses(
         Map<String, DefaultDirectedGraph> processGraphsByProcessIds,
@@ -89,45 +198,826 @@ public class EngineImpl implements Engine {
         Map<String, ActivityFunction> activityFns,
         Map<String, ConditionFunction> conditionFns,
         String processId) {
-        final DefaultDirectedGraph processGraph =
-                processGraphsByProcessIds.get(processId);
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>(processGraphsByProcessIds.size());
+        for (final Map.Entry<String, DefaultDirectedGraph> entry :
+                processGraphsByProcessIds.entrySet()) {
+            definitionsByProcessIds.put(entry.getKey(),
+                    compile(entry.getKey(), entry.getValue()));
+        }
 
-        final Optional<Vertex> startNodeOpt =
-                findStartNode(processGraph);
+        return runDefinitionWithSubprocesses(
+                (subProcessExecutor == null)
+                        ? subProcessInliner.inlineAcyclicCalls(
+                        definitionsByProcessIds)
+                        : definitionsByProcessIds,
+                initCtx, activityFns, conditionFns, processId);
+    }
 
-        if (startNodeOpt.isEmpty()) {
-            LOGGER.error("No start node found");
+    @Override
+    public ProcessDefinition compile(final String processId,
+                                     final DefaultDirectedGraph processGraph) {
+        return compiler.compile(processId, processGraph);
+    }
+
+    @Override
+    public ProcessDefinition compile(final String processId,
+                                     final InputStream diagramInputStream) {
+        final DefaultDirectedGraph graph =
+                turnXmlFileIntoGraph(processId, diagramInputStream);
+        if (graph == null) {
+            return null;
+        }
+        return compile(processId, graph);
+    }
+
+    /**
+     * {@inheritDoc} With a subprocess executor, the definitions stay as
+     * they are: inlined calls wouldn't run on it.
+     */
+    @Override
+    public Map<String, ProcessDefinition> inlineSubProcesses(
+            final Map<String, ProcessDefinition> definitionsByProcessIds) {
+        if (subProcessExecutor != null) {
+            return definitionsByProcessIds;
+        }
+        return subProcessInliner.inline(definitionsByProcessIds);
+    }
+
+    @Override
+    public Map<String, Object> runDefinitionWithSubprocesses(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, Object> initCtx,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final ProcessDefinitionImpl definition =
+                findDefinition(definitionsByProcessIds, processId);
+        if (definition == null) {
             return initCtx;
         }
 
-        GraphTraversalState state = GraphTraversalState
-                .builder()
-                .fnBindings(activityFns)
-                .conditionFns(conditionFns)
-                .ctx(initCtx)
-                .nextNodeToProcess(startNodeOpt.get())
-                .continueToWalkThroughGraph(true)
-                .curProcessId(processId)
-                .processGraphsByProcessIds(processGraphsByProcessIds)
-                .build();
-
-        while (state.isContinueToWalkThroughGraph()) {
-            final Vertex curNode = state.getNextNodeToProcess();
-            final Map<String, Object> curNodeData =
-                    parseClojureMap(curNode.getDescription());
-            final Keyword type = (Keyword) curNodeData
-                    .get(Keyword.intern("type"));
-            final NodeProcessor nodeProcessor =
-                    nodeProcessorsByTypes.get(type);
-            state = nodeProcessor.apply(NodeProcessingInput.builder()
-                    .curNode(curNode)
-                    .curNodeData(curNodeData)
-                    .graph(processGraph)
-                    .state(state)
-                    .build());
-        }
-
-        return state.getCtx();
+        final ExecutionFrame frame = createFrame(definitionsByProcessIds,
+                definition, activityFns, conditionFns, processId);
+        return runTopLevel(frame, initCtx);
+    }
+
+    @Override
+    public ProcessInstanceHandle start(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, Object> initCtx,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final ProcessDefinitionImpl definition =
+                findDefinition(definitionsByProcessIds, processId);
+        if (definition == null) {
+            return ProcessInstanceHandle.builder()
+                    .ctx(initCtx)
+                    .build();
+        }
+
+        final ExecutionFrame frame = createFrame(definitionsByProcessIds,
+                definition, activityFns, conditionFns, processId);
+        runTopLevel(frame, initCtx);
+        return toHandle(frame);
+    }
+
+    @Override
+    public ProcessInstanceHandle resume(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final ProcessInstanceHandle handle,
+            final Map<String, Object> input,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns) {
+        if (!handle.isWaiting()) {
+            throw new IllegalArgumentException("Instance isn't waiting");
+        }
+        final InstanceSnapshot snapshot =
+                InstanceSnapshot.fromBytes(handle.getSnapshot(),
+                        deserializationFilter);
+        final Map<String, Object> ctx = snapshot.getCtx();
+        if (input != null) {
+            ctx.putAll(input);
+        }
+
+        return resumeTopLevel(definitionsByProcessIds,
+                snapshot.getCallStack(), ctx, false, activityFns,
+                conditionFns);
+    }
+
+    /**
+     * Continues an instance found in the journal at the node that was about
+     * to run when the journal was last written.
+     */
+    public ProcessInstanceHandle recover(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final RecoveredInstance instance,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns) {
+        return resumeTopLevel(definitionsByProcessIds,
+                instance.getCallStack(), instance.getCtx(), true,
+                activityFns, conditionFns);
+    }
+
+    private ProcessInstanceHandle resumeTopLevel(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final List<CallStackEntry> callStack,
+            final Map<String, Object> ctx,
+            final boolean runInnermostNode,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns) {
+        final JournalCursor cursor = (journal == null)
+                ? null
+                : journal.start(callStack.get(0).getProcessId(), ctx);
+        try {
+            final ExecutionFrame frame = restoreFrame(definitionsByProcessIds,
+                    callStack, ctx, runInnermostNode, cursor, activityFns,
+                    conditionFns);
+            if (listener == null) {
+                walkFrom(frame, -1);
+            } else {
+                walkObserved(frame, -1);
+            }
+            return toHandle(frame);
+        } finally {
+            if (cursor != null) {
+                journal.end(cursor);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the frame of a suspended instance: every level but the
+     * innermost becomes a {@link CallFrame}, and the walk goes on after the
+     * innermost node, or runs it if {@code runInnermostNode} is set. When
+     * the innermost subprocess ends, its callers continue after their call
+     * nodes as usual. A vertex id of null stands for the start node.
+     */
+    private ExecutionFrame restoreFrame(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final List<CallStackEntry> callStack,
+            final Map<String, Object> ctx,
+            final boolean runInnermostNode,
+            final JournalCursor cursor,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns) {
+        final ExecutionFrame frame = createFrame(definitionsByProcessIds,
+                null, activityFns, conditionFns, null);
+        frame.setJournalCursor(cursor);
+        for (int level = 0; level < callStack.size(); level++) {
+            final CallStackEntry entry = callStack.get(level);
+            final ProcessDefinitionImpl definition = (ProcessDefinitionImpl)
+                    definitionsByProcessIds.get(entry.getProcessId());
+            final int nodeIndex;
+            if (definition == null) {
+                nodeIndex = -1;
+            } else if (entry.getVertexId() == null) {
+                nodeIndex = definition.getStartNode();
+            } else {
+                nodeIndex = definition.getNodeIndex(entry.getVertexId());
+            }
+            if (nodeIndex < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Node '%s' of process '%s' not found",
+                        entry.getVertexId(), entry.getProcessId()));
+            }
+
+            if (level > 0) {
+                if (frame.getCallFrames() == null) {
+                    frame.setCallFrames(new ArrayDeque<>());
+                }
+                frame.getCallFrames().push(new CallFrame(
+                        frame.getDefinition(), frame.getCurProcessId(),
+                        frame.getCurNode()));
+                if (cursor != null) {
+                    journal.enter(cursor, entry.getProcessId(),
+                            callStack.get(level - 1).getVertexId());
+                }
+            }
+            frame.setDefinition(definition);
+            frame.setCurProcessId(entry.getProcessId());
+            frame.setCurNode(definition.getNode(nodeIndex));
+        }
+
+        frame.setCtx(adaptContext(frame.getDefinition(), ctx));
+        if (runInnermostNode) {
+            frame.setNextNode(frame.getCurNode().getIndex());
+            frame.setContinueToWalkThroughGraph(true);
+        } else {
+            Utils.findNextEdge(frame);
+        }
+        return frame;
+    }
+
+    private ProcessInstanceHandle toHandle(final ExecutionFrame frame) {
+        if (frame.getSuspendedStack() == null) {
+            return ProcessInstanceHandle.builder()
+                    .ctx(frame.getCtx())
+                    .build();
+        }
+        return ProcessInstanceHandle.fromSnapshot(new InstanceSnapshot(
+                new ArrayList<>(frame.getSuspendedStack()), frame.getCtx())
+                .toBytes());
+    }
+
+    @Override
+    public boolean correlate(final String messageName,
+                             final Object correlationKey,
+                             final Map<String, Object> payload) {
+        return correlationIndex.deliver(messageName, correlationKey, payload);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> runAsync(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, Object> initCtx,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, AsyncActivityFunction> asyncActivityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final ProcessDefinitionImpl definition =
+                findDefinition(definitionsByProcessIds, processId);
+        if (definition == null) {
+            return CompletableFuture.completedFuture(initCtx);
+        }
+
+        final ExecutionFrame frame = createFrame(definitionsByProcessIds,
+                definition, activityFns, conditionFns, processId);
+        frame.setAsyncFnBindings(asyncActivityFns);
+        frame.setSuspendable(true);
+        if (listener != null) {
+            listener.instanceStarted(processId);
+        }
+        if (journal != null) {
+            frame.setJournalCursor(journal.start(processId, initCtx));
+        }
+        frame.setCtx(adaptContext(definition, initCtx));
+        frame.setNextNode(definition.getStartNode());
+        frame.setContinueToWalkThroughGraph(true);
+
+        final CompletableFuture<Map<String, Object>> result =
+                new CompletableFuture<>();
+        resume(frame, result);
+        return result;
+    }
+
+    /**
+     * Walks until the instance ends or suspends. In the latter case, the
+     * walk is continued on the async executor when the pending future
+     * completes, so the stack doesn't grow with the number of async
+     * activities.
+     */
+    private void resume(final ExecutionFrame frame,
+                        final CompletableFuture<Map<String, Object>> result) {
+        try {
+            walkFrom(frame, -1);
+        } catch (final RuntimeException e) {
+            LOGGER.error(String.format("Instance of process '%s' failed",
+                    frame.getCurProcessId()), e);
+            endJournal(frame);
+            notifyEnded(frame, e);
+            result.completeExceptionally(e);
+            return;
+        }
+
+        final CompletableFuture<Map<String, Object>> pendingCtx =
+                frame.getPendingCtx();
+        if (pendingCtx == null) {
+            endJournal(frame);
+            if (frame.getSuspendedStack() == null) {
+                notifyEnded(frame, null);
+            } else {
+                notifySuspended(frame);
+            }
+            result.complete(frame.getCtx());
+            return;
+        }
+
+        frame.setPendingCtx(null);
+        notifySuspended(frame);
+        result.whenComplete((ctx, error) -> {
+            if (result.isCancelled()) {
+                pendingCtx.cancel(false);
+            }
+        });
+        pendingCtx.whenCompleteAsync((ctx, error) -> {
+            notifyResumed(frame);
+            if (error != null) {
+                final Throwable cause = (error instanceof CompletionException
+                        && error.getCause() != null)
+                        ? error.getCause()
+                        : error;
+                endJournal(frame);
+                notifyEnded(frame, cause);
+                result.completeExceptionally(cause);
+                return;
+            }
+            frame.setCtx(ctx);
+            resume(frame, result);
+        }, asyncExecutor);
+    }
+
+    @Override
+    public List<InstanceResult> runBatch(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final List<Map<String, Object>> initCtxs,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final List<InstanceResult> results = new ArrayList<>(initCtxs.size());
+        final Iterator<InstanceResult> resultsIterator = runBatch(
+                definitionsByProcessIds, initCtxs.iterator(), activityFns,
+                conditionFns, processId);
+        while (resultsIterator.hasNext()) {
+            results.add(resultsIterator.next());
+        }
+        return results;
+    }
+
+    @Override
+    public Iterator<InstanceResult> runBatch(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Iterator<Map<String, Object>> initCtxs,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final ProcessDefinitionImpl definition =
+                findDefinition(definitionsByProcessIds, processId);
+        final ExecutionFrame frame = (definition == null)
+                ? null
+                : createFrame(definitionsByProcessIds, definition,
+                        activityFns, conditionFns, processId);
+
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return initCtxs.hasNext();
+            }
+
+            @Override
+            public InstanceResult next() {
+                return runInstance(index++, frame, initCtxs.next(),
+                        processId);
+            }
+        };
+    }
+
+    private InstanceResult runInstance(final int index,
+                                       final ExecutionFrame frame,
+                                       final Map<String, Object> initCtx,
+                                       final String processId) {
+        if (frame == null) {
+            return InstanceResult.builder()
+                    .index(index)
+                    .ctx(initCtx)
+                    .error(new IllegalArgumentException(String.format(
+                            "Process '%s' can't be run", processId)))
+                    .build();
+        }
+
+        try {
+            final Map<String, Object> ctx = runTopLevel(frame, initCtx);
+            return InstanceResult.builder()
+                    .index(index)
+                    .ctx(ctx)
+                    .snapshot((frame.getSuspendedStack() == null)
+                            ? null
+                            : new InstanceSnapshot(new ArrayList<>(
+                                    frame.getSuspendedStack()), ctx)
+                                    .toBytes())
+                    .build();
+        } catch (final RuntimeException e) {
+            LOGGER.error(String.format("Instance %d of process '%s' failed",
+                    index, processId), e);
+            return InstanceResult.builder()
+                    .index(index)
+                    .ctx(frame.getCtx())
+                    .error(e)
+                    .build();
+        }
+    }
+
+    private ProcessDefinitionImpl findDefinition(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final String processId) {
+        final ProcessDefinitionImpl definition =
+                (ProcessDefinitionImpl) definitionsByProcessIds.get(processId);
+
+        if (definition == null) {
+            LOGGER.error(String.format("Process '%s' not found", processId));
+            return null;
+        }
+
+        if (definition.getStartNode() < 0) {
+            LOGGER.error("No start node found");
+            return null;
+        }
+        return definition;
+    }
+
+    private ExecutionFrame createFrame(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final ProcessDefinitionImpl definition,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final ExecutionFrame frame = new ExecutionFrame();
+        frame.setFnBindings(activityFns);
+        frame.setConditionFns(conditionFns);
+        frame.setCurProcessId(processId);
+        frame.setDefinition(definition);
+        frame.setDefinitionsByProcessIds(definitionsByProcessIds);
+        return frame;
+    }
+
+    /**
+     * Walks one branch of a parallel gateway on its own frame, starting at
+     * {@code startNode} and stopping when the walk arrives at
+     * {@code joinNode} or ends.
+     */
+    public Map<String, Object> runBranch(final ExecutionFrame parentFrame,
+                                         final int startNode,
+                                         final int joinNode,
+                                         final Map<String, Object> ctx) {
+        final ExecutionFrame frame = createChildFrame(parentFrame,
+                parentFrame.getDefinition(), parentFrame.getCurProcessId());
+        frame.setJournalCursor(null);
+        final Map<String, Object> branchCtx =
+                walk(frame, ctx, startNode, joinNode);
+        if (frame.getSuspendedStack() != null) {
+            throw new IllegalStateException(String.format("Process '%s' " +
+                    "reached a wait node inside a parallel branch",
+                    parentFrame.getCurProcessId()));
+        }
+        return branchCtx;
+    }
+
+    /**
+     * Runs a subprocess for one element of a {@code multi-instance} node,
+     * like {@link #runBranch} on a frame of its own and without journaling.
+     */
+    public Map<String, Object> runDetachedSubProcess(
+            final ExecutionFrame parentFrame,
+            final String subProcessId,
+            final Map<String, Object> ctx) {
+        final ProcessDefinitionImpl definition = findDefinition(
+                parentFrame.getDefinitionsByProcessIds(), subProcessId);
+        if (definition == null) {
+            return ctx;
+        }
+        notifySubProcessCalled(parentFrame, subProcessId);
+        final ExecutionFrame frame =
+                createChildFrame(parentFrame, definition, subProcessId);
+        frame.setJournalCursor(null);
+        final Map<String, Object> resultCtx = walk(frame, ctx);
+        if (frame.getSuspendedStack() != null) {
+            throw new IllegalStateException(String.format("Process '%s' " +
+                    "reached a wait node inside a multi-instance node",
+                    subProcessId));
+        }
+        return resultCtx;
+    }
+
+    /**
+     * Runs a subprocess on a frame of its own, with the bindings of the
+     * calling instance, for {@code call-subprocess} nodes that hand their
+     * subprocesses to an executor; all others use
+     * {@link #enterSubProcess}. If the subprocess can't be found, the
+     * context is returned unchanged. If the subprocess reaches a
+     * {@code wait} node, the calling frame gets suspended at its current
+     * node as well.
+     */
+    public Map<String, Object> runSubProcess(final ExecutionFrame parentFrame,
+                                             final String subProcessId,
+                                             final Map<String, Object> ctx) {
+        final ProcessDefinitionImpl definition = findDefinition(
+                parentFrame.getDefinitionsByProcessIds(), subProcessId);
+        if (definition == null) {
+            return ctx;
+        }
+        notifySubProcessCalled(parentFrame, subProcessId);
+        final ExecutionFrame frame =
+                createChildFrame(parentFrame, definition, subProcessId);
+        final JournalCursor cursor = frame.getJournalCursor();
+        if (cursor != null) {
+            journal.enter(cursor, subProcessId,
+                    parentFrame.getCurNode().getVertex().getId());
+        }
+        final Map<String, Object> newCtx = walk(frame,
+                (ctx instanceof PersistentContext)
+                        ? ((PersistentContext) ctx).fork()
+                        : ctx);
+
+        final Deque<CallStackEntry> suspendedStack = frame.getSuspendedStack();
+        if (suspendedStack != null) {
+            suspendedStack.addFirst(new CallStackEntry(
+                    parentFrame.getCurProcessId(),
+                    parentFrame.getCurNode().getVertex().getId()));
+            parentFrame.setSuspendedStack(suspendedStack);
+        } else if (cursor != null) {
+            journal.exit(cursor);
+        }
+        return newCtx;
+    }
+
+    private ExecutionFrame createChildFrame(final ExecutionFrame parentFrame,
+                                            final ProcessDefinitionImpl definition,
+                                            final String processId) {
+        final ExecutionFrame frame = createFrame(
+                parentFrame.getDefinitionsByProcessIds(), definition,
+                parentFrame.getFnBindings(), parentFrame.getConditionFns(),
+                processId);
+        frame.setAsyncFnBindings(parentFrame.getAsyncFnBindings());
+        frame.setJournalCursor(parentFrame.getJournalCursor());
+        return frame;
+    }
+
+    /**
+     * Walks a top-level instance, journaling it if the engine has a
+     * journal.
+     */
+    private Map<String, Object> runTopLevel(final ExecutionFrame frame,
+                                            final Map<String, Object> initCtx) {
+        if (listener == null) {
+            return runJournaled(frame, initCtx);
+        }
+        listener.instanceStarted(frame.getCurProcessId());
+        final Map<String, Object> ctx;
+        try {
+            ctx = runJournaled(frame, initCtx);
+        } catch (final RuntimeException e) {
+            notifyEnded(frame, e);
+            throw e;
+        }
+        if (frame.getSuspendedStack() == null) {
+            notifyEnded(frame, null);
+        } else {
+            notifySuspended(frame);
+        }
+        return ctx;
+    }
+
+    private Map<String, Object> runJournaled(final ExecutionFrame frame,
+                                             final Map<String, Object> initCtx) {
+        if (journal == null) {
+            return walk(frame, initCtx);
+        }
+        frame.setJournalCursor(journal.start(frame.getCurProcessId(),
+                initCtx));
+        try {
+            return walk(frame, initCtx);
+        } finally {
+            endJournal(frame);
+        }
+    }
+
+    private void endJournal(final ExecutionFrame frame) {
+        if (frame.getJournalCursor() != null) {
+            journal.end(frame.getJournalCursor());
+            frame.setJournalCursor(null);
+        }
+    }
+
+    private Map<String, Object> walk(final ExecutionFrame frame,
+                                     final Map<String, Object> initCtx) {
+        resetCallFrames(frame);
+        return walk(frame, initCtx, frame.getDefinition().getStartNode(), -1);
+    }
+
+    private Map<String, Object> walk(final ExecutionFrame frame,
+                                     final Map<String, Object> initCtx,
+                                     final int startNode,
+                                     final int stopNode) {
+        frame.setCtx(adaptContext(frame.getDefinition(), initCtx));
+        frame.setNextNode(startNode);
+        frame.setContinueToWalkThroughGraph(true);
+        frame.setSuspendedStack(null);
+        walkFrom(frame, stopNode);
+        return frame.getCtx();
+    }
+
+    /**
+     * Copies the context into a {@link ProcessContext} if the definition
+     * declares a schema and the context isn't already one of it, or into a
+     * {@link PersistentContext} in {@link ContextMode#PERSISTENT}.
+     */
+    private Map<String, Object> adaptContext(
+            final ProcessDefinitionImpl definition,
+            final Map<String, Object> ctx) {
+        final ContextSchema schema = definition.getContextSchema();
+        if (ctx == null) {
+            return null;
+        } else if (schema != null) {
+            return ((ctx instanceof ProcessContext)
+                    && ((ProcessContext) ctx).getSchema() == schema)
+                    ? ctx
+                    : ProcessContext.of(schema, ctx);
+        } else if ((contextMode == ContextMode.PERSISTENT)
+                && !(ctx instanceof PersistentContext)) {
+            return PersistentContext.of(ctx);
+        }
+        return ctx;
+    }
+
+    /**
+     * Walks from {@code frame.getNextNode()} until the instance ends,
+     * arrives at {@code stopNode}, suspends at an async activity or reaches
+     * a {@code wait} node. Subprocesses run in this same loop: a call
+     * pushes a {@link CallFrame}, and when the subprocess stops walking,
+     * for whatever reason, the frame is popped and the caller continues
+     * after its call node. {@code stopNode} refers to the process the walk
+     * started in.
+     */
+    private void walkFrom(final ExecutionFrame frame, final int stopNode) {
+        while (true) {
+            if (frame.getPendingCtx() != null) {
+                return;
+            }
+            if (frame.getSuspendedStack() != null) {
+                unwindSuspended(frame);
+                return;
+            }
+            if (!frame.isContinueToWalkThroughGraph()) {
+                if (!frame.isInSubProcess()) {
+                    return;
+                }
+                returnFromSubProcess(frame);
+                continue;
+            }
+            if ((frame.getNextNode() == stopNode) && !frame.isInSubProcess()) {
+                return;
+            }
+
+            final CompiledNode curNode =
+                    frame.getDefinition().getNode(frame.getNextNode());
+            final NodeProcessor nodeProcessor = curNode.getNodeProcessor();
+
+            if (nodeProcessor == null) {
+                LOGGER.error(String.format("Node '%s' can't be processed",
+                        curNode.getVertex().getId()));
+                frame.setContinueToWalkThroughGraph(false);
+                continue;
+            }
+
+            if (frame.getJournalCursor() != null) {
+                journal.step(frame.getJournalCursor(),
+                        curNode.getVertex().getId(), frame.getCtx());
+            }
+            frame.setCurNode(curNode);
+            if (listener == null) {
+                nodeProcessor.accept(frame);
+            } else {
+                acceptObserved(frame, curNode, nodeProcessor);
+            }
+        }
+    }
+
+    private void acceptObserved(final ExecutionFrame frame,
+                                final CompiledNode node,
+                                final NodeProcessor nodeProcessor) {
+        final String processId = frame.getCurProcessId();
+        final String vertexId = node.getVertex().getId();
+        listener.nodeEntered(processId, vertexId);
+        final long start = System.nanoTime();
+        nodeProcessor.accept(frame);
+        listener.nodeExited(processId, vertexId, node.getFn(),
+                System.nanoTime() - start);
+        if ((GATEWAY_OPEN.equals(node.getType())
+                || GATEWAY_SWITCH.equals(node.getType()))
+                && frame.isContinueToWalkThroughGraph()) {
+            listener.gatewayDecided(processId, vertexId, frame.getDefinition()
+                    .getNode(frame.getNextNode()).getVertex().getId());
+        }
+    }
+
+    /**
+     * Resumes a suspended top-level instance, and tells the listener if it
+     * ends, fails or suspends again.
+     */
+    private void walkObserved(final ExecutionFrame frame,
+                              final int stopNode) {
+        notifyResumed(frame);
+        try {
+            walkFrom(frame, stopNode);
+        } catch (final RuntimeException e) {
+            notifyEnded(frame, e);
+            throw e;
+        }
+        if (frame.getSuspendedStack() == null) {
+            notifyEnded(frame, null);
+        } else {
+            notifySuspended(frame);
+        }
+    }
+
+    private void notifyEnded(final ExecutionFrame frame,
+                             final Throwable error) {
+        if (listener != null) {
+            listener.instanceEnded(topLevelProcessId(frame), error);
+        }
+    }
+
+    private void notifySuspended(final ExecutionFrame frame) {
+        if (listener != null) {
+            listener.instanceSuspended(topLevelProcessId(frame));
+        }
+    }
+
+    private void notifyResumed(final ExecutionFrame frame) {
+        if (listener != null) {
+            listener.instanceResumed(topLevelProcessId(frame));
+        }
+    }
+
+    private static String topLevelProcessId(final ExecutionFrame frame) {
+        return frame.isInSubProcess()
+                ? frame.getCallFrames().peekLast().getProcessId()
+                : frame.getCurProcessId();
+    }
+
+    private void notifySubProcessCalled(final ExecutionFrame callerFrame,
+                                        final String subProcessId) {
+        if (listener != null) {
+            listener.subProcessCalled(callerFrame.getCurProcessId(),
+                    callerFrame.getCurNode().getVertex().getId(),
+                    subProcessId);
+        }
+    }
+
+    /**
+     * Continues the walk in the given subprocess, called from the current
+     * node. If the subprocess can't be found, the walk continues after the
+     * call node with the context unchanged.
+     */
+    public void enterSubProcess(final ExecutionFrame frame,
+                                final String subProcessId) {
+        final ProcessDefinitionImpl definition = findDefinition(
+                frame.getDefinitionsByProcessIds(), subProcessId);
+        if (definition == null) {
+            Utils.findNextEdge(frame);
+            return;
+        }
+        notifySubProcessCalled(frame, subProcessId);
+        if (frame.getCallFrames() == null) {
+            frame.setCallFrames(new ArrayDeque<>());
+        }
+        frame.getCallFrames().push(new CallFrame(frame.getDefinition(),
+                frame.getCurProcessId(), frame.getCurNode()));
+        if (frame.getJournalCursor() != null) {
+            journal.enter(frame.getJournalCursor(), subProcessId,
+                    frame.getCurNode().getVertex().getId());
+        }
+
+        final Map<String, Object> ctx = frame.getCtx();
+        frame.setDefinition(definition);
+        frame.setCurProcessId(subProcessId);
+        frame.setCtx(adaptContext(definition, (ctx instanceof PersistentContext)
+                ? ((PersistentContext) ctx).fork()
+                : ctx));
+        frame.setNextNode(definition.getStartNode());
+        frame.setContinueToWalkThroughGraph(true);
+    }
+
+    private void returnFromSubProcess(final ExecutionFrame frame) {
+        final CallFrame caller = frame.getCallFrames().pop();
+        if (frame.getJournalCursor() != null) {
+            journal.exit(frame.getJournalCursor());
+        }
+        frame.setDefinition(caller.getDefinition());
+        frame.setCurProcessId(caller.getProcessId());
+        frame.setCurNode(caller.getCallNode());
+        Utils.findNextEdge(frame);
+    }
+
+    /**
+     * Adds the call nodes of the running subprocesses to the suspended call
+     * stack, outermost first, and leaves the frame at the outermost process.
+     */
+    private static void unwindSuspended(final ExecutionFrame frame) {
+        while (frame.isInSubProcess()) {
+            final CallFrame caller = frame.getCallFrames().pop();
+            frame.getSuspendedStack().addFirst(caller.toCallStackEntry());
+            frame.setDefinition(caller.getDefinition());
+            frame.setCurProcessId(caller.getProcessId());
+            frame.setCurNode(caller.getCallNode());
+        }
+    }
+
+    /**
+     * Leaves subprocesses an earlier, failed instance on this frame didn't
+     * return from.
+     */
+    private static void resetCallFrames(final ExecutionFrame frame) {
+        if (!frame.isInSubProcess()) {
+            return;
+        }
+        final CallFrame outermost = frame.getCallFrames().peekLast();
+        frame.getCallFrames().clear();
+        frame.setDefinition(outermost.getDefinition());
+        frame.setCurProcessId(outermost.getProcessId());
     }
 
     private Map<String, DefaultDirectedGraph> turnXmlFilesIntoGraphs(
@@ -137,54 +1027,59 @@ public class EngineImpl implements Engine {
 
         for (final Map.Entry<String, InputStream> entry :
                 diagramInputStreamsByProcessIds.entrySet()) {
-            try {
-                processGraphsByProcessIds.put(entry.getKey(),
-                        turnDiagramIntoGraph(entry.getValue()));
-            } catch (XPathExpressionException
-                    | ParserConfigurationException
-                    | IOException
-                    | SAXException e) {
-                LOGGER.error(String.format("Error while parsing process " +
-                        "diagram '%s'", entry.getKey()), e);
+            final DefaultDirectedGraph graph =
+                    turnXmlFileIntoGraph(entry.getKey(), entry.getValue());
+            if (graph != null) {
+                processGraphsByProcessIds.put(entry.getKey(), graph);
             }
         }
 
         return processGraphsByProcessIds;
     }
 
-    private Optional findStartNode(DefaultDirectedGraph graph) {
-        return graph.vertexSet()
-                .stream()
-                .filter(node -> (node instanceof Vertex))
-                .filter(node -> {
-                    final Vertex v = (Vertex) node;
-                    final Map<String, Object> data =
-                            parseClojureMap(v.getDescription());
-                    if (data == null) {
-                        return false;
-                    }
-                    final Object type = data.get(Keyword.intern("type"));
+    @Override
+    public void warmUp(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, Object> initCtx,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId,
+            final int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            runDefinitionWithSubprocesses(definitionsByProcessIds,
+                    Utils.copyContext(initCtx), activityFns, conditionFns,
+                    processId);
+        }
+    }
 
-                    return Keyword.intern("start").equals(type);
-                })
-                .findFirst();
+    private DefaultDirectedGraph turnXmlFileIntoGraph(
+            final String processId,
+            final InputStream diagramInputStream) {
+        try {
+            return turnDiagramIntoGraph(diagramInputStream);
+        } catch (final XMLStreamException e) {
+            LOGGER.error(String.format("Error while parsing process " +
+                    "diagram '%s'", processId), e);
+            return null;
+        }
     }
 
-    private static DefaultDirectedGraph turnDiagramIntoGraph(InputStream diagramInputStream) throws ParserConfigurationException, XPathExpressionException, IOException, SAXException {
-        final LibreOfficeDrawParser lodParser = new LibreOfficeDrawParser();
+    private DefaultDirectedGraph turnDiagramIntoGraph(InputStream diagramInputStream) throws XMLStreamException {
+        final LibreOfficeDrawStaxParser lodParser =
+                new LibreOfficeDrawStaxParser();
         final LibreOfficeDrawParsingResult lodData =
                 lodParser.read(diagramInputStream);
 
-        final DefaultDirectedGraph graph =
-                (DefaultDirectedGraph) ShariysDog.woof("lod-to-jgrapht")
-                        .invoke(lodData);
-        return graph;
+        return graphBuilder.apply(lodData);
     }
 
-    private Map<String, Object> parseClojureMap(final String clojureCode) {
-        final IFn require = Clojure.var("clojure.core", "require");
-        require.invoke(Clojure.read("clojure.edn"));
-        final IFn readString = Clojure.var("clojure.edn", "read-string");
-        return (Map<String, Object>) readString.invoke(clojureCode);
+    /**
+     * The wheel of the engines without one of their own, created with the
+     * first such engine. All of them share its ticker thread, which is a
+     * daemon and only starts with the first timer.
+     */
+    private static class DefaultTimingWheel {
+        private static final TimingWheel INSTANCE =
+                new TimingWheel(10, 512, Runnable::run);
     }
 }
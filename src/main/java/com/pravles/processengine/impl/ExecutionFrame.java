@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.AsyncActivityFunction;
+import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import lombok.Data;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mutable state of one running process instance. The engine creates one
+ * frame per instance and node processors update it in place, so walking
+ * from one node to the next doesn't allocate anything.
+ * <p>
+ * A suspendable frame belongs to an instance started with
+ * {@code runAsync}: an async activity parks its future in
+ * {@code pendingCtx} and the walk stops until the future completes.
+ * <p>
+ * {@code suspendedStack} is set when the instance reached a {@code wait}
+ * node, here or in a subprocess it called.
+ * <p>
+ * While a subprocess runs, {@code definition} and {@code curProcessId} are
+ * the subprocess's and {@code callFrames} holds its callers, innermost
+ * first. It is created on the first call.
+ */
+@Data
+public class ExecutionFrame {
+    private Map<String, Object> ctx;
+    private CompiledNode curNode;
+    private int nextNode;
+    private boolean continueToWalkThroughGraph;
+    private Map<String, ActivityFunction> fnBindings;
+    private Map<String, AsyncActivityFunction> asyncFnBindings;
+    private Map<String, ConditionFunction> conditionFns;
+    private String curProcessId;
+    private ProcessDefinitionImpl definition;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private boolean suspendable;
+    private CompletableFuture<Map<String, Object>> pendingCtx;
+    private Deque<CallStackEntry> suspendedStack;
+    private JournalCursor journalCursor;
+    private Deque<CallFrame> callFrames;
+
+    public boolean isInSubProcess() {
+        return (callFrames != null) && !callFrames.isEmpty();
+    }
+}
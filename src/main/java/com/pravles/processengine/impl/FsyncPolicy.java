@@ -0,0 +1,33 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+/**
+ * When the {@link Journal} forces its records to disk. The records are in
+ * the page cache as soon as they're appended, so they survive a crash of
+ * the JVM with any policy; the policy decides about crashes of the machine.
+ */
+public enum FsyncPolicy {
+    /**
+     * Leave it to the operating system.
+     */
+    NEVER,
+    /**
+     * A flusher thread forces the journal in short intervals; appending
+     * threads wait until their record has been forced. Many records share
+     * one fsync.
+     */
+    GROUP_COMMIT,
+    /**
+     * Force after every record.
+     */
+    EVERY_RECORD
+}
@@ -10,18 +10,11 @@
 
 package com.pravles.processengine.impl;
 
-import com.pravles.libreofficedraw.model.Vertex;
-import lombok.Builder;
-import lombok.Data;
+import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
 import org.jgrapht.graph.DefaultDirectedGraph;
 
-import java.util.Map;
+import java.util.function.Function;
 
-@Data
-@Builder
-public class NodeProcessingInput {
-    private GraphTraversalState state;
-    private DefaultDirectedGraph graph;
-    private Vertex curNode;
-    final Map<String, Object> curNodeData;
+public interface GraphBuilder extends Function<LibreOfficeDrawParsingResult,
+        DefaultDirectedGraph> {
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of a suspended instance. Layout: format version, call stack
+ * (outermost process first) and context. Lengths and integers are varints,
+ * strings UTF-8. Context values of the common types (null, booleans,
+ * numbers, strings, byte arrays, lists and maps) get a one-byte tag; any
+ * other {@link Serializable} value falls back to Java serialization. The
+ * value encoding is shared with the {@link Journal}.
+ * <p>
+ * Snapshots and journal files may come from outside the JVM, so serialized
+ * values are only read through an {@link ObjectInputFilter}, by default
+ * {@link #DEFAULT_DESERIALIZATION_FILTER}, and lengths are checked against
+ * the remaining input before anything is allocated for them.
+ */
+@Value
+public class InstanceSnapshot {
+    /**
+     * Accepts the value classes of {@code java.lang}, {@code java.math},
+     * {@code java.time} and {@code java.util} and rejects everything else.
+     */
+    public static final ObjectInputFilter DEFAULT_DESERIALIZATION_FILTER =
+            ObjectInputFilter.Config.createFilter("maxdepth=32;" +
+                    "java.lang.*;java.math.*;java.time.*;java.util.*;!*");
+
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int BYTES = 7;
+    private static final int LIST = 8;
+    private static final int MAP = 9;
+    private static final int SERIALIZABLE = 10;
+
+    List<CallStackEntry> callStack;
+    Map<String, Object> ctx;
+
+    public byte[] toBytes() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            writeVarLong(out, VERSION);
+            writeVarLong(out, callStack.size());
+            for (final CallStackEntry entry : callStack) {
+                writeString(out, entry.getProcessId());
+                writeString(out, entry.getVertexId());
+            }
+            writeValue(out, ctx);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static InstanceSnapshot fromBytes(final byte[] snapshot) {
+        return fromBytes(snapshot, DEFAULT_DESERIALIZATION_FILTER);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the snapshot is truncated or
+     *                                  corrupt or {@code filter} rejects a
+     *                                  serialized value
+     */
+    public static InstanceSnapshot fromBytes(final byte[] snapshot,
+                                             final ObjectInputFilter filter) {
+        try (final DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(snapshot))) {
+            final long version = readVarLong(in);
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format(
+                        "Unsupported snapshot version %d", version));
+            }
+            final int depth = readCount(in);
+            final List<CallStackEntry> callStack = new ArrayList<>();
+            for (int i = 0; i < depth; i++) {
+                callStack.add(new CallStackEntry(readString(in),
+                        readString(in)));
+            }
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> ctx =
+                    (Map<String, Object>) readValue(in, filter);
+            return new InstanceSnapshot(callStack, ctx);
+        } catch (final EOFException e) {
+            throw new IllegalArgumentException("Truncated snapshot", e);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeValue(final DataOutputStream out,
+                                   final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(((Boolean) value) ? TRUE : FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            writeVarLong(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            writeVarLong(out, zigZag((Long) value));
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeVarLong(out, ((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            writeVarLong(out, ((List<?>) value).size());
+            for (final Object element : (List<?>) value) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            writeVarLong(out, ((Map<?, ?>) value).size());
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Serializable) {
+            out.writeByte(SERIALIZABLE);
+            final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (final ObjectOutputStream objectOut =
+                         new ObjectOutputStream(serialized)) {
+                objectOut.writeObject(value);
+            }
+            writeVarLong(out, serialized.size());
+            serialized.writeTo(out);
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "Context value of type %s can't be put into a snapshot",
+                    value.getClass().getName()));
+        }
+    }
+
+    static Object readValue(final DataInputStream in,
+                            final ObjectInputFilter filter)
+            throws IOException {
+        final int tag = in.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INT:
+                return (int) unZigZag(readVarLong(in));
+            case LONG:
+                return unZigZag(readVarLong(in));
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return readString(in);
+            case BYTES:
+                return readBytes(in);
+            case LIST: {
+                final int size = readCount(in);
+                final List<Object> list = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, filter));
+                }
+                return list;
+            }
+            case MAP: {
+                final int size = readCount(in);
+                final Map<Object, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    final Object key = readValue(in, filter);
+                    map.put(key, readValue(in, filter));
+                }
+                return map;
+            }
+            case SERIALIZABLE:
+                try (final ObjectInputStream objectIn = new ObjectInputStream(
+                        new ByteArrayInputStream(readBytes(in)))) {
+                    objectIn.setObjectInputFilter(filter);
+                    return objectIn.readObject();
+                } catch (final ClassNotFoundException
+                               | InvalidClassException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Unknown value tag %d in snapshot", tag));
+        }
+    }
+
+    static void writeString(final DataOutputStream out,
+                                    final String value) throws IOException {
+        final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length);
+        out.write(utf8);
+    }
+
+    static String readString(final DataInputStream in)
+            throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the bytes in chunks, so a corrupt length fails with an
+     * {@link EOFException} at the end of the input instead of allocating
+     * that length up front.
+     */
+    static byte[] readBytes(final DataInputStream in)
+            throws IOException {
+        final long length = readVarLong(in);
+        if ((length < 0) || (length > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid length %d in snapshot", length));
+        }
+        final byte[] bytes = in.readNBytes((int) length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads the number of elements of a list, map or call stack. {@code in}
+     * reads from a byte array, so {@code available()} is the remaining
+     * input, and every element takes at least one byte of it.
+     */
+    private static int readCount(final DataInputStream in)
+            throws IOException {
+        final long count = readVarLong(in);
+        if ((count < 0) || (count > in.available())) {
+            throw new IllegalArgumentException(String.format(
+                    "Count %d exceeds the %d remaining bytes of the snapshot",
+                    count, in.available()));
+        }
+        return (int) count;
+    }
+
+    static void writeVarLong(final DataOutputStream out, long value)
+            throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(final DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in snapshot");
+    }
+
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.libreofficedraw.model.Edge;
+import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
+import com.pravles.libreofficedraw.model.Vertex;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Java counterpart of {@code clj/lod-to-jgrapht.clj}. Unlike the script, it
+ * doesn't pass null endpoints to the graph: edges whose source or target id
+ * doesn't belong to any vertex are reported and left out.
+ */
+public class JavaGraphBuilder implements GraphBuilder {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(JavaGraphBuilder.class);
+
+    @Override
+    public DefaultDirectedGraph apply(
+            final LibreOfficeDrawParsingResult lodData) {
+        final DefaultDirectedGraph<Vertex, Edge> graph =
+                new DefaultDirectedGraph<>(Edge.class);
+        final Map<String, Vertex> verticesByIds =
+                new HashMap<>(lodData.getVertices().size());
+
+        for (final Vertex vertex : lodData.getVertices()) {
+            verticesByIds.put(vertex.getId(), vertex);
+            graph.addVertex(vertex);
+        }
+
+        for (final Edge edge : lodData.getEdges()) {
+            final Vertex source = verticesByIds.get(edge.getSource());
+            final Vertex target = verticesByIds.get(edge.getTarget());
+
+            if ((source == null) || (target == null)) {
+                LOGGER.error(String.format("Edge '%s' -> '%s' (label '%s') " +
+                                "refers to unknown %s",
+                        edge.getSource(),
+                        edge.getTarget(),
+                        edge.getLabel(),
+                        danglingEnds(source, target)));
+                continue;
+            }
+            graph.addEdge(source, target, edge);
+        }
+
+        return graph;
+    }
+
+    private static String danglingEnds(final Vertex source,
+                                       final Vertex target) {
+        if ((source == null) && (target == null)) {
+            return "source and target";
+        } else if (source == null) {
+            return "source";
+        }
+        return "target";
+    }
+}
@@ -0,0 +1,627 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of node transitions, written to memory-mapped segment
+ * files of a fixed size. Every record is {@code length, CRC32, payload};
+ * a zero length or a wrong checksum marks the end of a segment.
+ * <p>
+ * The engine writes one record when an instance starts (its full context),
+ * one before every node it runs (the vertex id and the context entries that
+ * changed since the previous record), one when it enters or leaves a
+ * subprocess and one when it ends. On opening, the journal replays the
+ * existing segments and keeps every instance that didn't end as a
+ * {@link RecoveredInstance}; {@link EngineImpl#recover} continues it at the
+ * node that was about to run. Activities can therefore run twice around a
+ * crash. Parallel branches are not journaled; a recovered instance repeats
+ * the whole parallel gateway.
+ * <p>
+ * The journal counts, for every segment it has written, the instances with
+ * records in it that haven't ended yet. Full segments are deleted oldest
+ * first, up to the first one whose count isn't zero: a later segment may
+ * hold the end record of an instance that started in a kept one, and
+ * recovery would run that instance again without it. A single long-running
+ * instance therefore keeps every segment from the one it started in.
+ */
+public class Journal implements AutoCloseable {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(Journal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER_SIZE = 8;
+
+    private static final int START = 1;
+    private static final int STEP = 2;
+    private static final int ENTER = 3;
+    private static final int EXIT = 4;
+    private static final int END = 5;
+
+    private final JournalConfiguration configuration;
+    private final Lock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final AtomicLong nextInstanceId;
+    private final List<Path> recoveredSegments;
+    private final List<RecoveredInstance> recoveredInstances;
+    private final Thread flusher;
+    private final Map<Integer, Integer> liveInstancesBySegmentNumbers =
+            new HashMap<>();
+
+    private int segmentNumber;
+    private int firstSegmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long writtenPosition;
+    private long flushedPosition;
+    private boolean closed;
+
+    public Journal(final JournalConfiguration configuration) {
+        this.configuration = configuration;
+        try {
+            Files.createDirectories(configuration.getDirectory());
+            recoveredSegments = listSegments(configuration.getDirectory());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final Map<Long, InstanceState> statesByInstanceIds =
+                new LinkedHashMap<>();
+        long maxInstanceId = 0;
+        for (final Path recoveredSegment : recoveredSegments) {
+            maxInstanceId = Math.max(maxInstanceId,
+                    replay(recoveredSegment, statesByInstanceIds,
+                            configuration.getDeserializationFilter()));
+        }
+        this.recoveredInstances = toRecoveredInstances(statesByInstanceIds);
+        this.nextInstanceId = new AtomicLong(maxInstanceId + 1);
+
+        this.segmentNumber = recoveredSegments.isEmpty()
+                ? 0
+                : segmentNumber(recoveredSegments.get(
+                        recoveredSegments.size() - 1));
+        this.firstSegmentNumber = segmentNumber + 1;
+        openNextSegment();
+
+        if (configuration.getFsyncPolicy() == FsyncPolicy.GROUP_COMMIT) {
+            flusher = new Thread(this::flushContinuously, "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Instances that were running when the journal was last written, in the
+     * order they were started.
+     */
+    public List<RecoveredInstance> getRecoveredInstances() {
+        return recoveredInstances;
+    }
+
+    /**
+     * Deletes the segments that existed when the journal was opened. Call
+     * once the recovered instances have been recovered, i. e. journaled
+     * again.
+     */
+    public void deleteRecoveredSegments() {
+        for (final Path recoveredSegment : recoveredSegments) {
+            try {
+                Files.deleteIfExists(recoveredSegment);
+            } catch (final IOException e) {
+                LOGGER.error(String.format("Can't delete journal segment '%s'",
+                        recoveredSegment), e);
+            }
+        }
+    }
+
+    public JournalCursor start(final String processId,
+                               final Map<String, Object> ctx) {
+        final JournalCursor cursor =
+                new JournalCursor(nextInstanceId.getAndIncrement());
+        final DataOutputStream out = beginRecord(cursor, START);
+        try {
+            InstanceSnapshot.writeString(out, processId);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writeDelta(cursor, ctx);
+        append(cursor);
+        return cursor;
+    }
+
+    public void step(final JournalCursor cursor,
+                     final String vertexId,
+                     final Map<String, Object> ctx) {
+        final DataOutputStream out = beginRecord(cursor, STEP);
+        try {
+            InstanceSnapshot.writeString(out, vertexId);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writeDelta(cursor, ctx);
+        append(cursor);
+    }
+
+    public void enter(final JournalCursor cursor,
+                      final String subProcessId,
+                      final String callerVertexId) {
+        final DataOutputStream out = beginRecord(cursor, ENTER);
+        try {
+            InstanceSnapshot.writeString(out, subProcessId);
+            InstanceSnapshot.writeString(out, callerVertexId);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(cursor);
+    }
+
+    public void exit(final JournalCursor cursor) {
+        beginRecord(cursor, EXIT);
+        append(cursor);
+    }
+
+    public void end(final JournalCursor cursor) {
+        beginRecord(cursor, END);
+        append(cursor);
+        release(cursor);
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            segment.force();
+            flushedPosition = writtenPosition;
+            flushed.signalAll();
+            written.signalAll();
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+    }
+
+    private DataOutputStream beginRecord(final JournalCursor cursor,
+                                         final int type) {
+        cursor.recordBuffer.reset();
+        final DataOutputStream out = cursor.recordOut;
+        try {
+            out.writeByte(type);
+            InstanceSnapshot.writeVarLong(out, cursor.getInstanceId());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the entries whose encoding changed since the previous record
+     * and the keys that were removed. Comparing encodings also catches
+     * values that were modified in place.
+     */
+    private void writeDelta(final JournalCursor cursor,
+                            final Map<String, Object> ctx) {
+        cursor.changedKeys.clear();
+        cursor.removedKeys.clear();
+        try {
+            for (final Map.Entry<String, Object> entry : ctx.entrySet()) {
+                cursor.valueBuffer.reset();
+                InstanceSnapshot.writeValue(cursor.valueOut, entry.getValue());
+                final byte[] previous =
+                        cursor.encodedValues.get(entry.getKey());
+                if ((previous == null) || !Arrays.equals(previous, 0,
+                        previous.length, cursor.valueBuffer.array(), 0,
+                        cursor.valueBuffer.size())) {
+                    cursor.encodedValues.put(entry.getKey(),
+                            cursor.valueBuffer.toByteArray());
+                    cursor.changedKeys.add(entry.getKey());
+                }
+            }
+            for (final String key : cursor.encodedValues.keySet()) {
+                if (!ctx.containsKey(key)) {
+                    cursor.removedKeys.add(key);
+                }
+            }
+
+            final DataOutputStream out = cursor.recordOut;
+            InstanceSnapshot.writeVarLong(out, cursor.changedKeys.size());
+            for (final String key : cursor.changedKeys) {
+                InstanceSnapshot.writeString(out, key);
+                out.write(cursor.encodedValues.get(key));
+            }
+            InstanceSnapshot.writeVarLong(out, cursor.removedKeys.size());
+            for (final String key : cursor.removedKeys) {
+                InstanceSnapshot.writeString(out, key);
+                cursor.encodedValues.remove(key);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(final JournalCursor cursor) {
+        final int length = cursor.recordBuffer.size();
+        final CRC32 crc = new CRC32();
+        crc.update(cursor.recordBuffer.array(), 0, length);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (segment.remaining() < HEADER_SIZE + length) {
+                rollOver(HEADER_SIZE + length);
+            }
+            segment.putInt(length);
+            segment.putInt((int) crc.getValue());
+            segment.put(cursor.recordBuffer.array(), 0, length);
+            writtenPosition += HEADER_SIZE + length;
+            if (cursor.lastSegmentNumber != segmentNumber) {
+                cursor.lastSegmentNumber = segmentNumber;
+                cursor.segmentNumbers.add(segmentNumber);
+                liveInstancesBySegmentNumbers.merge(segmentNumber, 1,
+                        Integer::sum);
+            }
+
+            switch (configuration.getFsyncPolicy()) {
+                case EVERY_RECORD:
+                    segment.force();
+                    flushedPosition = writtenPosition;
+                    break;
+                case GROUP_COMMIT:
+                    written.signal();
+                    final long position = writtenPosition;
+                    while ((flushedPosition < position) && !closed) {
+                        flushed.awaitUninterruptibly();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tells the segments an ended instance has written to that it's gone.
+     * Called after the end record is appended, so with an fsync policy,
+     * it's durable by now.
+     */
+    private void release(final JournalCursor cursor) {
+        lock.lock();
+        try {
+            for (final Integer number : cursor.segmentNumbers) {
+                final int live = liveInstancesBySegmentNumbers.merge(number,
+                        -1, Integer::sum);
+                if (live == 0) {
+                    liveInstancesBySegmentNumbers.remove(number);
+                }
+            }
+            cursor.segmentNumbers.clear();
+            deleteReleasedSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the full segments from the oldest one on until one still has
+     * running instances. Must be called with the lock held.
+     */
+    private void deleteReleasedSegments() {
+        while ((firstSegmentNumber < segmentNumber)
+                && !liveInstancesBySegmentNumbers.containsKey(
+                        firstSegmentNumber)) {
+            deleteSegment(firstSegmentNumber);
+            firstSegmentNumber++;
+        }
+    }
+
+    private void deleteSegment(final int number) {
+        final Path path = segmentPath(number);
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            LOGGER.error(String.format("Can't delete journal segment '%s'",
+                    path), e);
+        }
+    }
+
+    private Path segmentPath(final int number) {
+        return configuration.getDirectory().resolve(String.format("%s%08d%s",
+                SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private void rollOver(final int recordSize) {
+        if (recordSize > configuration.getSegmentSize()) {
+            throw new IllegalArgumentException(String.format("Journal record " +
+                    "of %d bytes doesn't fit into a segment", recordSize));
+        }
+        segment.force();
+        flushedPosition = writtenPosition;
+        flushed.signalAll();
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        openNextSegment();
+        deleteReleasedSegments();
+    }
+
+    private void openNextSegment() {
+        segmentNumber++;
+        final Path path = segmentPath(segmentNumber);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    configuration.getSegmentSize());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for unforced records, gives other appenders the group commit
+     * interval to join in and forces all of them at once. Appenders that
+     * arrive while a force is running are covered by the next one.
+     */
+    private void flushContinuously() {
+        final long intervalNanos = TimeUnit.MICROSECONDS.toNanos(
+                configuration.getGroupCommitIntervalMicros());
+        while (true) {
+            lock.lock();
+            try {
+                while (!closed && (writtenPosition == flushedPosition)) {
+                    try {
+                        written.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (intervalNanos > 0) {
+                LockSupport.parkNanos(intervalNanos);
+            }
+
+            final long target;
+            final MappedByteBuffer toForce;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                target = writtenPosition;
+                toForce = segment;
+            } finally {
+                lock.unlock();
+            }
+
+            toForce.force();
+
+            lock.lock();
+            try {
+                flushedPosition = Math.max(flushedPosition, target);
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the highest instance id found in the segment
+     */
+    private static long replay(final Path path,
+                               final Map<Long, InstanceState> statesByInstanceIds,
+                               final ObjectInputFilter filter) {
+        long maxInstanceId = 0;
+        try (final FileChannel readChannel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = readChannel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            while (buffer.remaining() >= HEADER_SIZE) {
+                final int length = buffer.getInt();
+                final int checksum = buffer.getInt();
+                if ((length <= 0) || (length > buffer.remaining())) {
+                    break;
+                }
+                final byte[] payload = new byte[length];
+                buffer.get(payload);
+                final CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    LOGGER.error(String.format("Torn record in journal " +
+                            "segment '%s'", path));
+                    break;
+                }
+                maxInstanceId = Math.max(maxInstanceId,
+                        applyRecord(payload, statesByInstanceIds, filter));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return maxInstanceId;
+    }
+
+    private static long applyRecord(final byte[] payload,
+                                    final Map<Long, InstanceState> statesByInstanceIds,
+                                    final ObjectInputFilter filter)
+            throws IOException {
+        final DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(payload));
+        final int type = in.readUnsignedByte();
+        final long instanceId = InstanceSnapshot.readVarLong(in);
+
+        if (type == START) {
+            final InstanceState state = new InstanceState();
+            state.levels.push(new Level(InstanceSnapshot.readString(in)));
+            applyDelta(in, state.ctx, filter);
+            statesByInstanceIds.put(instanceId, state);
+            return instanceId;
+        }
+
+        final InstanceState state = statesByInstanceIds.get(instanceId);
+        if (state == null) {
+            return instanceId;
+        }
+        switch (type) {
+            case STEP:
+                state.levels.peek().vertexId = InstanceSnapshot.readString(in);
+                applyDelta(in, state.ctx, filter);
+                break;
+            case ENTER:
+                final String subProcessId = InstanceSnapshot.readString(in);
+                state.levels.peek().vertexId = InstanceSnapshot.readString(in);
+                state.levels.push(new Level(subProcessId));
+                break;
+            case EXIT:
+                state.levels.pop();
+                break;
+            case END:
+                statesByInstanceIds.remove(instanceId);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Unknown journal record type %d", type));
+        }
+        return instanceId;
+    }
+
+    private static void applyDelta(final DataInputStream in,
+                                   final Map<String, Object> ctx,
+                                   final ObjectInputFilter filter)
+            throws IOException {
+        final long changed = InstanceSnapshot.readVarLong(in);
+        for (long i = 0; i < changed; i++) {
+            final String key = InstanceSnapshot.readString(in);
+            ctx.put(key, InstanceSnapshot.readValue(in, filter));
+        }
+        final long removed = InstanceSnapshot.readVarLong(in);
+        for (long i = 0; i < removed; i++) {
+            ctx.remove(InstanceSnapshot.readString(in));
+        }
+    }
+
+    /**
+     * A subprocess level that hasn't got to its first node yet is dropped,
+     * so that the call node above it runs again. A top level without a
+     * node starts at the start node (vertex id null).
+     */
+    private static List<RecoveredInstance> toRecoveredInstances(
+            final Map<Long, InstanceState> statesByInstanceIds) {
+        final List<RecoveredInstance> result = new ArrayList<>();
+        for (final Map.Entry<Long, InstanceState> entry :
+                statesByInstanceIds.entrySet()) {
+            final Deque<Level> levels = entry.getValue().levels;
+            while ((levels.size() > 1) && (levels.peek().vertexId == null)) {
+                levels.pop();
+            }
+            final List<CallStackEntry> callStack = new ArrayList<>();
+            final Iterator<Level> outermostFirst = levels.descendingIterator();
+            while (outermostFirst.hasNext()) {
+                final Level level = outermostFirst.next();
+                callStack.add(new CallStackEntry(level.processId,
+                        level.vertexId));
+            }
+            result.add(new RecoveredInstance(entry.getKey(), callStack,
+                    entry.getValue().ctx));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<Path> listSegments(final Path directory)
+            throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        final String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX)
+                                && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int segmentNumber(final Path path) {
+        final String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class InstanceState {
+        final Deque<Level> levels = new ArrayDeque<>();
+        final Map<String, Object> ctx = new HashMap<>();
+    }
+
+    private static class Level {
+        final String processId;
+        String vertexId;
+
+        Level(final String processId) {
+            this.processId = processId;
+        }
+    }
+}
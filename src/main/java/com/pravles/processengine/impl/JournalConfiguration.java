@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.ObjectInputFilter;
+import java.nio.file.Path;
+
+/**
+ * Settings of a {@link Journal}. {@code segmentSize} is the size of every
+ * segment file in bytes; a record has to fit into one segment.
+ */
+@Value
+@Builder
+public class JournalConfiguration {
+    Path directory;
+    @Builder.Default
+    int segmentSize = 64 * 1024 * 1024;
+    @Builder.Default
+    FsyncPolicy fsyncPolicy = FsyncPolicy.GROUP_COMMIT;
+    /**
+     * How long the flusher waits after the first unforced record so that
+     * more records share its fsync. Only used with
+     * {@link FsyncPolicy#GROUP_COMMIT}.
+     */
+    @Builder.Default
+    long groupCommitIntervalMicros = 1_000;
+    /**
+     * Decides which classes of serialized context values may be read back
+     * when the journal is recovered.
+     */
+    @Builder.Default
+    ObjectInputFilter deserializationFilter =
+            InstanceSnapshot.DEFAULT_DESERIALIZATION_FILTER;
+}
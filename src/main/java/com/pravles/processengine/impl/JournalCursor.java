@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal state of one instance: its id and the encoded context values as
+ * of the last record, so that the next record only carries what changed.
+ * Shared by the frames of an instance's subprocesses; not thread-safe.
+ */
+@RequiredArgsConstructor
+public class JournalCursor {
+    @Getter
+    private final long instanceId;
+    final Map<String, byte[]> encodedValues = new HashMap<>();
+    final List<String> changedKeys = new ArrayList<>();
+    final List<String> removedKeys = new ArrayList<>();
+    final Buffer valueBuffer = new Buffer(64);
+    final DataOutputStream valueOut = new DataOutputStream(valueBuffer);
+    final Buffer recordBuffer = new Buffer(256);
+    final DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+    /**
+     * Segments with records of this instance, guarded by the journal's
+     * lock.
+     */
+    final List<Integer> segmentNumbers = new ArrayList<>(2);
+    int lastSegmentNumber;
+
+    /**
+     * Gives access to the bytes written so far without copying them.
+     */
+    static class Buffer extends ByteArrayOutputStream {
+        Buffer(final int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
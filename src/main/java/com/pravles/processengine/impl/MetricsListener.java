@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.EngineListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts instances, gateway decisions and subprocess calls, and keeps a
+ * {@link LatencyHistogram} per node and per activity function. Counters
+ * are {@link LongAdder}s, and the maps are only written to the first time
+ * a process, node or function shows up.
+ */
+public class MetricsListener implements EngineListener {
+    private final LongAdder instancesStarted = new LongAdder();
+    private final LongAdder instancesCompleted = new LongAdder();
+    private final LongAdder instancesFailed = new LongAdder();
+    private final Map<String, Map<String, LatencyHistogram>>
+            nodeLatenciesByProcessIds = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> activityLatenciesByFns =
+            new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LongAdder>>
+            decisionsByGatewayVertexIds = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> callsBySubProcessIds =
+            new ConcurrentHashMap<>();
+
+    @Override
+    public void instanceStarted(final String processId) {
+        instancesStarted.increment();
+    }
+
+    @Override
+    public void instanceEnded(final String processId,
+                              final Throwable error) {
+        if (error == null) {
+            instancesCompleted.increment();
+        } else {
+            instancesFailed.increment();
+        }
+    }
+
+    @Override
+    public void nodeExited(final String processId,
+                           final String vertexId,
+                           final String fn,
+                           final long durationNanos) {
+        get(latenciesByVertexIds(processId), vertexId)
+                .record(durationNanos);
+        if (fn != null) {
+            get(activityLatenciesByFns, fn).record(durationNanos);
+        }
+    }
+
+    @Override
+    public void gatewayDecided(final String processId,
+                               final String gatewayVertexId,
+                               final String targetVertexId) {
+        counter(counters(decisionsByGatewayVertexIds, gatewayVertexId),
+                targetVertexId).increment();
+    }
+
+    @Override
+    public void subProcessCalled(final String processId,
+                                 final String callVertexId,
+                                 final String subProcessId) {
+        counter(callsBySubProcessIds, subProcessId).increment();
+    }
+
+    public long getInstancesStarted() {
+        return instancesStarted.sum();
+    }
+
+    public long getInstancesCompleted() {
+        return instancesCompleted.sum();
+    }
+
+    public long getInstancesFailed() {
+        return instancesFailed.sum();
+    }
+
+    /**
+     * @return the latencies of the node, null if it has never run
+     */
+    public LatencyHistogram getNodeLatency(final String processId,
+                                           final String vertexId) {
+        final Map<String, LatencyHistogram> latenciesByVertexIds =
+                nodeLatenciesByProcessIds.get(processId);
+        return (latenciesByVertexIds == null)
+                ? null
+                : latenciesByVertexIds.get(vertexId);
+    }
+
+    /**
+     * @return the latencies of all activities bound to {@code fn}, null if
+     * none has run
+     */
+    public LatencyHistogram getActivityLatency(final String fn) {
+        return activityLatenciesByFns.get(fn);
+    }
+
+    /**
+     * Gateway vertex ids aren't qualified with the process id, so gateways
+     * with the same id in different processes share their counters.
+     */
+    public long getGatewayDecisions(final String gatewayVertexId,
+                                    final String targetVertexId) {
+        final Map<String, LongAdder> decisionsByTargets =
+                decisionsByGatewayVertexIds.get(gatewayVertexId);
+        final LongAdder decisions = (decisionsByTargets == null)
+                ? null
+                : decisionsByTargets.get(targetVertexId);
+        return (decisions == null) ? 0 : decisions.sum();
+    }
+
+    public long getSubProcessCalls(final String subProcessId) {
+        final LongAdder calls = callsBySubProcessIds.get(subProcessId);
+        return (calls == null) ? 0 : calls.sum();
+    }
+
+    private Map<String, LatencyHistogram> latenciesByVertexIds(
+            final String processId) {
+        final Map<String, LatencyHistogram> value =
+                nodeLatenciesByProcessIds.get(processId);
+        return (value != null)
+                ? value
+                : nodeLatenciesByProcessIds.computeIfAbsent(processId,
+                        k -> new ConcurrentHashMap<>());
+    }
+
+    private static LatencyHistogram get(
+            final Map<String, LatencyHistogram> map,
+            final String key) {
+        final LatencyHistogram value = map.get(key);
+        return (value != null)
+                ? value
+                : map.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    private static Map<String, LongAdder> counters(
+            final Map<String, Map<String, LongAdder>> map,
+            final String key) {
+        final Map<String, LongAdder> value = map.get(key);
+        return (value != null)
+                ? value
+                : map.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    private static LongAdder counter(final Map<String, LongAdder> map,
+                                     final String key) {
+        final LongAdder value = map.get(key);
+        return (value != null)
+                ? value
+                : map.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Compiled configuration of a {@code multi-instance} node, e. g.
+ * {@code {:type :multi-instance :collection "items" :item "item"
+ * :output "scores" :fn "score" :mode :chunked :parallelism 4
+ * :chunk-size 100}}. Instead of {@code :fn}, {@code :process} runs a
+ * subprocess per element.
+ */
+@Value
+@Builder
+public class MultiInstanceSpec {
+    public enum Mode {
+        SEQUENTIAL,
+        /**
+         * Every element is a task of its own.
+         */
+        PARALLEL,
+        /**
+         * Tasks process {@code chunkSize} consecutive elements each.
+         */
+        CHUNKED
+    }
+
+    /**
+     * Context key of the collection to iterate over.
+     */
+    String collection;
+    /**
+     * Context key the current element is put under.
+     */
+    String item;
+    /**
+     * Context key that gets the list of results, in collection order.
+     */
+    String output;
+    /**
+     * Context key each element's run leaves its result under; the item key
+     * unless given with {@code :result}.
+     */
+    String result;
+    @Builder.Default
+    Mode mode = Mode.SEQUENTIAL;
+    /**
+     * Upper bound of elements or chunks processed at once, including the
+     * one on the calling thread.
+     */
+    @Builder.Default
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    @Builder.Default
+    int chunkSize = 100;
+}
@@ -10,8 +10,7 @@
 
 package com.pravles.processengine.impl;
 
-import java.util.function.Function;
+import java.util.function.Consumer;
 
-public interface NodeProcessor extends Function<NodeProcessingInput,
-        GraphTraversalState> {
+public interface NodeProcessor extends Consumer<ExecutionFrame> {
 }
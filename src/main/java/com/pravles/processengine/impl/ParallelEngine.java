@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.Engine;
+import com.pravles.processengine.api.ProcessDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs independent process instances in parallel. Every instance runs
+ * entirely on one worker thread of the executor; by default that's a
+ * work-stealing {@link ForkJoinPool} owned by this object. The activity
+ * and condition functions passed in are called from several threads at
+ * once and have to be thread-safe. Each instance has to get its own initial
+ * context.
+ * <p>
+ * For activities that block on I/O, {@link #withVirtualThreads} runs every
+ * instance on its own virtual thread. At most {@code maxConcurrentInstances}
+ * of them walk at a time; the others wait cheaply for a permit.
+ */
+public class ParallelEngine implements AutoCloseable {
+    private final Engine engine;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Semaphore permits;
+
+    public ParallelEngine(final Engine engine, final int parallelism) {
+        this(engine, new ForkJoinPool(parallelism), true, null);
+    }
+
+    public ParallelEngine(final Engine engine, final ExecutorService executor) {
+        this(engine, executor, false, null);
+    }
+
+    private ParallelEngine(final Engine engine,
+                           final ExecutorService executor,
+                           final boolean ownsExecutor,
+                           final Semaphore permits) {
+        this.engine = engine;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.permits = permits;
+    }
+
+    public static ParallelEngine withVirtualThreads(
+            final Engine engine,
+            final int maxConcurrentInstances) {
+        if (maxConcurrentInstances < 1) {
+            throw new IllegalArgumentException(
+                    "maxConcurrentInstances must be positive");
+        }
+        return new ParallelEngine(engine,
+                Executors.newVirtualThreadPerTaskExecutor(), true,
+                new Semaphore(maxConcurrentInstances));
+    }
+
+    public CompletableFuture<Map<String, Object>> submit(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, Object> initCtx,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (permits == null) {
+                return engine.runDefinitionWithSubprocesses(
+                        definitionsByProcessIds, initCtx, activityFns,
+                        conditionFns, processId);
+            }
+            permits.acquireUninterruptibly();
+            try {
+                return engine.runDefinitionWithSubprocesses(
+                        definitionsByProcessIds, initCtx, activityFns,
+                        conditionFns, processId);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Submits one instance per initial context. The futures are in the same
+     * order as the contexts.
+     */
+    public List<CompletableFuture<Map<String, Object>>> submitAll(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final List<Map<String, Object>> initCtxs,
+            final Map<String, ActivityFunction> activityFns,
+            final Map<String, ConditionFunction> conditionFns,
+            final String processId) {
+        final List<CompletableFuture<Map<String, Object>>> futures =
+                new ArrayList<>(initCtxs.size());
+        for (final Map<String, Object> initCtx : initCtxs) {
+            futures.add(submit(definitionsByProcessIds, initCtx, activityFns,
+                    conditionFns, processId));
+        }
+        return futures;
+    }
+
+    /**
+     * Shuts down the executor if it was created by this object. A supplied
+     * executor is left to its owner.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
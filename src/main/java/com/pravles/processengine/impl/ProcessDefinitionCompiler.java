@@ -0,0 +1,546 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import clojure.java.api.Clojure;
+import clojure.lang.IFn;
+import clojure.lang.Keyword;
+import com.pravles.libreofficedraw.model.Edge;
+import com.pravles.libreofficedraw.model.Vertex;
+import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.ContextSchema;
+import com.pravles.processengine.api.ContextType;
+import com.pravles.processengine.api.ProcessDefinition;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns a process graph into a {@link ProcessDefinitionImpl}. The EDN
+ * description of every vertex is read exactly once here, so the engine loop
+ * never has to touch EDN.
+ */
+public class ProcessDefinitionCompiler {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(ProcessDefinitionCompiler.class);
+    private static final Keyword TYPE = Keyword.intern("type");
+    private static final Keyword START = Keyword.intern("start");
+    private static final Keyword FN = Keyword.intern("fn");
+    private static final Keyword PROCESS = Keyword.intern("process");
+    private static final Keyword TIMER = Keyword.intern("timer");
+    private static final Keyword DURATION = Keyword.intern("duration");
+    private static final Keyword MILLIS = Keyword.intern("millis");
+    private static final Keyword CONTEXT = Keyword.intern("context");
+    private static final Keyword MULTI_INSTANCE =
+            Keyword.intern("multi-instance");
+    private static final Keyword COLLECTION = Keyword.intern("collection");
+    private static final Keyword ITEM = Keyword.intern("item");
+    private static final Keyword OUTPUT = Keyword.intern("output");
+    private static final Keyword RESULT = Keyword.intern("result");
+    private static final Keyword MODE = Keyword.intern("mode");
+    private static final Keyword PARALLELISM = Keyword.intern("parallelism");
+    private static final Keyword CHUNK_SIZE = Keyword.intern("chunk-size");
+    private static final Keyword GATEWAY_SWITCH =
+            Keyword.intern("gateway-switch");
+    private static final Keyword KEY = Keyword.intern("key");
+    private static final Keyword RECEIVE = Keyword.intern("receive");
+    private static final Keyword MESSAGE = Keyword.intern("message");
+    private static final Keyword CORRELATION_KEY =
+            Keyword.intern("correlation-key");
+    private static final String DEFAULT_LABEL = "default";
+    private static final Keyword GATEWAY_OPEN =
+            Keyword.intern("gateway-open");
+    private static final Keyword PARALLEL_OPEN =
+            Keyword.intern("gateway-parallel-open");
+    private static final Keyword PARALLEL_CLOSE =
+            Keyword.intern("gateway-parallel-close");
+
+    /**
+     * Resolved once per JVM: {@code require} holds a monitor while it
+     * loads, which would pin virtual threads creating engines.
+     */
+    private static final IFn READ_STRING = loadReadString();
+
+    private final Map<Keyword, NodeProcessor> nodeProcessorsByTypes;
+
+    public ProcessDefinitionCompiler(
+            final Map<Keyword, NodeProcessor> nodeProcessorsByTypes) {
+        this.nodeProcessorsByTypes = nodeProcessorsByTypes;
+    }
+
+    private static IFn loadReadString() {
+        final IFn require = Clojure.var("clojure.core", "require");
+        require.invoke(Clojure.read("clojure.edn"));
+        return Clojure.var("clojure.edn", "read-string");
+    }
+
+    public ProcessDefinition compile(final String processId,
+                                     final DefaultDirectedGraph graph) {
+        final List<Vertex> vertices = new ArrayList<>(graph.vertexSet().size());
+        final Map<Vertex, Integer> indicesByVertices =
+                new HashMap<>(graph.vertexSet().size());
+        for (final Object o : graph.vertexSet()) {
+            if (o instanceof Vertex) {
+                indicesByVertices.put((Vertex) o, vertices.size());
+                vertices.add((Vertex) o);
+            }
+        }
+
+        final List<CompiledNode> nodes = new ArrayList<>(vertices.size());
+        final Map<String, Integer> nodeIndicesByVertexIds =
+                new HashMap<>(vertices.size());
+        int startNode = -1;
+        for (final Vertex vertex : vertices) {
+            final CompiledNode node = compileNode(nodes.size(), vertex, graph,
+                    indicesByVertices);
+            nodes.add(node);
+            nodeIndicesByVertexIds.put(vertex.getId(), node.getIndex());
+
+            if ((startNode < 0) && START.equals(node.getType())) {
+                startNode = node.getIndex();
+            }
+        }
+
+        linkParallelGateways(nodes);
+        compileConditions(nodes);
+        final ContextSchema contextSchema = (startNode < 0)
+                ? null
+                : compileContextSchema(nodes.get(startNode));
+        if (contextSchema != null) {
+            resolveContextSlots(nodes, contextSchema);
+        }
+
+        return ProcessDefinitionImpl.builder()
+                .processId(processId)
+                .nodes(Collections.unmodifiableList(nodes))
+                .startNode(startNode)
+                .nodeIndicesByVertexIds(
+                        Collections.unmodifiableMap(nodeIndicesByVertexIds))
+                .contextSchema(contextSchema)
+                .build();
+    }
+
+    private CompiledNode compileNode(
+            final int index,
+            final Vertex vertex,
+            final DefaultDirectedGraph graph,
+            final Map<Vertex, Integer> indicesByVertices) {
+        final List<Transition> transitions =
+                compileTransitions(vertex, graph, indicesByVertices);
+        final int next = transitions.isEmpty()
+                ? -1
+                : firstTarget(vertex, graph, indicesByVertices);
+        final CompiledNode.CompiledNodeBuilder builder = CompiledNode.builder()
+                .index(index)
+                .vertex(vertex)
+                .next(next)
+                .transitions(transitions);
+
+        final Map<String, Object> data =
+                parseClojureMap(vertex.getDescription());
+        if (data == null) {
+            return builder.build();
+        }
+
+        final Keyword type = (Keyword) data.get(TYPE);
+        final NodeProcessor nodeProcessor = nodeProcessorsByTypes.get(type);
+        if ((type != null) && (nodeProcessor == null)) {
+            LOGGER.error(String.format("Node '%s' has unknown type '%s'",
+                    vertex.getId(), type));
+        }
+
+        if (TIMER.equals(type)) {
+            builder.delayMillis(compileDelay(vertex, data));
+        } else if (GATEWAY_SWITCH.equals(type)) {
+            compileSwitch(builder, vertex, data, transitions);
+        } else if (MULTI_INSTANCE.equals(type)) {
+            builder.multiInstance(compileMultiInstance(vertex, data));
+        } else if (RECEIVE.equals(type)) {
+            compileReceive(builder, vertex, data);
+        }
+
+        return builder
+                .type(type)
+                .nodeProcessor(nodeProcessor)
+                .fn((String) data.get(FN))
+                .subProcessId((String) data.get(PROCESS))
+                .data(data)
+                .build();
+    }
+
+    /**
+     * Timer delays are given either as {@code :millis} or as an ISO-8601
+     * {@code :duration} like {@code "PT30M"}.
+     */
+    private static long compileDelay(final Vertex vertex,
+                                     final Map<String, Object> data) {
+        final Object millis = data.get(MILLIS);
+        if (millis instanceof Number) {
+            return ((Number) millis).longValue();
+        }
+        final Object duration = data.get(DURATION);
+        if (duration instanceof String) {
+            try {
+                return Duration.parse((String) duration).toMillis();
+            } catch (final DateTimeParseException e) {
+                LOGGER.error(String.format("Timer '%s' has invalid duration " +
+                        "'%s'", vertex.getId(), duration), e);
+                return -1;
+            }
+        }
+        LOGGER.error(String.format("Timer '%s' has neither :millis nor " +
+                ":duration", vertex.getId()));
+        return -1;
+    }
+
+    /**
+     * The message name and the correlation key may be strings or keywords.
+     */
+    private static void compileReceive(
+            final CompiledNode.CompiledNodeBuilder builder,
+            final Vertex vertex,
+            final Map<String, Object> data) {
+        final String messageName = name(data.get(MESSAGE));
+        final String correlationKey = name(data.get(CORRELATION_KEY));
+        if ((messageName == null) || (correlationKey == null)) {
+            LOGGER.error(String.format("Receive node '%s' needs :message and " +
+                    ":correlation-key", vertex.getId()));
+            return;
+        }
+        builder.messageName(messageName)
+                .correlationKey(correlationKey);
+    }
+
+    /**
+     * Reads a schema like {@code :context {:approved :boolean :amount
+     * :long}} from the start node. Keys may be keywords or strings.
+     */
+    private static ContextSchema compileContextSchema(
+            final CompiledNode startNode) {
+        final Object declaration = (startNode.getData() == null)
+                ? null
+                : startNode.getData().get(CONTEXT);
+        if (!(declaration instanceof Map)) {
+            return null;
+        }
+        final ContextSchema.Builder builder = ContextSchema.builder();
+        for (final Map.Entry<?, ?> entry :
+                ((Map<?, ?>) declaration).entrySet()) {
+            final String key = (entry.getKey() instanceof Keyword)
+                    ? ((Keyword) entry.getKey()).getName()
+                    : String.valueOf(entry.getKey());
+            final String typeName = (entry.getValue() instanceof Keyword)
+                    ? ((Keyword) entry.getValue()).getName()
+                    : String.valueOf(entry.getValue());
+            final ContextType type;
+            try {
+                type = ContextType.valueOf(typeName.toUpperCase());
+            } catch (final IllegalArgumentException e) {
+                LOGGER.error(String.format("Context key '%s' of process " +
+                        "node '%s' has unknown type '%s'", key,
+                        startNode.getVertex().getId(), typeName));
+                continue;
+            }
+            builder.key(key, type);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Lets gateways read boolean keys by slot instead of by name.
+     */
+    private static void resolveContextSlots(final List<CompiledNode> nodes,
+                                            final ContextSchema schema) {
+        for (int i = 0; i < nodes.size(); i++) {
+            final CompiledNode node = nodes.get(i);
+            final List<Transition> transitions =
+                    new ArrayList<>(node.getTransitions().size());
+            boolean resolved = false;
+            for (final Transition transition : node.getTransitions()) {
+                final int slot = schema.slotOf(transition.getLabel());
+                if ((slot >= 0)
+                        && (schema.getType(slot) == ContextType.BOOLEAN)) {
+                    transitions.add(transition.toBuilder()
+                            .slot(slot)
+                            .build());
+                    resolved = true;
+                } else {
+                    transitions.add(transition);
+                }
+            }
+            if (resolved) {
+                nodes.set(i, node.toBuilder()
+                        .transitions(Collections.unmodifiableList(transitions))
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Turns the expression labels of gateway edges into lambdas. Labels that
+     * don't parse, like {@code Is counter greater than 2?}, stay names of
+     * condition functions.
+     */
+    private static void compileConditions(final List<CompiledNode> nodes) {
+        for (int i = 0; i < nodes.size(); i++) {
+            final CompiledNode node = nodes.get(i);
+            if (!GATEWAY_OPEN.equals(node.getType())) {
+                continue;
+            }
+            final List<Transition> transitions =
+                    new ArrayList<>(node.getTransitions().size());
+            boolean compiled = false;
+            for (final Transition transition : node.getTransitions()) {
+                if (!ConditionExpression.isExpression(transition.getLabel())) {
+                    transitions.add(transition);
+                    continue;
+                }
+                final ConditionFunction condition;
+                try {
+                    condition = ConditionExpression.compile(
+                            transition.getLabel());
+                } catch (final IllegalArgumentException e) {
+                    LOGGER.debug(String.format("Gateway '%s': %s",
+                            node.getVertex().getId(), e.getMessage()));
+                    transitions.add(transition);
+                    continue;
+                }
+                transitions.add(transition.toBuilder()
+                        .condition(condition)
+                        .build());
+                compiled = true;
+            }
+            if (compiled) {
+                nodes.set(i, node.toBuilder()
+                        .transitions(Collections.unmodifiableList(transitions))
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Builds the lookup table of a switch gateway: every edge label is a
+     * value of the {@code :key} context key, except {@code default}. Labels
+     * that are integers match integral numbers of any type as well.
+     */
+    private static void compileSwitch(
+            final CompiledNode.CompiledNodeBuilder builder,
+            final Vertex vertex,
+            final Map<String, Object> data,
+            final List<Transition> transitions) {
+        final Object key = data.get(KEY);
+        if (key instanceof Keyword) {
+            builder.switchKey(((Keyword) key).getName());
+        } else if (key instanceof String) {
+            builder.switchKey((String) key);
+        } else {
+            LOGGER.error(String.format("Switch gateway '%s' has no :key",
+                    vertex.getId()));
+        }
+
+        final Map<Object, Integer> switchTargets =
+                new HashMap<>(transitions.size() * 4);
+        for (final Transition transition : transitions) {
+            final String label = StringUtils.trimToEmpty(transition.getLabel());
+            if (DEFAULT_LABEL.equals(label)) {
+                builder.defaultTarget(transition.getTarget());
+                continue;
+            }
+            if (label.isEmpty() || switchTargets.containsKey(label)) {
+                LOGGER.error(String.format("Switch gateway '%s' has an edge " +
+                        "with %s label '%s'", vertex.getId(),
+                        label.isEmpty() ? "an empty" : "a duplicate", label));
+                continue;
+            }
+            switchTargets.put(label, transition.getTarget());
+            try {
+                switchTargets.put(Long.parseLong(label),
+                        transition.getTarget());
+            } catch (final NumberFormatException e) {
+                // Matches strings only
+            }
+        }
+        builder.switchTargets(Collections.unmodifiableMap(switchTargets));
+    }
+
+    private static MultiInstanceSpec compileMultiInstance(
+            final Vertex vertex,
+            final Map<String, Object> data) {
+        final String collection = name(data.get(COLLECTION));
+        final String item = name(data.get(ITEM));
+        final String output = name(data.get(OUTPUT));
+        if ((collection == null) || (item == null) || (output == null)) {
+            LOGGER.error(String.format("Multi-instance node '%s' needs " +
+                    ":collection, :item and :output", vertex.getId()));
+            return null;
+        }
+        final MultiInstanceSpec.MultiInstanceSpecBuilder builder =
+                MultiInstanceSpec.builder()
+                        .collection(collection)
+                        .item(item)
+                        .output(output)
+                        .result((data.get(RESULT) == null)
+                                ? item
+                                : name(data.get(RESULT)));
+
+        final String mode = name(data.get(MODE));
+        if (mode != null) {
+            try {
+                builder.mode(MultiInstanceSpec.Mode.valueOf(
+                        mode.toUpperCase()));
+            } catch (final IllegalArgumentException e) {
+                LOGGER.error(String.format("Multi-instance node '%s' has " +
+                        "unknown mode '%s'", vertex.getId(), mode));
+            }
+        }
+        final Object parallelism = data.get(PARALLELISM);
+        if (parallelism instanceof Number) {
+            builder.parallelism(Math.max(1,
+                    ((Number) parallelism).intValue()));
+        }
+        final Object chunkSize = data.get(CHUNK_SIZE);
+        if (chunkSize instanceof Number) {
+            builder.chunkSize(Math.max(1, ((Number) chunkSize).intValue()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the name of a keyword, a string as is, null otherwise
+     */
+    private static String name(final Object o) {
+        if (o instanceof Keyword) {
+            return ((Keyword) o).getName();
+        }
+        return (o instanceof String) ? (String) o : null;
+    }
+
+    private static void linkParallelGateways(final List<CompiledNode> nodes) {
+        for (int i = 0; i < nodes.size(); i++) {
+            final CompiledNode node = nodes.get(i);
+            if (!PARALLEL_OPEN.equals(node.getType())) {
+                continue;
+            }
+            final int join = findJoin(nodes, i, new HashSet<>());
+            if (join < 0) {
+                LOGGER.error(String.format("Parallel gateway '%s' has no " +
+                        "matching gateway-parallel-close", node.getVertex()
+                        .getId()));
+            }
+            nodes.set(i, node.toBuilder()
+                    .join(join)
+                    .build());
+        }
+    }
+
+    /**
+     * Finds the first {@code gateway-parallel-close} reachable from the
+     * branches of the given parallel gateway, skipping over the joins of
+     * nested parallel gateways.
+     */
+    private static int findJoin(final List<CompiledNode> nodes,
+                                final int open,
+                                final Set<Integer> openGateways) {
+        if (!openGateways.add(open)) {
+            return -1;
+        }
+        final Deque<Integer> queue = new ArrayDeque<>();
+        final Set<Integer> visited = new HashSet<>();
+        addTargets(nodes.get(open), queue);
+
+        while (!queue.isEmpty()) {
+            final int cur = queue.poll();
+            if (!visited.add(cur)) {
+                continue;
+            }
+            final CompiledNode node = nodes.get(cur);
+            if (PARALLEL_CLOSE.equals(node.getType())) {
+                return cur;
+            } else if (PARALLEL_OPEN.equals(node.getType())) {
+                final int nestedJoin = findJoin(nodes, cur, openGateways);
+                if (nestedJoin >= 0) {
+                    visited.add(nestedJoin);
+                    addTargets(nodes.get(nestedJoin), queue);
+                }
+            } else {
+                addTargets(node, queue);
+            }
+        }
+        return -1;
+    }
+
+    private static void addTargets(final CompiledNode node,
+                                   final Deque<Integer> queue) {
+        for (final Transition transition : node.getTransitions()) {
+            queue.add(transition.getTarget());
+        }
+    }
+
+    private static int firstTarget(final Vertex vertex,
+                                   final DefaultDirectedGraph graph,
+                                   final Map<Vertex, Integer> indicesByVertices) {
+        final Object firstEdge = graph.outgoingEdgesOf(vertex)
+                .iterator()
+                .next();
+        return indicesByVertices.get(graph.getEdgeTarget(firstEdge));
+    }
+
+    private static List<Transition> compileTransitions(
+            final Vertex vertex,
+            final DefaultDirectedGraph graph,
+            final Map<Vertex, Integer> indicesByVertices) {
+        final List<Pair<String, Edge>> conditionsEdges =
+                new ArrayList<>(graph.outDegreeOf(vertex));
+        for (final Object e : graph.outgoingEdgesOf(vertex)) {
+            final Edge edge = (Edge) e;
+            conditionsEdges.add(Pair.of(edge.getLabel(), edge));
+        }
+
+        Collections.sort(conditionsEdges, new ConditionEdgeComparator());
+
+        final List<Transition> transitions =
+                new ArrayList<>(conditionsEdges.size());
+        for (final Pair<String, Edge> conditionEdge : conditionsEdges) {
+            final Object target =
+                    graph.getEdgeTarget(conditionEdge.getRight());
+            transitions.add(Transition.builder()
+                    .label(conditionEdge.getLeft())
+                    .target(indicesByVertices.get(target))
+                    .build());
+        }
+        return Collections.unmodifiableList(transitions);
+    }
+
+    private Map<String, Object> parseClojureMap(final String clojureCode) {
+        if (StringUtils.isBlank(clojureCode)) {
+            return null;
+        }
+        final Object data = READ_STRING.invoke(clojureCode);
+        if (!(data instanceof Map)) {
+            return null;
+        }
+        return (Map<String, Object>) data;
+    }
+}
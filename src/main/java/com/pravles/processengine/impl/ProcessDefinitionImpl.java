@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.ContextSchema;
+import com.pravles.processengine.api.ProcessDefinition;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+@Value
+@Builder(toBuilder = true)
+public class ProcessDefinitionImpl implements ProcessDefinition {
+    String processId;
+    List<CompiledNode> nodes;
+    int startNode;
+    Map<String, Integer> nodeIndicesByVertexIds;
+
+    /**
+     * Declared by the {@code :context} entry of the start node, null if
+     * the process uses plain maps.
+     */
+    ContextSchema contextSchema;
+
+    public CompiledNode getNode(final int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @return index of the node of the given vertex, -1 if there's none
+     */
+    public int getNodeIndex(final String vertexId) {
+        return nodeIndicesByVertexIds.getOrDefault(vertexId, -1);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.Engine;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessDefinitionRepository;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU cache of compiled definitions keyed by (process id, SHA-256 of the
+ * diagram). Only versions that a later load has superseded get evicted;
+ * the current definition of every process stays, so that {@link #get}
+ * finds every process that has been loaded, even if that takes more than
+ * {@code maxSize} entries. Guarded by a {@link Lock}
+ * rather than a monitor, so virtual threads loading definitions don't get
+ * pinned to their carrier.
+ */
+public class ProcessDefinitionRepositoryImpl
+        implements ProcessDefinitionRepository {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(ProcessDefinitionRepositoryImpl.class);
+
+    private final Engine engine;
+    private final int maxSize;
+    private final LinkedHashMap<Pair<String, String>, ProcessDefinition>
+            definitionsByKeys;
+    private final Map<String, Pair<String, String>> currentKeysByProcessIds;
+    private volatile Map<String, ProcessDefinition> definitionsByProcessIds;
+    private final Lock lock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProcessDefinitionRepositoryImpl(final Engine engine,
+                                           final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.engine = engine;
+        this.maxSize = maxSize;
+        this.definitionsByKeys = new LinkedHashMap<>(16, 0.75f, true);
+        this.currentKeysByProcessIds = new HashMap<>();
+        this.definitionsByProcessIds = Collections.emptyMap();
+    }
+
+    @Override
+    public ProcessDefinition load(final String processId,
+                                  final InputStream diagramInputStream) {
+        final byte[] content;
+        try {
+            content = IOUtils.toByteArray(diagramInputStream);
+        } catch (final IOException e) {
+            LOGGER.error(String.format("Error while reading process " +
+                    "diagram '%s'", processId), e);
+            return null;
+        }
+        final Pair<String, String> key = Pair.of(processId, hash(content));
+
+        lock.lock();
+        try {
+            final ProcessDefinition cached = definitionsByKeys.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                if (!key.equals(currentKeysByProcessIds.get(processId))) {
+                    final Map<String, ProcessDefinition> snapshot =
+                            new HashMap<>(definitionsByProcessIds);
+                    makeCurrent(snapshot, processId, key, cached);
+                    definitionsByProcessIds =
+                            Collections.unmodifiableMap(snapshot);
+                }
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.incrementAndGet();
+
+        final ProcessDefinition definition = engine.compile(processId,
+                new ByteArrayInputStream(content));
+        if (definition == null) {
+            return null;
+        }
+
+        lock.lock();
+        try {
+            definitionsByKeys.put(key, definition);
+            final Map<String, ProcessDefinition> snapshot =
+                    new HashMap<>(definitionsByProcessIds);
+            makeCurrent(snapshot, processId, key, definition);
+            evictSuperseded();
+            definitionsByProcessIds = Collections.unmodifiableMap(snapshot);
+        } finally {
+            lock.unlock();
+        }
+        return definition;
+    }
+
+    @Override
+    public ProcessDefinition get(final String processId) {
+        return definitionsByProcessIds.get(processId);
+    }
+
+    @Override
+    public Map<String, ProcessDefinition> getDefinitionsByProcessIds() {
+        return definitionsByProcessIds;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private void evictSuperseded() {
+        final Iterator<Pair<String, String>> keys =
+                definitionsByKeys.keySet().iterator();
+        while ((definitionsByKeys.size() > maxSize) && keys.hasNext()) {
+            final Pair<String, String> key = keys.next();
+            if (!key.equals(currentKeysByProcessIds.get(key.getLeft()))) {
+                keys.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void makeCurrent(final Map<String, ProcessDefinition> snapshot,
+                             final String processId,
+                             final Pair<String, String> key,
+                             final ProcessDefinition definition) {
+        currentKeysByProcessIds.put(processId, key);
+        snapshot.put(processId, definition);
+    }
+
+    private static String hash(final byte[] content) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] hash = digest.digest(content);
+            final StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (final byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.BranchMergeStrategy;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies the changes of every branch to the context from before the fork,
+ * in branch order. Every branch starts with a copy of that context, so only
+ * the entries a branch added, changed or removed count as its changes;
+ * the entries it left alone don't overwrite what other branches wrote. If
+ * branches change the same key, the last branch wins.
+ */
+public class PutAllMergeStrategy implements BranchMergeStrategy {
+    @Override
+    public Map<String, Object> merge(
+            final Map<String, Object> ctxBeforeFork,
+            final List<Map<String, Object>> branchCtxs) {
+        final Map<String, Object> changed = new LinkedHashMap<>();
+        final Set<String> removed = new HashSet<>();
+        for (final Map<String, Object> branchCtx : branchCtxs) {
+            for (final Map.Entry<String, Object> entry :
+                    branchCtx.entrySet()) {
+                if (!ctxBeforeFork.containsKey(entry.getKey())
+                        || !Objects.equals(ctxBeforeFork.get(entry.getKey()),
+                        entry.getValue())) {
+                    changed.put(entry.getKey(), entry.getValue());
+                    removed.remove(entry.getKey());
+                }
+            }
+            for (final String key : ctxBeforeFork.keySet()) {
+                if (!branchCtx.containsKey(key)) {
+                    removed.add(key);
+                    changed.remove(key);
+                }
+            }
+        }
+        for (final String key : removed) {
+            ctxBeforeFork.remove(key);
+        }
+        ctxBeforeFork.putAll(changed);
+        return ctxBeforeFork;
+    }
+}
@@ -16,11 +16,31 @@ import clojure.lang.RT;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Entry point to the Clojure scripts in {@code clj/}. Every script is loaded
+ * at most once per JVM and the resolved functions are cached, so calling
+ * {@code woof} repeatedly costs a map lookup. Scripts in {@code clj/} are
+ * loaded via {@code clojure.core/load}, which picks up the AOT-compiled
+ * classes produced by the build if they are on the classpath. The name of
+ * the top-level function is ASCII because AOT compilation turns it into a
+ * class file name, which non-UTF-8 platform encodings can't represent.
+ */
 @Slf4j
 public class ShariysDog {
 
-    public static final String TOP_LEVEL_FUNCTION_NAME = "гав";
+    public static final String TOP_LEVEL_FUNCTION_NAME = "gav";
+
+    private static final Set<String> LOADED_SCRIPTS =
+            ConcurrentHashMap.newKeySet();
+    private static final Map<String, IFn> FUNCTIONS_BY_SCRIPTS =
+            new ConcurrentHashMap<>();
+    private static final Lock LOAD_LOCK = new ReentrantLock();
 
     private ShariysDog() {
 
@@ -28,73 +48,81 @@ public class ShariysDog {
 
     public static IFn woof(final String scriptFile, final String namespace,
                           final String functionName) {
-        try {
-            RT.loadResourceScript(scriptFile);
-        } catch (final IOException e) {
-            log.error("Can't initialize Clojure", e);
-        }
+        loadOnce(scriptFile, () -> RT.loadResourceScript(scriptFile));
         return Clojure.var(namespace, functionName);
     }
 
     public static <T> T woof(final String fname, final Object param1) {
-        try {
-            RT.loadResourceScript(String.format("clj/%s.clj", fname));
-        } catch (final IOException e) {
-            log.error("Can't initialize Clojure", e);
-        }
-        return (T) Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME).invoke(param1);
+        return (T) woof(fname).invoke(param1);
     }
 
     public static <T> T woof(final String fname, final Object param1,
                                   final Object param2) {
-        try {
-            RT.loadResourceScript(String.format("clj/%s.clj", fname));
-        } catch (final IOException e) {
-            log.error("Can't initialize Clojure", e);
-        }
-        return (T) Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME).invoke(param1, param2);
+        return (T) woof(fname).invoke(param1, param2);
     }
 
     public static <T> T woof(final String fname, final Object param1,
                                   final Object param2, final Object param3) {
-        try {
-            RT.loadResourceScript(String.format("clj/%s.clj", fname));
-        } catch (final IOException e) {
-            log.error("Can't initialize Clojure", e);
-        }
-        return (T) Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME).invoke(param1, param2, param3);
+        return (T) woof(fname).invoke(param1, param2, param3);
     }
 
     public static <T> T woof(final String fname, final Object param1,
                                   final Object param2, final Object param3,
                                   final Object param4) {
-        try {
-            RT.loadResourceScript(String.format("clj/%s.clj", fname));
-        } catch (final IOException e) {
-            log.error("Can't initialize Clojure", e);
-        }
-        return (T) Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME).invoke(param1, param2,
+        return (T) woof(fname).invoke(param1, param2,
                 param3, param4);
     }
 
     public static <T> T woof(final String fname, final Object param1,
                                   final Object param2, final Object param3,
                                   final Object param4, final Object param5) {
-        try {
-            RT.loadResourceScript(String.format("clj/%s.clj", fname));
-        } catch (final IOException e) {
-            log.error("Can't initialize Clojure", e);
-        }
-        return (T) Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME).invoke(param1, param2,
+        return (T) woof(fname).invoke(param1, param2,
                 param3, param4, param5);
     }
 
     public static IFn woof(final String fname) {
+        final IFn fn = FUNCTIONS_BY_SCRIPTS.get(fname);
+        if (fn != null) {
+            return fn;
+        }
+        final String scriptPath = String.format("/clj/%s", fname);
+        loadOnce(scriptPath, () -> Clojure.var("clojure.core", "load")
+                .invoke(scriptPath));
+        final IFn loadedFn = Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME);
+        if (LOADED_SCRIPTS.contains(scriptPath)) {
+            FUNCTIONS_BY_SCRIPTS.put(fname, loadedFn);
+        }
+        return loadedFn;
+    }
+
+    /**
+     * Loads the given scripts from {@code clj/} ahead of time, e.g. during
+     * application startup.
+     */
+    public static void preload(final String... fnames) {
+        for (final String fname : fnames) {
+            woof(fname);
+        }
+    }
+
+    private static void loadOnce(final String script, final ScriptLoader loader) {
+        if (LOADED_SCRIPTS.contains(script)) {
+            return;
+        }
+        LOAD_LOCK.lock();
         try {
-            RT.loadResourceScript(String.format("clj/%s.clj", fname));
-        } catch (final IOException e) {
+            if (!LOADED_SCRIPTS.contains(script)) {
+                loader.load();
+                LOADED_SCRIPTS.add(script);
+            }
+        } catch (final IOException | RuntimeException e) {
             log.error("Can't initialize Clojure", e);
+        } finally {
+            LOAD_LOCK.unlock();
         }
-        return Clojure.var(fname, TOP_LEVEL_FUNCTION_NAME);
+    }
+
+    private interface ScriptLoader {
+        void load() throws IOException;
     }
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import clojure.lang.Keyword;
+import com.pravles.libreofficedraw.model.Vertex;
+import com.pravles.processengine.api.ProcessDefinition;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies the nodes of called subprocesses into the definitions that call
+ * them, so that a {@code call-subprocess} node becomes a plain jump to the
+ * copied start node and the copied end nodes jump back to the node after
+ * the call. Copied vertices get the id {@code <call vertex id>/<vertex id>}
+ * so that the journal and wait nodes can still tell them apart.
+ * <p>
+ * Subprocess frames, journal enter and exit records and the context schema
+ * of the subprocess don't exist for inlined calls; the subprocess works on
+ * the context of its caller.
+ */
+@RequiredArgsConstructor
+public class SubProcessInliner {
+    private static final Keyword CALL_SUBPROCESS =
+            Keyword.intern("call-subprocess");
+    private static final Keyword END = Keyword.intern("end");
+
+    /**
+     * Processor of the former call and end nodes; moves on to {@code next}.
+     */
+    private final NodeProcessor jump;
+
+    /**
+     * @throws IllegalArgumentException if subprocesses call each other in a
+     *                                  cycle
+     */
+    public Map<String, ProcessDefinition> inline(
+            final Map<String, ProcessDefinition> definitionsByProcessIds) {
+        for (final String processId : definitionsByProcessIds.keySet()) {
+            checkForCycles(definitionsByProcessIds, processId,
+                    new LinkedHashSet<>(), new HashSet<>());
+        }
+        return inlineAcyclicCalls(definitionsByProcessIds);
+    }
+
+    /**
+     * Like {@link #inline}, but leaves the calls between subprocesses that
+     * call each other in a cycle as they are, so that they run on the call
+     * stack of the instance.
+     */
+    public Map<String, ProcessDefinition> inlineAcyclicCalls(
+            final Map<String, ProcessDefinition> definitionsByProcessIds) {
+        final Map<String, ProcessDefinitionImpl> inlinedByProcessIds =
+                new HashMap<>(definitionsByProcessIds.size());
+        final Map<String, ProcessDefinition> result =
+                new HashMap<>(definitionsByProcessIds.size());
+        for (final String processId : definitionsByProcessIds.keySet()) {
+            result.put(processId, inline(definitionsByProcessIds, processId,
+                    inlinedByProcessIds));
+        }
+        return result;
+    }
+
+    private static void checkForCycles(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final String processId,
+            final LinkedHashSet<String> callChain,
+            final Set<String> checked) {
+        if (callChain.contains(processId)) {
+            final List<String> cycle = new ArrayList<>(callChain);
+            cycle.add(processId);
+            throw new IllegalArgumentException(String.format(
+                    "Cyclic subprocess calls: %s", String.join(" -> ",
+                            cycle.subList(cycle.indexOf(processId),
+                                    cycle.size()))));
+        }
+        final ProcessDefinition definition =
+                definitionsByProcessIds.get(processId);
+        if (!(definition instanceof ProcessDefinitionImpl)
+                || checked.contains(processId)) {
+            return;
+        }
+        callChain.add(processId);
+        for (final CompiledNode node :
+                ((ProcessDefinitionImpl) definition).getNodes()) {
+            if (CALL_SUBPROCESS.equals(node.getType())
+                    && (node.getSubProcessId() != null)) {
+                checkForCycles(definitionsByProcessIds,
+                        node.getSubProcessId(), callChain, checked);
+            }
+        }
+        callChain.remove(processId);
+        checked.add(processId);
+    }
+
+    /**
+     * @return true if {@code callerId} calls {@code calleeId}, directly or
+     * through other subprocesses
+     */
+    private static boolean calls(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final String callerId,
+            final String calleeId) {
+        final Set<String> visited = new HashSet<>();
+        final List<String> pending = new ArrayList<>();
+        pending.add(callerId);
+        while (!pending.isEmpty()) {
+            final ProcessDefinition definition = definitionsByProcessIds.get(
+                    pending.remove(pending.size() - 1));
+            if (!(definition instanceof ProcessDefinitionImpl)) {
+                continue;
+            }
+            for (final CompiledNode node :
+                    ((ProcessDefinitionImpl) definition).getNodes()) {
+                if (!CALL_SUBPROCESS.equals(node.getType())
+                        || (node.getSubProcessId() == null)) {
+                    continue;
+                }
+                if (node.getSubProcessId().equals(calleeId)) {
+                    return true;
+                }
+                if (visited.add(node.getSubProcessId())) {
+                    pending.add(node.getSubProcessId());
+                }
+            }
+        }
+        return false;
+    }
+
+    private ProcessDefinition inline(
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final String processId,
+            final Map<String, ProcessDefinitionImpl> inlinedByProcessIds) {
+        final ProcessDefinition definition =
+                definitionsByProcessIds.get(processId);
+        if (!(definition instanceof ProcessDefinitionImpl)) {
+            return definition;
+        }
+        final ProcessDefinitionImpl inlined =
+                inlinedByProcessIds.get(processId);
+        if (inlined != null) {
+            return inlined;
+        }
+
+        final ProcessDefinitionImpl caller = (ProcessDefinitionImpl) definition;
+        final List<CompiledNode> nodes = new ArrayList<>(caller.getNodes());
+        final Map<String, Integer> nodeIndicesByVertexIds =
+                new HashMap<>(caller.getNodeIndicesByVertexIds());
+        for (int i = 0; i < caller.getNodes().size(); i++) {
+            final CompiledNode call = caller.getNode(i);
+            if (!CALL_SUBPROCESS.equals(call.getType())) {
+                continue;
+            }
+            if ((call.getSubProcessId() == null)
+                    || calls(definitionsByProcessIds, call.getSubProcessId(),
+                    processId)) {
+                continue;
+            }
+            final ProcessDefinition callee = inline(definitionsByProcessIds,
+                    call.getSubProcessId(), inlinedByProcessIds);
+            if (!(callee instanceof ProcessDefinitionImpl)
+                    || (((ProcessDefinitionImpl) callee).getStartNode() < 0)) {
+                continue;
+            }
+            final ProcessDefinitionImpl subProcess =
+                    (ProcessDefinitionImpl) callee;
+            final int offset = nodes.size();
+            final String prefix = call.getVertex().getId() + "/";
+            final boolean sameSchema = subProcess.getContextSchema()
+                    == caller.getContextSchema();
+            for (final CompiledNode node : subProcess.getNodes()) {
+                final CompiledNode copy = relocate(node, offset, prefix,
+                        call.getNext(), sameSchema);
+                nodes.add(copy);
+                nodeIndicesByVertexIds.put(copy.getVertex().getId(),
+                        copy.getIndex());
+            }
+            nodes.set(i, call.toBuilder()
+                    .nodeProcessor(jump)
+                    .next(offset + subProcess.getStartNode())
+                    .build());
+        }
+
+        final ProcessDefinitionImpl result = caller.toBuilder()
+                .nodes(Collections.unmodifiableList(nodes))
+                .nodeIndicesByVertexIds(
+                        Collections.unmodifiableMap(nodeIndicesByVertexIds))
+                .build();
+        inlinedByProcessIds.put(processId, result);
+        return result;
+    }
+
+    private CompiledNode relocate(final CompiledNode node,
+                                  final int offset,
+                                  final String prefix,
+                                  final int continuation,
+                                  final boolean sameSchema) {
+        final List<Transition> transitions =
+                new ArrayList<>(node.getTransitions().size());
+        for (final Transition transition : node.getTransitions()) {
+            transitions.add(transition.toBuilder()
+                    .target(transition.getTarget() + offset)
+                    .slot(sameSchema ? transition.getSlot() : -1)
+                    .build());
+        }
+        Map<Object, Integer> switchTargets = node.getSwitchTargets();
+        if (switchTargets != null) {
+            final Map<Object, Integer> relocated =
+                    new HashMap<>(switchTargets.size() * 2);
+            for (final Map.Entry<Object, Integer> entry :
+                    switchTargets.entrySet()) {
+                relocated.put(entry.getKey(), entry.getValue() + offset);
+            }
+            switchTargets = Collections.unmodifiableMap(relocated);
+        }
+
+        final CompiledNode.CompiledNodeBuilder builder = node.toBuilder()
+                .index(node.getIndex() + offset)
+                .vertex(Vertex.builder()
+                        .id(prefix + node.getVertex().getId())
+                        .name(node.getVertex().getName())
+                        .description(node.getVertex().getDescription())
+                        .build())
+                .next(shift(node.getNext(), offset))
+                .transitions(Collections.unmodifiableList(transitions))
+                .join(shift(node.getJoin(), offset))
+                .defaultTarget(shift(node.getDefaultTarget(), offset))
+                .switchTargets(switchTargets);
+        // Ends of nested subprocesses already jump back into their caller
+        if (END.equals(node.getType()) && (node.getNodeProcessor() != jump)) {
+            builder.nodeProcessor(jump)
+                    .next(continuation);
+        }
+        return builder.build();
+    }
+
+    private static int shift(final int index, final int offset) {
+        return (index < 0) ? index : index + offset;
+    }
+}
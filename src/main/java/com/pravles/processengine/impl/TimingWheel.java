@@ -0,0 +1,259 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} buckets of one
+ * tick each, level 1 as many buckets of {@code wheelSize} ticks and so on;
+ * a timeout sits in the lowest level whose range covers it and moves down
+ * a level whenever the ticker passes its bucket. Buckets are intrusive
+ * doubly linked lists, so scheduling and cancelling are O(1) and a timeout
+ * costs one small object, whatever the number of pending timeouts.
+ * <p>
+ * Threads that schedule or cancel only put the timeout into a lock-free
+ * queue; a single ticker thread owns the wheels, drains the queues once per
+ * tick and hands expired tasks to the executor. Timeouts fire at most one
+ * tick late. Timeouts beyond the span of the top level go around it until
+ * they are within it. The ticker starts with the first timeout.
+ */
+public class TimingWheel implements AutoCloseable {
+    private static final int LEVELS = 4;
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int CLOSED = 2;
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final int wheelSize;
+    private final long[] ticksPerBucket = new long[LEVELS];
+    private final Timeout[][] wheels;
+    private final Executor executor;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private volatile Thread ticker;
+    private long currentTick;
+
+    public TimingWheel(final long tickMillis,
+                       final int wheelSize,
+                       final Executor executor) {
+        if ((tickMillis < 1) || (wheelSize < 2)) {
+            throw new IllegalArgumentException(
+                    "tickMillis must be positive and wheelSize at least 2");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheelSize = wheelSize;
+        this.executor = executor;
+        this.wheels = new Timeout[LEVELS][wheelSize];
+        long ticks = 1;
+        for (int level = 0; level < LEVELS; level++) {
+            ticksPerBucket[level] = ticks;
+            ticks = Math.multiplyExact(ticks, (long) wheelSize);
+            for (int bucket = 0; bucket < wheelSize; bucket++) {
+                final Timeout head = new Timeout(0, null, this);
+                head.prev = head;
+                head.next = head;
+                wheels[level][bucket] = head;
+            }
+        }
+    }
+
+    public Timeout schedule(final long delayMillis, final Runnable task) {
+        final long deadlineNanos = System.nanoTime() - startNanos
+                + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0));
+        final long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+        final Timeout timeout = new Timeout(deadlineTick, task, this);
+        if (state.get() == CLOSED) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        scheduled.add(timeout);
+        if (state.compareAndSet(NEW, RUNNING)) {
+            final Thread thread = new Thread(this::tick, "timing-wheel");
+            thread.setDaemon(true);
+            ticker = thread;
+            thread.start();
+        }
+        return timeout;
+    }
+
+    /**
+     * Stops the ticker. Pending timeouts don't fire anymore.
+     */
+    @Override
+    public void close() {
+        if (state.getAndSet(CLOSED) == RUNNING) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    private void tick() {
+        while (state.get() == RUNNING) {
+            final long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long waitNanos;
+            while (((waitNanos = nextTickNanos - System.nanoTime()) > 0)
+                    && (state.get() == RUNNING)) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            currentTick++;
+            unlinkCancelled();
+            addScheduled();
+            advance();
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            timeout.unlink();
+        }
+    }
+
+    private void addScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state == PENDING) {
+                place(timeout);
+            }
+        }
+    }
+
+    /**
+     * Moves the buckets of the higher levels whose time has come down to
+     * the lower levels, then expires the level 0 bucket of this tick.
+     */
+    private void advance() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick % ticksPerBucket[level]) == 0) {
+                Timeout timeout = detach(wheels[level][bucketIndex(
+                        currentTick, level)]);
+                while (timeout != null) {
+                    final Timeout next = timeout.next;
+                    timeout.prev = null;
+                    timeout.next = null;
+                    place(timeout);
+                    timeout = next;
+                }
+            }
+        }
+
+        final Timeout head = wheels[0][bucketIndex(currentTick, 0)];
+        Timeout timeout = head.next;
+        while (timeout != head) {
+            final Timeout next = timeout.next;
+            timeout.unlink();
+            expire(timeout);
+            timeout = next;
+        }
+    }
+
+    /**
+     * Empties a bucket before its timeouts are placed again: a timeout
+     * beyond the span of the top level goes back into the bucket it came
+     * from and mustn't be visited twice.
+     *
+     * @return the first timeout of the bucket, whose chain of {@code next}
+     * links ends with null, or null if the bucket was empty
+     */
+    private static Timeout detach(final Timeout head) {
+        if (head.next == head) {
+            return null;
+        }
+        final Timeout first = head.next;
+        head.prev.next = null;
+        head.prev = head;
+        head.next = head;
+        return first;
+    }
+
+    private void place(final Timeout timeout) {
+        final long remaining = timeout.deadlineTick - currentTick;
+        if (remaining <= 0) {
+            expire(timeout);
+            return;
+        }
+        int level = 0;
+        while ((level < LEVELS - 1)
+                && (remaining >= ticksPerBucket[level + 1])) {
+            level++;
+        }
+        timeout.linkBefore(wheels[level][bucketIndex(timeout.deadlineTick,
+                level)]);
+    }
+
+    private int bucketIndex(final long tick, final int level) {
+        return (int) ((tick / ticksPerBucket[level]) % wheelSize);
+    }
+
+    private void expire(final Timeout timeout) {
+        if (Timeout.STATE.compareAndSet(timeout, PENDING, EXPIRED)) {
+            executor.execute(timeout.task);
+        }
+    }
+
+    public static class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private final TimingWheel wheel;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private volatile int state = PENDING;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(final long deadlineTick,
+                        final Runnable task,
+                        final TimingWheel wheel) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+            this.wheel = wheel;
+        }
+
+        /**
+         * @return false if the timeout has already fired or been cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        private void linkBefore(final Timeout head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
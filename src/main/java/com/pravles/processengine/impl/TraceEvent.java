@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One entry of an {@link InstanceTrace}. For a {@link Type#NODE},
+ * {@code fn} is the function of an activity (null for other nodes),
+ * {@code offsetNanos} is the time between the start of the previous node
+ * and the start of this one, and {@code durationNanos} is the time spent
+ * in the node. For a {@link Type#DECISION}, {@code vertexId} is the
+ * gateway and {@code target} the vertex it went to. For a
+ * {@link Type#CALL}, {@code vertexId} is the call node and {@code target}
+ * the called process.
+ */
+@Value
+@Builder
+public class TraceEvent {
+    public enum Type {
+        NODE,
+        DECISION,
+        CALL
+    }
+
+    Type type;
+    String processId;
+    String vertexId;
+    String fn;
+    String target;
+    long offsetNanos;
+    long durationNanos;
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.EngineListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link EngineListener} that writes the nodes, gateway decisions and
+ * subprocess calls of every top-level instance to a binary trace file,
+ * which {@link #read} turns back into {@link InstanceTrace}s and
+ * {@link TraceReplayer} runs again.
+ * <p>
+ * While an instance runs, its events go into a buffer of the thread that
+ * started it. When it ends, the buffer is put into a ring of
+ * {@code capacity} instances; if the ring is full, the instance is dropped
+ * rather than holding up the engine. A flusher thread takes the buffers
+ * from the ring and encodes them. Events on other threads, i. e. parallel
+ * branches and multi-instance runs on the branch executor, aren't
+ * recorded. Neither are instances that suspend, at a {@code wait},
+ * {@code receive} or {@code timer} node or an async activity: their buffer
+ * is dropped when they suspend, and their resumes get a buffer that
+ * ignores the events, so that they don't end up in the trace of another
+ * instance on the same thread.
+ * <p>
+ * The file starts with {@link #MAGIC} and consists of records that start
+ * with a type byte. A {@code STRING} record defines the next string id
+ * (process and vertex ids and function names, each written once per
+ * file); an {@code INSTANCE} record holds one instance with all its events.
+ * Ids, times and counts are varints; node offsets are zigzag-encoded.
+ */
+public class TraceRecorder implements EngineListener, AutoCloseable {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(TraceRecorder.class);
+
+    static final int MAGIC = 0x50545231;
+
+    private static final int STRING = 1;
+    private static final int INSTANCE = 2;
+
+    private static final int NODE = 1;
+    private static final int DECISION = 2;
+    private static final int CALL = 3;
+
+    private static final InstanceBuffer CLOSED = new InstanceBuffer(null,
+            null, false);
+
+    private final ThreadLocal<InstanceBuffer> buffers = new ThreadLocal<>();
+    private final BlockingQueue<InstanceBuffer> ring;
+    private final LongAdder droppedInstances = new LongAdder();
+    private final DataOutputStream out;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public TraceRecorder(final Path file, final int capacity) {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file), 64 * 1024));
+            out.writeInt(MAGIC);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.flusher = new Thread(this::flushContinuously, "trace-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Instances that weren't recorded because the ring was full.
+     */
+    public long getDroppedInstances() {
+        return droppedInstances.sum();
+    }
+
+    @Override
+    public void instanceStarted(final String processId) {
+        buffers.set(new InstanceBuffer(processId, buffers.get(), true));
+    }
+
+    @Override
+    public void instanceEnded(final String processId,
+                              final Throwable error) {
+        final InstanceBuffer buffer = pop();
+        if ((buffer == null) || !buffer.recorded) {
+            return;
+        }
+        buffer.failed = (error != null);
+        if (closed || !ring.offer(buffer)) {
+            droppedInstances.increment();
+        }
+    }
+
+    @Override
+    public void instanceSuspended(final String processId) {
+        pop();
+    }
+
+    @Override
+    public void instanceResumed(final String processId) {
+        buffers.set(new InstanceBuffer(processId, buffers.get(), false));
+    }
+
+    private InstanceBuffer pop() {
+        final InstanceBuffer buffer = buffers.get();
+        if (buffer == null) {
+            return null;
+        }
+        if (buffer.parent == null) {
+            buffers.remove();
+        } else {
+            buffers.set(buffer.parent);
+            buffer.parent = null;
+        }
+        return buffer;
+    }
+
+    @Override
+    public void nodeExited(final String processId,
+                           final String vertexId,
+                           final String fn,
+                           final long durationNanos) {
+        final InstanceBuffer buffer = buffers.get();
+        if ((buffer != null) && buffer.recorded) {
+            final long start = System.nanoTime() - durationNanos;
+            buffer.add(NODE, processId, vertexId, fn,
+                    start - buffer.lastStartNanos, durationNanos);
+            buffer.lastStartNanos = start;
+        }
+    }
+
+    @Override
+    public void gatewayDecided(final String processId,
+                               final String gatewayVertexId,
+                               final String targetVertexId) {
+        final InstanceBuffer buffer = buffers.get();
+        if ((buffer != null) && buffer.recorded) {
+            buffer.add(DECISION, processId, gatewayVertexId, targetVertexId,
+                    0, 0);
+        }
+    }
+
+    @Override
+    public void subProcessCalled(final String processId,
+                                 final String callVertexId,
+                                 final String subProcessId) {
+        final InstanceBuffer buffer = buffers.get();
+        if ((buffer != null) && buffer.recorded) {
+            buffer.add(CALL, processId, callVertexId, subProcessId, 0, 0);
+        }
+    }
+
+    /**
+     * Writes the instances that have ended so far and closes the file.
+     * Instances ending later are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            ring.put(CLOSED);
+            flusher.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<InstanceTrace> read(final Path file) {
+        final List<InstanceTrace> traces = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException(String.format(
+                        "'%s' isn't a trace file", file));
+            }
+            final List<String> strings = new ArrayList<>();
+            while (true) {
+                final int type = in.read();
+                if (type < 0) {
+                    break;
+                } else if (type == STRING) {
+                    strings.add(InstanceSnapshot.readString(in));
+                } else if (type == INSTANCE) {
+                    traces.add(readInstance(in, strings));
+                } else {
+                    throw new IllegalArgumentException(String.format(
+                            "Unknown record type %d in trace", type));
+                }
+            }
+        } catch (final EOFException e) {
+            LOGGER.warn(String.format("Trace '%s' ends with an incomplete " +
+                    "record", file));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return traces;
+    }
+
+    private static InstanceTrace readInstance(final DataInputStream in,
+                                              final List<String> strings)
+            throws IOException {
+        final String processId = readRef(in, strings);
+        final long startedAtMillis = InstanceSnapshot.readVarLong(in);
+        final boolean failed = in.readBoolean();
+        final int size = (int) InstanceSnapshot.readVarLong(in);
+        final List<TraceEvent> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int type = in.readUnsignedByte();
+            final TraceEvent.TraceEventBuilder event = TraceEvent.builder()
+                    .processId(readRef(in, strings))
+                    .vertexId(readRef(in, strings));
+            if (type == NODE) {
+                event.type(TraceEvent.Type.NODE)
+                        .fn(readRef(in, strings))
+                        .offsetNanos(InstanceSnapshot.unZigZag(
+                                InstanceSnapshot.readVarLong(in)))
+                        .durationNanos(InstanceSnapshot.readVarLong(in));
+            } else {
+                event.type((type == DECISION)
+                                ? TraceEvent.Type.DECISION
+                                : TraceEvent.Type.CALL)
+                        .target(readRef(in, strings));
+            }
+            events.add(event.build());
+        }
+        return InstanceTrace.builder()
+                .processId(processId)
+                .startedAtMillis(startedAtMillis)
+                .failed(failed)
+                .events(Collections.unmodifiableList(events))
+                .build();
+    }
+
+    private static String readRef(final DataInputStream in,
+                                  final List<String> strings)
+            throws IOException {
+        final int ref = (int) InstanceSnapshot.readVarLong(in);
+        return (ref == 0) ? null : strings.get(ref - 1);
+    }
+
+    private void flushContinuously() {
+        final List<InstanceBuffer> drained = new ArrayList<>();
+        while (true) {
+            try {
+                drained.add(ring.take());
+            } catch (final InterruptedException e) {
+                return;
+            }
+            ring.drainTo(drained);
+            try {
+                for (final InstanceBuffer buffer : drained) {
+                    if (buffer == CLOSED) {
+                        out.flush();
+                        return;
+                    }
+                    write(buffer);
+                }
+                out.flush();
+            } catch (final IOException e) {
+                LOGGER.error("Can't write trace", e);
+            }
+            drained.clear();
+        }
+    }
+
+    private void write(final InstanceBuffer buffer) throws IOException {
+        for (int i = 0; i < buffer.size * 3; i++) {
+            intern(buffer.refs[i]);
+        }
+        intern(buffer.processId);
+
+        out.writeByte(INSTANCE);
+        writeRef(buffer.processId);
+        InstanceSnapshot.writeVarLong(out, buffer.startedAtMillis);
+        out.writeBoolean(buffer.failed);
+        InstanceSnapshot.writeVarLong(out, buffer.size);
+        for (int i = 0; i < buffer.size; i++) {
+            final int type = buffer.types[i];
+            out.writeByte(type);
+            writeRef(buffer.refs[3 * i]);
+            writeRef(buffer.refs[3 * i + 1]);
+            writeRef(buffer.refs[3 * i + 2]);
+            if (type == NODE) {
+                InstanceSnapshot.writeVarLong(out,
+                        InstanceSnapshot.zigZag(buffer.numbers[2 * i]));
+                InstanceSnapshot.writeVarLong(out, buffer.numbers[2 * i + 1]);
+            }
+        }
+    }
+
+    private void intern(final String value) throws IOException {
+        if ((value != null) && !stringIds.containsKey(value)) {
+            stringIds.put(value, stringIds.size() + 1);
+            out.writeByte(STRING);
+            InstanceSnapshot.writeString(out, value);
+        }
+    }
+
+    private void writeRef(final String value) throws IOException {
+        InstanceSnapshot.writeVarLong(out,
+                (value == null) ? 0 : stringIds.get(value));
+    }
+
+    /**
+     * Events of one instance as parallel arrays: a type, three strings and
+     * two numbers per event. The strings are the ids the engine passes to
+     * the listener, so recording doesn't copy them.
+     */
+    private static class InstanceBuffer {
+        private final String processId;
+        /**
+         * False for the resumes of suspended instances, which only take
+         * their place on the stack of buffers.
+         */
+        private final boolean recorded;
+        private final long startedAtMillis = System.currentTimeMillis();
+        private InstanceBuffer parent;
+        private boolean failed;
+        private long lastStartNanos = System.nanoTime();
+        private int size;
+        private byte[] types;
+        private String[] refs;
+        private long[] numbers;
+
+        private InstanceBuffer(final String processId,
+                               final InstanceBuffer parent,
+                               final boolean recorded) {
+            this.processId = processId;
+            this.parent = parent;
+            this.recorded = recorded;
+            if (recorded) {
+                types = new byte[16];
+                refs = new String[48];
+                numbers = new long[32];
+            }
+        }
+
+        private void add(final int type,
+                         final String processId,
+                         final String vertexId,
+                         final String third,
+                         final long first,
+                         final long second) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, 2 * size);
+                refs = Arrays.copyOf(refs, 6 * size);
+                numbers = Arrays.copyOf(numbers, 4 * size);
+            }
+            types[size] = (byte) type;
+            refs[3 * size] = processId;
+            refs[3 * size + 1] = vertexId;
+            refs[3 * size + 2] = third;
+            numbers[2 * size] = first;
+            numbers[2 * size + 1] = second;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.nodeprocessors.GatewayOpen;
+import com.pravles.processengine.impl.nodeprocessors.GatewaySwitch;
+import lombok.RequiredArgsConstructor;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the path of a recorded {@link InstanceTrace} again. Every
+ * {@code gateway-open} and {@code gateway-switch} node takes the edges the
+ * trace says it took, in order, and every activity is replaced by a stub
+ * that returns its context, after the recorded duration if
+ * {@code simulateDurations} is set. What's left is the engine's own work
+ * on a real path, e. g. for a profiler. Replays start with an empty
+ * context, so other nodes that read the context, like
+ * {@code multi-instance} nodes, may behave differently than when the
+ * trace was recorded. Traces of inlined definitions have to be replayed
+ * against inlined definitions.
+ */
+@RequiredArgsConstructor
+public class TraceReplayer {
+    private final EngineImpl engine;
+
+    /**
+     * Replays every instance of a trace file {@code iterations} times and
+     * prints the average time per instance. Arguments:
+     * {@code <trace> <iterations> <processId>=<diagram.fodg>...}
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: TraceReplayer <trace> <iterations> " +
+                    "<processId>=<diagram.fodg>...");
+            System.exit(1);
+        }
+        final EngineImpl engine = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            final String[] processIdAndFile = args[i].split("=", 2);
+            try (InputStream in = Files.newInputStream(
+                    Paths.get(processIdAndFile[1]))) {
+                definitionsByProcessIds.put(processIdAndFile[0],
+                        engine.compile(processIdAndFile[0], in));
+            }
+        }
+        final int iterations = Integer.parseInt(args[1]);
+        final TraceReplayer replayer = new TraceReplayer(engine);
+        final List<InstanceTrace> traces =
+                TraceRecorder.read(Paths.get(args[0]));
+        for (int i = 0; i < traces.size(); i++) {
+            final Replay replay = replayer.prepare(traces.get(i),
+                    definitionsByProcessIds, false);
+            final long start = System.nanoTime();
+            for (int j = 0; j < iterations; j++) {
+                replay.run();
+            }
+            System.out.printf("Instance %d of process '%s': %d ns%n", i,
+                    traces.get(i).getProcessId(),
+                    (System.nanoTime() - start) / iterations);
+        }
+    }
+
+    /**
+     * Prepares the definitions and stubs for replaying {@code trace}, so
+     * that {@link Replay#run()} only does the walk.
+     *
+     * @throws IllegalArgumentException if the trace refers to vertices the
+     *                                  definitions don't have
+     */
+    public Replay prepare(
+            final InstanceTrace trace,
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final boolean simulateDurations) {
+        final Map<String, Map<String, List<String>>> decisionsByProcessIds =
+                new HashMap<>();
+        final Map<String, List<Long>> durationsByFns = new HashMap<>();
+        for (final TraceEvent event : trace.getEvents()) {
+            if (event.getType() == TraceEvent.Type.DECISION) {
+                decisionsByProcessIds
+                        .computeIfAbsent(event.getProcessId(),
+                                k -> new HashMap<>())
+                        .computeIfAbsent(event.getVertexId(),
+                                k -> new ArrayList<>())
+                        .add(event.getTarget());
+            } else if ((event.getType() == TraceEvent.Type.NODE)
+                    && (event.getFn() != null)) {
+                durationsByFns.computeIfAbsent(event.getFn(),
+                        k -> new ArrayList<>()).add(event.getDurationNanos());
+            }
+        }
+
+        final List<ReplayedGateway> gateways = new ArrayList<>();
+        final Map<String, ReplayedActivity> activitiesByFns = new HashMap<>();
+        final Map<String, ProcessDefinition> replayedByProcessIds =
+                new HashMap<>(definitionsByProcessIds);
+        for (final Map.Entry<String, ProcessDefinition> entry :
+                definitionsByProcessIds.entrySet()) {
+            if (!(entry.getValue() instanceof ProcessDefinitionImpl)) {
+                continue;
+            }
+            final ProcessDefinitionImpl definition =
+                    (ProcessDefinitionImpl) entry.getValue();
+            final Map<String, List<String>> decisionsByGateways =
+                    decisionsByProcessIds.getOrDefault(entry.getKey(),
+                            Collections.emptyMap());
+            final List<CompiledNode> nodes =
+                    new ArrayList<>(definition.getNodes());
+            for (int i = 0; i < nodes.size(); i++) {
+                final CompiledNode node = nodes.get(i);
+                if (node.getFn() != null) {
+                    activitiesByFns.computeIfAbsent(node.getFn(), fn ->
+                            new ReplayedActivity(toArray(durationsByFns.get(fn)),
+                                    simulateDurations));
+                }
+                if ((node.getNodeProcessor() instanceof GatewayOpen)
+                        || (node.getNodeProcessor() instanceof GatewaySwitch)) {
+                    final ReplayedGateway gateway = new ReplayedGateway(
+                            node.getVertex().getId(), toIndices(definition,
+                            decisionsByGateways.getOrDefault(
+                                    node.getVertex().getId(),
+                                    Collections.emptyList())));
+                    gateways.add(gateway);
+                    nodes.set(i, node.toBuilder()
+                            .nodeProcessor(gateway)
+                            .build());
+                }
+            }
+            replayedByProcessIds.put(entry.getKey(), definition.toBuilder()
+                    .nodes(Collections.unmodifiableList(nodes))
+                    .build());
+        }
+        return new Replay(trace.getProcessId(), replayedByProcessIds,
+                Collections.unmodifiableMap(activitiesByFns), gateways);
+    }
+
+    private static int[] toIndices(final ProcessDefinitionImpl definition,
+                                   final List<String> vertexIds) {
+        final int[] indices = new int[vertexIds.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = definition.getNodeIndex(vertexIds.get(i));
+            if (indices[i] < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Node '%s' of process '%s' not found",
+                        vertexIds.get(i), definition.getProcessId()));
+            }
+        }
+        return indices;
+    }
+
+    private static long[] toArray(final List<Long> values) {
+        return (values == null)
+                ? new long[0]
+                : values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * A prepared replay of one trace. Not thread-safe: the stubs and
+     * gateways keep their position in the trace.
+     */
+    @RequiredArgsConstructor
+    public class Replay {
+        private final String processId;
+        private final Map<String, ProcessDefinition> definitionsByProcessIds;
+        private final Map<String, ReplayedActivity> activitiesByFns;
+        private final List<ReplayedGateway> gateways;
+
+        public Map<String, Object> run() {
+            for (final ReplayedActivity activity : activitiesByFns.values()) {
+                activity.position = 0;
+            }
+            for (final ReplayedGateway gateway : gateways) {
+                gateway.position = 0;
+            }
+            return engine.runDefinitionWithSubprocesses(
+                    definitionsByProcessIds, new HashMap<>(),
+                    Collections.unmodifiableMap(activitiesByFns),
+                    Collections.emptyMap(), processId);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ReplayedGateway implements NodeProcessor {
+        private final String vertexId;
+        private final int[] targets;
+        private int position;
+
+        @Override
+        public void accept(final ExecutionFrame frame) {
+            if (position == targets.length) {
+                throw new IllegalStateException(String.format("Trace has " +
+                        "no more decisions of gateway '%s'", vertexId));
+            }
+            frame.setNextNode(targets[position++]);
+            frame.setContinueToWalkThroughGraph(true);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ReplayedActivity implements ActivityFunction {
+        private final long[] durations;
+        private final boolean simulateDurations;
+        private int position;
+
+        @Override
+        public Map<String, Object> apply(final Map<String, Object> ctx) {
+            if (simulateDurations && (position < durations.length)) {
+                LockSupport.parkNanos(durations[position]);
+            }
+            position++;
+            return ctx;
+        }
+    }
+}
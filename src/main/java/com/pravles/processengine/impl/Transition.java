@@ -10,24 +10,26 @@
 
 package com.pravles.processengine.impl;
 
-import com.pravles.libreofficedraw.model.Vertex;
-import com.pravles.processengine.api.ActivityFunction;
 import com.pravles.processengine.api.ConditionFunction;
 import lombok.Builder;
-import lombok.Data;
-import org.jgrapht.graph.DefaultDirectedGraph;
+import lombok.Value;
 
-import java.util.Map;
+@Value
+@Builder(toBuilder = true)
+public class Transition {
+    String label;
+    int target;
 
-@Data
-@Builder
-public class GraphTraversalState {
-    private Map<String, Object> ctx;
-    private Vertex nextNodeToProcess;
-    private boolean continueToWalkThroughGraph;
-    private Map<String, ActivityFunction> fnBindings;
-    private Map<String, ConditionFunction>
-            conditionFns;
-    private String curProcessId;
-    private Map<String, DefaultDirectedGraph> processGraphsByProcessIds;
+    /**
+     * Slot of the boolean context key named by the label, -1 if the
+     * process declares no such key.
+     */
+    @Builder.Default
+    int slot = -1;
+
+    /**
+     * Compiled from the label if it is an expression rather than the name
+     * of a condition function or key.
+     */
+    ConditionFunction condition;
 }
@@ -10,43 +10,39 @@
 
 package com.pravles.processengine.impl;
 
-import com.pravles.libreofficedraw.model.Vertex;
-import org.jgrapht.graph.DefaultDirectedGraph;
+import com.pravles.processengine.api.PersistentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Utils {
     private final static Logger LOGGER = LoggerFactory.getLogger(Utils.class);
-    public static GraphTraversalState.GraphTraversalStateBuilder
-        copy(final GraphTraversalState oldState) {
-        return GraphTraversalState.builder()
-                .conditionFns(oldState.getConditionFns())
-                .fnBindings(oldState.getFnBindings())
-                .processGraphsByProcessIds(oldState.getProcessGraphsByProcessIds())
-                .ctx(oldState.getCtx());
-    }
 
-    public static GraphTraversalState findNextEdge(DefaultDirectedGraph graph,
-                                             Vertex curNode,
-                                             GraphTraversalState state) {
-        final Optional firstEdgeOpt =
-                graph.outgoingEdgesOf(curNode).stream().findFirst();
+    public static void findNextEdge(final ExecutionFrame frame) {
+        final int next = frame.getCurNode().getNext();
 
-        if (firstEdgeOpt.isEmpty()) {
+        if (next < 0) {
             LOGGER.error("No outgoing edges found");
-            return GraphTraversalState.builder()
-                    .continueToWalkThroughGraph(false)
-                    .build();
+            frame.setContinueToWalkThroughGraph(false);
+            return;
         }
 
-        final Object firstEdge = firstEdgeOpt.get();
+        frame.setNextNode(next);
+        frame.setContinueToWalkThroughGraph(true);
+    }
 
-        return copy(state)
-                .nextNodeToProcess((Vertex) graph.getEdgeTarget(firstEdge))
-                .continueToWalkThroughGraph(true)
-                .build();
+    /**
+     * Gives a context to a branch that must not see the changes of others:
+     * an O(1) fork of a persistent context, a shallow copy of any other.
+     */
+    public static Map<String, Object> copyContext(
+            final Map<String, Object> ctx) {
+        if (ctx instanceof PersistentContext) {
+            return ((PersistentContext) ctx).fork();
+        }
+        return new HashMap<>(ctx);
     }
 
 }
@@ -10,37 +10,58 @@
 
 package com.pravles.processengine.impl.nodeprocessors;
 
-import clojure.lang.Keyword;
 import com.pravles.processengine.api.ActivityFunction;
-import com.pravles.processengine.impl.GraphTraversalState;
-import com.pravles.processengine.impl.NodeProcessingInput;
+import com.pravles.processengine.api.AsyncActivityFunction;
+import com.pravles.processengine.impl.ExecutionFrame;
 import com.pravles.processengine.impl.NodeProcessor;
 import com.pravles.processengine.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class Activity implements NodeProcessor {
     private final static Logger LOGGER = LoggerFactory.getLogger(Activity.class);
     @Override
-    public GraphTraversalState apply(final NodeProcessingInput i) {
-        final String fnName = (String) i.getCurNodeData()
-                .get(Keyword.intern(
-                "fn"));
-        final ActivityFunction fn = i.getState().getFnBindings().get(fnName);
+    public void accept(final ExecutionFrame frame) {
+        final String fnName = frame.getCurNode().getFn();
+        final ActivityFunction fn = frame.getFnBindings().get(fnName);
+
+        if (fn == null && frame.getAsyncFnBindings() != null) {
+            final AsyncActivityFunction asyncFn =
+                    frame.getAsyncFnBindings().get(fnName);
+            if (asyncFn != null) {
+                applyAsync(asyncFn, frame);
+                return;
+            }
+        }
 
         if (fn == null) {
             LOGGER.error(String.format("Function '%s' is " +
                     "not bound", fnName));
-            return Utils.findNextEdge(i.getGraph(),
-                    i.getCurNode(), i.getState());
+            Utils.findNextEdge(frame);
+            return;
         }
 
-        final Map<String, Object> newCtx = fn.apply(i.getState().getCtx());
-        final GraphTraversalState result = Utils.findNextEdge(i.getGraph(),
-                i.getCurNode(), i.getState());
-        result.setCtx(newCtx);
-        return result;
+        frame.setCtx(fn.apply(frame.getCtx()));
+        Utils.findNextEdge(frame);
+    }
+
+    /**
+     * Suspends the instance if its frame allows it. Otherwise (parallel
+     * branches and subprocesses on an executor) waits for the future on the
+     * current thread.
+     */
+    private void applyAsync(final AsyncActivityFunction asyncFn,
+                            final ExecutionFrame frame) {
+        final CompletableFuture<Map<String, Object>> newCtx =
+                asyncFn.apply(frame.getCtx());
+        if (frame.isSuspendable()) {
+            frame.setPendingCtx(newCtx);
+        } else {
+            frame.setCtx(newCtx.join());
+        }
+        Utils.findNextEdge(frame);
     }
 }
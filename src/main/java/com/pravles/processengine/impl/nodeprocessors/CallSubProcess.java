@@ -10,39 +10,47 @@
 
 package com.pravles.processengine.impl.nodeprocessors;
 
-import clojure.lang.Keyword;
-import com.pravles.processengine.api.Engine;
-import com.pravles.processengine.impl.GraphTraversalState;
-import com.pravles.processengine.impl.NodeProcessingInput;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ExecutionFrame;
 import com.pravles.processengine.impl.NodeProcessor;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
-import static com.pravles.processengine.impl.Utils.copy;
 import static com.pravles.processengine.impl.Utils.findNextEdge;
 
 @RequiredArgsConstructor
 public class CallSubProcess implements NodeProcessor {
-    private final Engine engine;
+    private final EngineImpl engine;
+    private final Executor executor;
     @Override
-    public GraphTraversalState apply(
-            final NodeProcessingInput i) {
-
-        final String subProcessId = (String) i.getCurNodeData()
-                .get(Keyword.intern("process"));
-
-        final Map<String, Object> newCtx =
-                engine.runGraphWithSubprocesses(
-                        i.getState().getProcessGraphsByProcessIds(),
-                        i.getState().getCtx(),
-                        i.getState().getFnBindings(),
-                        i.getState().getConditionFns(),
-                        subProcessId);
-        
-        return findNextEdge(i.getGraph(), i.getCurNode(),
-                copy(i.getState())
-                        .ctx(newCtx)
-                        .build());
+    public void accept(final ExecutionFrame frame) {
+        final String subProcessId = frame.getCurNode().getSubProcessId();
+
+        if (executor == null) {
+            engine.enterSubProcess(frame, subProcessId);
+            return;
+        }
+
+        frame.setCtx(runOnExecutor(frame, subProcessId));
+        findNextEdge(frame);
+    }
+
+    private Map<String, Object> runOnExecutor(final ExecutionFrame frame,
+                                              final String subProcessId) {
+        try {
+            return CompletableFuture.supplyAsync(() ->
+                            engine.runSubProcess(frame, subProcessId,
+                                    frame.getCtx()), executor)
+                    .join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 }
@@ -10,16 +10,12 @@
 
 package com.pravles.processengine.impl.nodeprocessors;
 
-import com.pravles.processengine.impl.GraphTraversalState;
-import com.pravles.processengine.impl.NodeProcessingInput;
+import com.pravles.processengine.impl.ExecutionFrame;
 import com.pravles.processengine.impl.NodeProcessor;
-import com.pravles.processengine.impl.Utils;
 
 public class End implements NodeProcessor {
     @Override
-    public GraphTraversalState apply(final NodeProcessingInput i) {
-        return Utils.copy(i.getState())
-                .continueToWalkThroughGraph(false)
-                .build();
+    public void accept(final ExecutionFrame frame) {
+        frame.setContinueToWalkThroughGraph(false);
     }
 }
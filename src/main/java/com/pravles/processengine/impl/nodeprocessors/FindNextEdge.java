@@ -10,36 +10,13 @@
 
 package com.pravles.processengine.impl.nodeprocessors;
 
-import com.pravles.libreofficedraw.model.Vertex;
-import com.pravles.processengine.impl.GraphTraversalState;
-import com.pravles.processengine.impl.NodeProcessingInput;
+import com.pravles.processengine.impl.ExecutionFrame;
 import com.pravles.processengine.impl.NodeProcessor;
 import com.pravles.processengine.impl.Utils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.Optional;
 
 public class FindNextEdge implements NodeProcessor {
-    private final Logger LOGGER = LoggerFactory.getLogger(FindNextEdge.class);
     @Override
-    public GraphTraversalState apply(final NodeProcessingInput i) {
-        final Optional firstEdgeOpt =
-                i.getGraph().outgoingEdgesOf(i.getCurNode())
-                        .stream().findFirst();
-
-        if (firstEdgeOpt.isEmpty()) {
-            LOGGER.error("No outgoing edges found");
-            return GraphTraversalState.builder()
-                    .continueToWalkThroughGraph(false)
-                    .build();
-        }
-
-        final Object firstEdge = firstEdgeOpt.get();
-
-        return Utils.copy(i.getState())
-                .nextNodeToProcess((Vertex) i.getGraph().getEdgeTarget(firstEdge))
-                .continueToWalkThroughGraph(true)
-                .build();
+    public void accept(final ExecutionFrame frame) {
+        Utils.findNextEdge(frame);
     }
 }
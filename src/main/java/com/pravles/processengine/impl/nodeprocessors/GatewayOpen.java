@@ -10,82 +10,74 @@
 
 package com.pravles.processengine.impl.nodeprocessors;
 
-import com.pravles.libreofficedraw.model.Edge;
-import com.pravles.libreofficedraw.model.Vertex;
 import com.pravles.processengine.api.ConditionFunction;
-import com.pravles.processengine.impl.ConditionEdgeComparator;
-import com.pravles.processengine.impl.GraphTraversalState;
-import com.pravles.processengine.impl.NodeProcessingInput;
+import com.pravles.processengine.api.ProcessContext;
+import com.pravles.processengine.impl.ExecutionFrame;
 import com.pravles.processengine.impl.NodeProcessor;
-import com.pravles.processengine.impl.Utils;
-import org.apache.commons.lang3.tuple.Pair;
+import com.pravles.processengine.impl.Transition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class GatewayOpen implements NodeProcessor {
     private final static Logger LOGGER =
             LoggerFactory.getLogger(GatewayOpen.class);
 
     @Override
-    public GraphTraversalState apply(final NodeProcessingInput in) {
-        final List<Pair<String, Edge>> conditionsEdges =
-                new ArrayList<>(in.getGraph().outDegreeOf(in.getCurNode()));
-        in.getGraph().outgoingEdgesOf(in.getCurNode())
-                .stream()
-                .forEach(e -> {
-                    final Edge edge = (Edge) e;
-                    conditionsEdges.add(Pair.of(edge.getLabel(),
-                            edge));
-                });
+    public void accept(final ExecutionFrame frame) {
+        final List<Transition> transitions =
+                frame.getCurNode().getTransitions();
+        final Map<String, Object> ctx = frame.getCtx();
+        final ProcessContext typedCtx = typedContext(frame, ctx);
 
-        Collections.sort(conditionsEdges,
-                new ConditionEdgeComparator());
+        for (int i = 0; i < transitions.size(); i++) {
+            final Transition transition = transitions.get(i);
+            final String fnName = transition.getLabel();
 
-        Edge nextEdgeToProcess = null;
-        boolean matchingConditionFound = false;
-        int i=0;
-
-        while (!matchingConditionFound && (i < conditionsEdges.size())) {
-            final Pair<String, Edge> curTuple =
-                    conditionsEdges.get(i);
-            final String fnName = curTuple.getLeft();
-
-            Boolean evalResult = false;
+            Boolean evalResult;
 
+            final ConditionFunction fn;
             if ("false".equalsIgnoreCase(fnName)) {
                 evalResult = true;
-            } else if (in.getState().getConditionFns().containsKey(fnName)) {
-                final ConditionFunction fn = in.getState().getConditionFns().get(fnName);
-                evalResult = fn.apply(in.getState().getCtx());
-            } else if (in.getState().getCtx().containsKey(fnName)) {
-                evalResult = (Boolean) in.getState().getCtx().get(fnName);
+            } else if ((fn = frame.getConditionFns().get(fnName)) != null) {
+                evalResult = fn.apply(ctx);
+            } else if (transition.getCondition() != null) {
+                evalResult = transition.getCondition().apply(ctx);
+            } else if ((typedCtx != null) && (transition.getSlot() >= 0)) {
+                evalResult = typedCtx.getBoolean(transition.getSlot());
             } else {
-                LOGGER.error(String.format("'%s' is neither a condition " +
-                        "nor a key in the contxt", fnName));
-                evalResult = null;
+                final Object value = ctx.get(fnName);
+                if ((value != null) || ctx.containsKey(fnName)) {
+                    evalResult = (Boolean) value;
+                } else {
+                    LOGGER.error(String.format("'%s' is neither a condition " +
+                            "nor a key in the contxt", fnName));
+                    evalResult = null;
+                }
             }
             if (Boolean.TRUE.equals(evalResult)) {
-                matchingConditionFound = true;
-                nextEdgeToProcess = curTuple.getRight();
-            } else {
-                i++;
+                frame.setNextNode(transition.getTarget());
+                frame.setContinueToWalkThroughGraph(true);
+                return;
             }
         }
 
-        if (nextEdgeToProcess != null) {
+        frame.setContinueToWalkThroughGraph(false);
+    }
 
-            return Utils.copy(in.getState())
-                    .nextNodeToProcess((Vertex) in.getGraph().getEdgeTarget(nextEdgeToProcess))
-                    .continueToWalkThroughGraph(true)
-                    .build();
-        } else {
-            return GraphTraversalState.builder()
-                    .continueToWalkThroughGraph(false)
-                    .build();
+    /**
+     * Slots of the transitions were resolved against the schema of the
+     * definition, so they only apply to a context of that very schema.
+     */
+    private static ProcessContext typedContext(final ExecutionFrame frame,
+                                               final Map<String, Object> ctx) {
+        if (!(ctx instanceof ProcessContext)) {
+            return null;
         }
+        final ProcessContext typedCtx = (ProcessContext) ctx;
+        return (typedCtx.getSchema() ==
+                frame.getDefinition().getContextSchema()) ? typedCtx : null;
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl.nodeprocessors;
+
+import clojure.lang.Keyword;
+import com.pravles.processengine.impl.CompiledNode;
+import com.pravles.processengine.impl.ExecutionFrame;
+import com.pravles.processengine.impl.NodeProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Routes on the value of one context key with a single hash lookup, e. g.
+ * {@code {:type :gateway-switch :key "region"}} with edges labeled
+ * {@code EU}, {@code US}, ... and {@code default}. The cost doesn't depend
+ * on the number of edges.
+ */
+public class GatewaySwitch implements NodeProcessor {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(GatewaySwitch.class);
+
+    @Override
+    public void accept(final ExecutionFrame frame) {
+        final CompiledNode node = frame.getCurNode();
+        final Object value = frame.getCtx().get(node.getSwitchKey());
+        final Integer target = (value == null)
+                ? null
+                : node.getSwitchTargets().get(normalize(value));
+
+        if (target != null) {
+            frame.setNextNode(target);
+        } else if (node.getDefaultTarget() >= 0) {
+            frame.setNextNode(node.getDefaultTarget());
+        } else {
+            LOGGER.error(String.format("Switch gateway '%s' has neither an " +
+                    "edge for '%s' nor a default edge", node.getVertex()
+                    .getId(), value));
+            frame.setContinueToWalkThroughGraph(false);
+            return;
+        }
+        frame.setContinueToWalkThroughGraph(true);
+    }
+
+    /**
+     * Maps a context value to the form of the table keys: labels are
+     * strings, integral labels also longs.
+     */
+    private static Object normalize(final Object value) {
+        if ((value instanceof Integer) || (value instanceof Short)
+                || (value instanceof Byte)) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Keyword) {
+            return ((Keyword) value).getName();
+        } else if ((value instanceof Boolean) || (value instanceof Enum)
+                || (value instanceof Character)) {
+            return value.toString();
+        }
+        return value;
+    }
+}
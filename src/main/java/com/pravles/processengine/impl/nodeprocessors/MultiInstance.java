@@ -0,0 +1,184 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl.nodeprocessors;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.impl.CompiledNode;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ExecutionFrame;
+import com.pravles.processengine.impl.MultiInstanceSpec;
+import com.pravles.processengine.impl.NodeProcessor;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.pravles.processengine.impl.Utils.copyContext;
+import static com.pravles.processengine.impl.Utils.findNextEdge;
+
+/**
+ * Runs the activity {@code :fn}, or the subprocess {@code :process}, once
+ * per element of a collection in the context. Every run gets its own copy
+ * of the context with the element under the item key, and the results end
+ * up in a list in collection order, which is put into a copy of the
+ * context that becomes the new context. In the parallel modes, at most
+ * {@code parallelism} runs or chunks are processed at once: one on the
+ * calling thread, the others on the executor.
+ */
+@RequiredArgsConstructor
+public class MultiInstance implements NodeProcessor {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(MultiInstance.class);
+
+    private final EngineImpl engine;
+    private final Executor executor;
+
+    @Override
+    public void accept(final ExecutionFrame frame) {
+        final CompiledNode node = frame.getCurNode();
+        final MultiInstanceSpec spec = node.getMultiInstance();
+        if (spec == null) {
+            frame.setContinueToWalkThroughGraph(false);
+            return;
+        }
+
+        final ActivityFunction fn = (node.getFn() == null)
+                ? null
+                : frame.getFnBindings().get(node.getFn());
+        if ((fn == null) && (node.getSubProcessId() == null)) {
+            LOGGER.error(String.format("Function '%s' is not bound",
+                    node.getFn()));
+            findNextEdge(frame);
+            return;
+        }
+
+        final List<?> items = toList(frame.getCtx().get(spec.getCollection()));
+        if (items == null) {
+            LOGGER.error(String.format("'%s' of multi-instance node '%s' " +
+                    "isn't a collection", spec.getCollection(),
+                    node.getVertex().getId()));
+            frame.setContinueToWalkThroughGraph(false);
+            return;
+        }
+
+        final Object[] results = new Object[items.size()];
+        final int chunkSize = (spec.getMode() == MultiInstanceSpec.Mode.PARALLEL)
+                ? 1
+                : spec.getChunkSize();
+        if ((spec.getMode() == MultiInstanceSpec.Mode.SEQUENTIAL)
+                || (spec.getParallelism() <= 1)
+                || (items.size() <= chunkSize)) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = runItem(frame, spec, fn, items.get(i));
+            }
+        } else {
+            runInParallel(frame, spec, fn, items, results, chunkSize);
+        }
+
+        final Map<String, Object> newCtx = copyContext(frame.getCtx());
+        newCtx.put(spec.getOutput(), new ArrayList<>(Arrays.asList(results)));
+        frame.setCtx(newCtx);
+        findNextEdge(frame);
+    }
+
+    /**
+     * Workers take the next chunk until none is left, so a slow chunk
+     * doesn't hold up the others. The first failure stops all workers and
+     * is rethrown.
+     */
+    private void runInParallel(final ExecutionFrame frame,
+                               final MultiInstanceSpec spec,
+                               final ActivityFunction fn,
+                               final List<?> items,
+                               final Object[] results,
+                               final int chunkSize) {
+        final int chunks = (items.size() + chunkSize - 1) / chunkSize;
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicReference<RuntimeException> failure =
+                new AtomicReference<>();
+        final Runnable worker = () -> {
+            int chunk;
+            while ((failure.get() == null)
+                    && ((chunk = nextChunk.getAndIncrement()) < chunks)) {
+                final int end = Math.min(items.size(),
+                        (chunk + 1) * chunkSize);
+                try {
+                    for (int i = chunk * chunkSize; i < end; i++) {
+                        results[i] = runItem(frame, spec, fn, items.get(i));
+                    }
+                } catch (final RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        final int workers = Math.min(spec.getParallelism(), chunks);
+        final List<CompletableFuture<Void>> others =
+                new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            others.add(CompletableFuture.runAsync(worker, executor));
+        }
+        worker.run();
+        for (final CompletableFuture<Void> other : others) {
+            try {
+                other.join();
+            } catch (final CompletionException e) {
+                failure.compareAndSet(null,
+                        (e.getCause() instanceof RuntimeException)
+                                ? (RuntimeException) e.getCause()
+                                : e);
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private Object runItem(final ExecutionFrame frame,
+                           final MultiInstanceSpec spec,
+                           final ActivityFunction fn,
+                           final Object item) {
+        final Map<String, Object> itemCtx = copyContext(frame.getCtx());
+        itemCtx.put(spec.getItem(), item);
+        final Map<String, Object> resultCtx = (fn != null)
+                ? fn.apply(itemCtx)
+                : engine.runDetachedSubProcess(frame,
+                frame.getCurNode().getSubProcessId(), itemCtx);
+        return (resultCtx == null) ? null : resultCtx.get(spec.getResult());
+    }
+
+    /**
+     * @return null if the value is neither null nor a collection
+     */
+    private static List<?> toList(final Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        } else if (value instanceof List) {
+            return (List<?>) value;
+        } else if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        } else if (value instanceof Object[]) {
+            return Arrays.asList((Object[]) value);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl.nodeprocessors;
+
+import com.pravles.processengine.api.BranchMergeStrategy;
+import com.pravles.processengine.impl.CompiledNode;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ExecutionFrame;
+import com.pravles.processengine.impl.NodeProcessor;
+import com.pravles.processengine.impl.Transition;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.pravles.processengine.impl.Utils.copyContext;
+
+/**
+ * Runs every outgoing branch up to the matching
+ * {@code gateway-parallel-close} node at the same time. The first branch
+ * runs on the calling thread, the others on the branch executor. Every
+ * branch works on its own copy of the context; the copies are
+ * merged once all branches have arrived at the join.
+ */
+@RequiredArgsConstructor
+public class ParallelGatewayOpen implements NodeProcessor {
+    private final static Logger LOGGER =
+            LoggerFactory.getLogger(ParallelGatewayOpen.class);
+
+    private final EngineImpl engine;
+    private final Executor executor;
+    private final BranchMergeStrategy mergeStrategy;
+
+    @Override
+    public void accept(final ExecutionFrame frame) {
+        final CompiledNode node = frame.getCurNode();
+        final List<Transition> transitions = node.getTransitions();
+
+        if (node.getJoin() < 0) {
+            LOGGER.error(String.format("Parallel gateway '%s' has no join",
+                    node.getVertex().getId()));
+            frame.setContinueToWalkThroughGraph(false);
+            return;
+        }
+
+        final List<CompletableFuture<Map<String, Object>>> branches =
+                new ArrayList<>(transitions.size());
+        for (int i = 1; i < transitions.size(); i++) {
+            final int branchStart = transitions.get(i).getTarget();
+            final Map<String, Object> branchCtx = copyContext(frame.getCtx());
+            branches.add(CompletableFuture.supplyAsync(() ->
+                    engine.runBranch(frame, branchStart, node.getJoin(),
+                            branchCtx), executor));
+        }
+
+        final List<Map<String, Object>> branchCtxs =
+                new ArrayList<>(transitions.size());
+        if (!transitions.isEmpty()) {
+            branchCtxs.add(engine.runBranch(frame,
+                    transitions.get(0).getTarget(), node.getJoin(),
+                    copyContext(frame.getCtx())));
+        }
+        try {
+            for (final CompletableFuture<Map<String, Object>> branch :
+                    branches) {
+                branchCtxs.add(branch.join());
+            }
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        frame.setCtx(mergeStrategy.merge(frame.getCtx(), branchCtxs));
+        frame.setNextNode(node.getJoin());
+        frame.setContinueToWalkThroughGraph(true);
+    }
+}
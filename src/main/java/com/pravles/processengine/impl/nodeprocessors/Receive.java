@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl.nodeprocessors;
+
+import com.pravles.processengine.impl.CompiledNode;
+import com.pravles.processengine.impl.CorrelationIndex;
+import com.pravles.processengine.impl.ExecutionFrame;
+import com.pravles.processengine.impl.NodeProcessor;
+import com.pravles.processengine.impl.Utils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits for the message {@code :message} whose correlation key equals the
+ * context value named by {@code :correlation-key}, e. g.
+ * {@code {:type :receive :message "payment" :correlation-key "orderId"}}.
+ * The payload of the message is put into the context. Instances started
+ * with {@code runAsync} are suspended meanwhile, and cancelling their
+ * future stops the wait. All others wait on the thread running them for at
+ * most {@code timeoutMillis} and fail if no message arrives by then.
+ * Messages that arrive before the instance gets here are not kept.
+ */
+@RequiredArgsConstructor
+public class Receive implements NodeProcessor {
+    private final static Logger LOGGER = LoggerFactory.getLogger(Receive.class);
+
+    private final CorrelationIndex correlationIndex;
+    private final long timeoutMillis;
+
+    @Override
+    public void accept(final ExecutionFrame frame) {
+        final CompiledNode node = frame.getCurNode();
+        if (node.getMessageName() == null) {
+            LOGGER.error(String.format("Receive node '%s' has no message",
+                    node.getVertex().getId()));
+            frame.setContinueToWalkThroughGraph(false);
+            return;
+        }
+
+        final Map<String, Object> ctx = frame.getCtx();
+        final String messageName = node.getMessageName();
+        final Object correlationKey = ctx.get(node.getCorrelationKey());
+        final CompletableFuture<Map<String, Object>> newCtx = correlationIndex
+                .register(messageName, correlationKey)
+                .thenApply(payload -> {
+                    if (payload != null) {
+                        ctx.putAll(payload);
+                    }
+                    return ctx;
+                });
+        if (frame.isSuspendable()) {
+            newCtx.whenComplete((result, error) -> {
+                if (newCtx.isCancelled()) {
+                    correlationIndex.cancel(messageName, correlationKey);
+                }
+            });
+            frame.setPendingCtx(newCtx);
+        } else {
+            frame.setCtx(await(newCtx, messageName, correlationKey));
+        }
+        Utils.findNextEdge(frame);
+    }
+
+    private Map<String, Object> await(
+            final CompletableFuture<Map<String, Object>> newCtx,
+            final String messageName,
+            final Object correlationKey) {
+        try {
+            return newCtx.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            if (!correlationIndex.cancel(messageName, correlationKey)) {
+                // The message arrived in the meantime
+                return newCtx.join();
+            }
+            throw new IllegalStateException(String.format("No message '%s' " +
+                    "with key '%s' arrived within %d ms", messageName,
+                    correlationKey, timeoutMillis));
+        } catch (final InterruptedException e) {
+            correlationIndex.cancel(messageName, correlationKey);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format("Interrupted while " +
+                    "waiting for message '%s' with key '%s'", messageName,
+                    correlationKey), e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -10,13 +10,11 @@
 
 package com.pravles.processengine.impl.nodeprocessors;
 
-import com.pravles.processengine.impl.GraphTraversalState;
-import com.pravles.processengine.impl.NodeProcessingInput;
+import com.pravles.processengine.impl.ExecutionFrame;
 import com.pravles.processengine.impl.NodeProcessor;
 
 public class Start implements NodeProcessor {
     @Override
-    public GraphTraversalState apply(final NodeProcessingInput input) {
-        return null;
+    public void accept(final ExecutionFrame frame) {
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl.nodeprocessors;
+
+import com.pravles.processengine.impl.CompiledNode;
+import com.pravles.processengine.impl.ExecutionFrame;
+import com.pravles.processengine.impl.NodeProcessor;
+import com.pravles.processengine.impl.TimingWheel;
+import com.pravles.processengine.impl.Utils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delays the instance by the timer's duration. Instances started with
+ * {@code runAsync} are suspended until the timing wheel fires and hold no
+ * thread meanwhile; all others wait on the thread running them.
+ */
+@RequiredArgsConstructor
+public class Timer implements NodeProcessor {
+    private final static Logger LOGGER = LoggerFactory.getLogger(Timer.class);
+
+    private final TimingWheel timingWheel;
+
+    @Override
+    public void accept(final ExecutionFrame frame) {
+        final CompiledNode node = frame.getCurNode();
+        if (node.getDelayMillis() < 0) {
+            LOGGER.error(String.format("Timer '%s' has no delay",
+                    node.getVertex().getId()));
+            Utils.findNextEdge(frame);
+            return;
+        }
+
+        final Map<String, Object> ctx = frame.getCtx();
+        final CompletableFuture<Map<String, Object>> fired =
+                new CompletableFuture<>();
+        timingWheel.schedule(node.getDelayMillis(), () -> fired.complete(ctx));
+        if (frame.isSuspendable()) {
+            frame.setPendingCtx(fired);
+        } else {
+            fired.join();
+        }
+        Utils.findNextEdge(frame);
+    }
+}
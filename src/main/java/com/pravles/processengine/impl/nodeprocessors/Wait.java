@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine.impl.nodeprocessors;
+
+import com.pravles.processengine.impl.CallStackEntry;
+import com.pravles.processengine.impl.ExecutionFrame;
+import com.pravles.processengine.impl.NodeProcessor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Suspends the instance. The walk stops here and the callers up the
+ * subprocess chain add their call nodes to the suspended call stack.
+ * Instances started with {@code Engine.start} come back as a waiting
+ * {@code ProcessInstanceHandle}; all other run methods just return the
+ * context at this point.
+ */
+public class Wait implements NodeProcessor {
+    @Override
+    public void accept(final ExecutionFrame frame) {
+        final Deque<CallStackEntry> suspendedStack = new ArrayDeque<>();
+        suspendedStack.addFirst(new CallStackEntry(frame.getCurProcessId(),
+                frame.getCurNode().getVertex().getId()));
+        frame.setSuspendedStack(suspendedStack);
+    }
+}
@@ -15,7 +15,7 @@
 
 (declare compose-graph)
 
-(defn гав
+(defn gav
   [diagram-data]
   (compose-graph diagram-data))
 
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.libreofficedraw;
+
+import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LibreOfficeDrawStaxParserTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "process_diagram.fodg.xml",
+            "process.1.fodg",
+            "process.2.fodg",
+            "process.3.fodg"})
+    public void givenDiagram_whenRead_thenSameResultAsDomParser(
+            final String fileName) throws Exception {
+        // Given
+        final File file = new File("src/test/resources/" + fileName);
+        final LibreOfficeDrawParsingResult expectedResult;
+        try (final InputStream is = FileUtils.openInputStream(file)) {
+            expectedResult = new LibreOfficeDrawParser().read(is);
+        }
+        final LibreOfficeDrawStaxParser sut = new LibreOfficeDrawStaxParser();
+
+        // When
+        final LibreOfficeDrawParsingResult actualResult;
+        try (final InputStream is = FileUtils.openInputStream(file)) {
+            actualResult = sut.read(is);
+        }
+
+        // Then
+        assertEquals(expectedResult.getVertices(), actualResult.getVertices());
+        assertEquals(expectedResult.getEdges(), actualResult.getEdges());
+    }
+}
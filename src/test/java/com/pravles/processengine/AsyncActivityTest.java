@@ -0,0 +1,147 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.AsyncActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncActivityTest {
+    private static final int INSTANCES = 20_000;
+    private static final long LATENCY_MILLIS = 100;
+
+    @Test
+    public void givenManySlowRemoteCalls_whenRunAsync_thenTwoThreadsDriveAllInstances()
+            throws Exception {
+        // Given
+        final ExecutorService asyncExecutor = Executors.newFixedThreadPool(2);
+        final ScheduledExecutorService remote =
+                Executors.newSingleThreadScheduledExecutor();
+        try {
+            final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                    .asyncExecutor(asyncExecutor)
+                    .build());
+            final Map<String, ProcessDefinition> definitionsByProcessIds =
+                    Collections.singletonMap("p", sut.compile("p",
+                            TestGraph.linearProcess(2, "remote").build()));
+            final Map<String, AsyncActivityFunction> asyncFns =
+                    Collections.singletonMap("remote", ctx -> {
+                        final CompletableFuture<Map<String, Object>> response =
+                                new CompletableFuture<>();
+                        remote.schedule(() -> {
+                            ctx.put("calls", (Integer) ctx.get("calls") + 1);
+                            response.complete(ctx);
+                        }, LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+                        return response;
+                    });
+
+            // When
+            final long start = System.nanoTime();
+            final List<CompletableFuture<Map<String, Object>>> results =
+                    new ArrayList<>(INSTANCES);
+            for (int i = 0; i < INSTANCES; i++) {
+                final Map<String, Object> initCtx = new HashMap<>();
+                initCtx.put("calls", 0);
+                results.add(sut.runAsync(definitionsByProcessIds, initCtx,
+                        Collections.emptyMap(), asyncFns,
+                        Collections.emptyMap(), "p"));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                    .get(30, TimeUnit.SECONDS);
+            final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            for (final CompletableFuture<Map<String, Object>> result : results) {
+                assertEquals(2, result.get().get("calls"));
+            }
+            assertTrue(elapsedMillis < 20 * LATENCY_MILLIS,
+                    "Took " + elapsedMillis + " ms");
+        } finally {
+            remote.shutdown();
+            asyncExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void givenFailingRemoteCall_whenRunAsync_thenCompleteExceptionally() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p",
+                        TestGraph.linearProcess(1, "remote").build()));
+        final Map<String, AsyncActivityFunction> asyncFns =
+                Collections.singletonMap("remote", ctx ->
+                        CompletableFuture.failedFuture(
+                                new IllegalStateException("unavailable")));
+
+        // When
+        final CompletableFuture<Map<String, Object>> actualResult =
+                sut.runAsync(definitionsByProcessIds, new HashMap<>(),
+                        Collections.emptyMap(), asyncFns,
+                        Collections.emptyMap(), "p");
+
+        // Then
+        final ExecutionException actualException = assertThrows(
+                ExecutionException.class, actualResult::get);
+        assertEquals("unavailable", actualException.getCause().getMessage());
+    }
+
+    @Test
+    public void givenAsyncActivityInSubprocess_whenRunAsync_thenWaitForIt()
+            throws Exception {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", sut.compile("main", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("call", "{:type :call-subprocess :process \"sub\"}")
+                .node("end", "{:type :end}")
+                .edge("start", "call")
+                .edge("call", "end")
+                .build()));
+        definitionsByProcessIds.put("sub", sut.compile("sub",
+                TestGraph.linearProcess(1, "remote").build()));
+        final Map<String, AsyncActivityFunction> asyncFns =
+                Collections.singletonMap("remote", ctx ->
+                        CompletableFuture.supplyAsync(() -> {
+                            ctx.put("called", true);
+                            return ctx;
+                        }));
+
+        // When
+        final Map<String, Object> actualCtx = sut.runAsync(
+                definitionsByProcessIds, new HashMap<>(),
+                Collections.emptyMap(), asyncFns, Collections.emptyMap(),
+                "main").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(true, actualCtx.get("called"));
+    }
+}
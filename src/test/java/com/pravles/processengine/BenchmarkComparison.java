@@ -0,0 +1,193 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares JMH results in CSV format ({@code -rf csv}) with a baseline in
+ * the same format and exits with 1 if a benchmark got worse by more than
+ * the threshold: a higher time for the average time and sample modes, a
+ * lower rate for throughput. Scores are compared as intervals of score
+ * plus or minus the error JMH reports, so a benchmark only counts as
+ * worse if even the best end of its interval is more than the threshold
+ * away from the worst end of the baseline's. Noisy runs thus don't fail
+ * the build, but don't prove anything either. Benchmarks are matched by
+ * name, mode and parameters; the ones missing from either file are listed
+ * but don't fail. Arguments:
+ * {@code <results.csv> <baseline.csv> <threshold in %> [true]}; with
+ * {@code true}, the results replace the baseline instead.
+ */
+public class BenchmarkComparison {
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BenchmarkComparison <results.csv> " +
+                    "<baseline.csv> <threshold in %> [true]");
+            System.exit(2);
+        }
+        final Path results = Paths.get(args[0]);
+        final Path baseline = Paths.get(args[1]);
+        if ((args.length > 3) && Boolean.parseBoolean(args[3])) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.printf("Baseline '%s' updated%n", baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.printf("No baseline '%s' to compare with%n", baseline);
+            return;
+        }
+
+        final List<String> regressions = compare(read(results),
+                read(baseline), Double.parseDouble(args[2]));
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d benchmark(s) regressed by more than %s %%:%n",
+                    regressions.size(), args[2]);
+            regressions.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+
+    static List<String> compare(final Map<String, Score> results,
+                                final Map<String, Score> baseline,
+                                final double thresholdPercent) {
+        final List<String> regressions = new ArrayList<>();
+        for (final Map.Entry<String, Score> entry : results.entrySet()) {
+            final Score expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.printf("%-90s %14.3f %s (not in baseline)%n",
+                        entry.getKey(), entry.getValue().getScore(),
+                        entry.getValue().getUnit());
+                continue;
+            }
+            final Score actual = entry.getValue();
+            final double change = 100 * (actual.getScore()
+                    - expected.getScore()) / expected.getScore();
+            final String line = String.format(
+                    "%-90s %14.3f +- %.3f %s (%+.1f %% of %.3f +- %.3f)",
+                    entry.getKey(), actual.getScore(), actual.getError(),
+                    actual.getUnit(), change, expected.getScore(),
+                    expected.getError());
+            System.out.println(line);
+            final boolean worse = "thrpt".equals(actual.getMode())
+                    ? (actual.getScore() + actual.getError())
+                    * (1 + thresholdPercent / 100)
+                    < expected.getScore() - expected.getError()
+                    : actual.getScore() - actual.getError()
+                    > (expected.getScore() + expected.getError())
+                    * (1 + thresholdPercent / 100);
+            if (worse) {
+                regressions.add(line);
+            }
+        }
+        for (final String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.printf("%-90s (not run)%n", key);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * @return scores by benchmark name, mode and non-empty parameters
+     */
+    static Map<String, Score> read(final Path file) throws IOException {
+        final List<String> lines = Files.readAllLines(file,
+                StandardCharsets.UTF_8);
+        final Map<String, Score> scoresByKeys = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return scoresByKeys;
+        }
+        final List<String> header = split(lines.get(0));
+        final int benchmark = header.indexOf("Benchmark");
+        final int mode = header.indexOf("Mode");
+        final int score = header.indexOf("Score");
+        final int error = header.indexOf("Score Error (99.9%)");
+        final int unit = header.indexOf("Unit");
+        for (final String line : lines.subList(1, lines.size())) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            final List<String> values = split(line);
+            final StringBuilder key = new StringBuilder(values.get(benchmark))
+                    .append(' ').append(values.get(mode));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ")
+                        && (i < values.size())
+                        && !values.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7))
+                            .append('=').append(values.get(i));
+                }
+            }
+            // JMH writes NaN if there were too few iterations for an error
+            final double scoreError = (error < 0)
+                    ? 0
+                    : Double.parseDouble(values.get(error));
+            scoresByKeys.put(key.toString(), new Score(values.get(mode),
+                    Double.parseDouble(values.get(score)),
+                    Double.isNaN(scoreError) ? 0 : scoreError,
+                    values.get(unit)));
+        }
+        return scoresByKeys;
+    }
+
+    /**
+     * Splits a CSV line; values may be quoted, with {@code ""} standing for
+     * a quote.
+     */
+    private static List<String> split(final String line) {
+        final List<String> values = new ArrayList<>();
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if ((c == '"') && (i + 1 < line.length())
+                        && (line.charAt(i + 1) == '"')) {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Value
+    static class Score {
+        String mode;
+        double score;
+        double error;
+        String unit;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BenchmarkComparisonTest {
+    private static final String HEADER = "\"Benchmark\",\"Mode\"," +
+            "\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\"," +
+            "\"Unit\",\"Param: shape\"";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenJmhCsv_whenRead_thenKeyScoresByNameModeAndParams()
+            throws IOException {
+        // When
+        final Map<String, BenchmarkComparison.Score> actual =
+                BenchmarkComparison.read(csv("results.csv",
+                        "\"a.B.run\",\"avgt\",1,3,844.904000,12.5,\"ns/op\"," +
+                                "linear",
+                        "\"a.B.parse\",\"thrpt\",4,3,1058048.1,0,\"ops/s\","));
+
+        // Then
+        assertEquals(asList("a.B.run avgt shape=linear", "a.B.parse thrpt"),
+                asList(actual.keySet().toArray()));
+        assertEquals(844.904, actual.get("a.B.run avgt shape=linear")
+                .getScore(), 0.0001);
+    }
+
+    @Test
+    public void givenSlowerTimeAndLowerRate_whenCompare_thenReportRegressions()
+            throws IOException {
+        // Given
+        final Map<String, BenchmarkComparison.Score> baseline =
+                BenchmarkComparison.read(csv("baseline.csv",
+                        "\"a.B.time\",\"avgt\",1,3,100,0,\"ns/op\",x",
+                        "\"a.B.fast\",\"avgt\",1,3,100,0,\"ns/op\",x",
+                        "\"a.B.rate\",\"thrpt\",1,3,1000,0,\"ops/s\",x",
+                        "\"a.B.gone\",\"avgt\",1,3,100,0,\"ns/op\",x"));
+        final Map<String, BenchmarkComparison.Score> results =
+                BenchmarkComparison.read(csv("results.csv",
+                        "\"a.B.time\",\"avgt\",1,3,120,0,\"ns/op\",x",
+                        "\"a.B.fast\",\"avgt\",1,3,60,0,\"ns/op\",x",
+                        "\"a.B.rate\",\"thrpt\",1,3,850,0,\"ops/s\",x",
+                        "\"a.B.new\",\"avgt\",1,3,100,0,\"ns/op\",x"));
+
+        // When
+        final List<String> actual =
+                BenchmarkComparison.compare(results, baseline, 10);
+
+        // Then
+        assertEquals(2, actual.size());
+        assertTrue(actual.get(0).startsWith("a.B.time avgt shape=x"));
+        assertTrue(actual.get(1).startsWith("a.B.rate thrpt shape=x"));
+    }
+
+    @Test
+    public void givenOverlappingErrors_whenCompare_thenReportNoRegression()
+            throws IOException {
+        // Given
+        final Map<String, BenchmarkComparison.Score> baseline =
+                BenchmarkComparison.read(csv("baseline.csv",
+                        "\"a.B.time\",\"avgt\",1,3,100,30,\"ns/op\",x",
+                        "\"a.B.rate\",\"thrpt\",1,3,1000,NaN,\"ops/s\",x"));
+        final Map<String, BenchmarkComparison.Score> results =
+                BenchmarkComparison.read(csv("results.csv",
+                        "\"a.B.time\",\"avgt\",1,3,150,10,\"ns/op\",x",
+                        "\"a.B.rate\",\"thrpt\",1,3,700,300,\"ops/s\",x"));
+
+        // When
+        final List<String> actual =
+                BenchmarkComparison.compare(results, baseline, 10);
+
+        // Then
+        assertEquals(0, actual.size());
+        assertEquals(30, baseline.get("a.B.time avgt shape=x").getError(),
+                0.0001);
+        assertEquals(0, baseline.get("a.B.rate thrpt shape=x").getError(),
+                0.0001);
+    }
+
+    private Path csv(final String name, final String... lines)
+            throws IOException {
+        final Path file = directory.resolve(name);
+        Files.write(file, asList(HEADER + "\n" + String.join("\n", lines)));
+        return file;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.ConditionExpression;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionExpressionTest {
+    @Test
+    public void givenComparisonsAndLogic_whenApplied_thenEvaluateAgainstCtx() {
+        // Given
+        final Map<String, Object> customer = new HashMap<>();
+        customer.put("tier", "gold");
+        final Map<String, Object> ctx = new HashMap<>();
+        ctx.put("amount", 1500);
+        ctx.put("rate", 0.25);
+        ctx.put("customer", customer);
+        ctx.put("approved", false);
+
+        // When, Then
+        assertTrue(eval("amount > 1000 && customer.tier == \"gold\"", ctx));
+        assertFalse(eval("amount > 1000 && customer.tier == 'silver'", ctx));
+        assertTrue(eval("amount <= 1500 || missing", ctx));
+        assertTrue(eval("!approved && (rate < 0.5)", ctx));
+        assertTrue(eval("amount == 1500.0 && rate != 1", ctx));
+        assertTrue(eval("missing == null && customer.unknown.deep == null",
+                ctx));
+        assertFalse(eval("customer.tier > 1", ctx));
+        assertFalse(eval("missing < 1 || missing >= 1", ctx));
+    }
+
+    @Test
+    public void givenMalformedExpression_whenCompiled_thenThrow() {
+        // Given
+        final String expression = "amount > && tier";
+
+        // When, Then
+        assertThrows(IllegalArgumentException.class,
+                () -> ConditionExpression.compile(expression));
+        assertThrows(IllegalArgumentException.class,
+                () -> ConditionExpression.compile("(a == 1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ConditionExpression.compile("a == \"open"));
+    }
+
+    @Test
+    public void givenLabels_whenIsExpression_thenOnlyWithOperators() {
+        // When, Then
+        assertFalse(ConditionExpression.isExpression("approved"));
+        assertFalse(ConditionExpression.isExpression("credit-ok?"));
+        assertFalse(ConditionExpression.isExpression("parent.my-condition"));
+        assertFalse(ConditionExpression.isExpression("Is counter greater " +
+                "than 2?"));
+        assertFalse(ConditionExpression.isExpression("FALSE"));
+        assertFalse(ConditionExpression.isExpression(""));
+        assertTrue(ConditionExpression.isExpression("!approved"));
+        assertTrue(ConditionExpression.isExpression("customer.vip == true"));
+        assertTrue(ConditionExpression.isExpression("amount > 1"));
+    }
+
+    @Test
+    public void givenExpressionEdges_whenRun_thenTakeFirstMatchingEdge() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("gw", "{:type :gateway-open}")
+                        .node("big", "{:type :activity :fn \"big\"}")
+                        .node("small", "{:type :activity :fn \"small\"}")
+                        .node("close", "{:type :gateway-close}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "gw")
+                        .edge("gw", "big",
+                                "amount > 1000 && tier == \"gold\"")
+                        .edge("gw", "small", "false")
+                        .edge("big", "close")
+                        .edge("small", "close")
+                        .edge("close", "end")
+                        .build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String fn : new String[]{"big", "small"}) {
+            fnBindings.put(fn, ctx -> {
+                ((List<String>) ctx.get("executedActivities")).add(fn);
+                return ctx;
+            });
+        }
+
+        // When
+        final List<String> gold = run(sut, definitionsByProcessIds,
+                fnBindings, 5000L, "gold");
+        final List<String> silver = run(sut, definitionsByProcessIds,
+                fnBindings, 5000L, "silver");
+
+        // Then
+        assertEquals(asList("big"), gold);
+        assertEquals(asList("small"), silver);
+    }
+
+    @Test
+    public void givenConditionFunctionNamedLikeExpression_whenRun_thenUseFunction() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("gw", "{:type :gateway-open}")
+                        .node("big", "{:type :activity :fn \"big\"}")
+                        .node("small", "{:type :activity :fn \"small\"}")
+                        .node("close", "{:type :gateway-close}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "gw")
+                        .edge("gw", "big", "amount > 1000")
+                        .edge("gw", "small", "false")
+                        .edge("big", "close")
+                        .edge("small", "close")
+                        .edge("close", "end")
+                        .build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String fn : new String[]{"big", "small"}) {
+            fnBindings.put(fn, ctx -> {
+                ((List<String>) ctx.get("executedActivities")).add(fn);
+                return ctx;
+            });
+        }
+        final Map<String, ConditionFunction> conditionFns =
+                Collections.singletonMap("amount > 1000",
+                        ctx -> (Long) ctx.get("amount") > 10_000);
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("amount", 5000L);
+        initCtx.put("executedActivities", new ArrayList<String>());
+
+        // When
+        final Map<String, Object> actualCtx =
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        initCtx, fnBindings, conditionFns, "p");
+
+        // Then
+        assertEquals(asList("small"), actualCtx.get("executedActivities"));
+    }
+
+    private static List<String> run(
+            final EngineImpl engine,
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, ActivityFunction> fnBindings,
+            final long amount,
+            final String tier) {
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("amount", amount);
+        initCtx.put("tier", tier);
+        initCtx.put("executedActivities", new ArrayList<String>());
+        return (List<String>) engine.runDefinitionWithSubprocesses(
+                definitionsByProcessIds, initCtx, fnBindings,
+                Collections.emptyMap(), "p").get("executedActivities");
+    }
+
+    private static boolean eval(final String expression,
+                                final Map<String, Object> ctx) {
+        final ConditionFunction condition =
+                ConditionExpression.compile(expression);
+        return condition.apply(ctx);
+    }
+}
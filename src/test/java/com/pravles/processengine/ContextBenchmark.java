@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ContextSchema;
+import com.pravles.processengine.api.ProcessContext;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ProcessDefinitionImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A loop of a gateway on a boolean key and an activity counting a long
+ * key, in a context of {@link #KEYS} keys, as a {@code HashMap} with boxed
+ * values or as a {@link ProcessContext} with slot access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ContextBenchmark {
+    private static final int KEYS = 40;
+    private static final long ROUNDS = 100;
+
+    @Param({"hashmap", "schema"})
+    private String context;
+
+    private EngineImpl engine;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private Map<String, ActivityFunction> fnBindings;
+
+    @Setup
+    public void setUp() {
+        engine = new EngineImpl();
+        final StringBuilder declaration = new StringBuilder(
+                "{:type :start :context {:loop :boolean :count :long");
+        for (int i = 0; i < KEYS - 2; i++) {
+            declaration.append(" :key").append(i).append(" :long");
+        }
+        declaration.append("}}");
+        final String startDescription = "schema".equals(context)
+                ? declaration.toString()
+                : "{:type :start}";
+        final ProcessDefinition definition = engine.compile("p",
+                new TestGraph()
+                        .node("start", startDescription)
+                        .node("count", "{:type :activity :fn \"count\"}")
+                        .node("gw", "{:type :gateway-open}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "count")
+                        .edge("count", "gw")
+                        .edge("gw", "count", "loop")
+                        .edge("gw", "end", "false")
+                        .build());
+        definitionsByProcessIds = Collections.singletonMap("p", definition);
+
+        final ContextSchema schema =
+                ((ProcessDefinitionImpl) definition).getContextSchema();
+        fnBindings = new HashMap<>();
+        if (schema == null) {
+            fnBindings.put("count", ctx -> {
+                final long count = (Long) ctx.get("count") + 1;
+                ctx.put("count", count);
+                ctx.put("loop", count < ROUNDS);
+                return ctx;
+            });
+        } else {
+            final int countSlot = schema.slotOf("count");
+            final int loopSlot = schema.slotOf("loop");
+            fnBindings.put("count", ctx -> {
+                final ProcessContext typedCtx = (ProcessContext) ctx;
+                final long count = typedCtx.getLong(countSlot) + 1;
+                typedCtx.setLong(countSlot, count);
+                typedCtx.setBoolean(loopSlot, count < ROUNDS);
+                return ctx;
+            });
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> run() {
+        final Map<String, Object> initCtx = new HashMap<>(KEYS * 2);
+        initCtx.put("loop", true);
+        initCtx.put("count", 0L);
+        for (int i = 0; i < KEYS - 2; i++) {
+            initCtx.put("key" + i, (long) i);
+        }
+        return engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                initCtx, fnBindings, Collections.emptyMap(), "p");
+    }
+}
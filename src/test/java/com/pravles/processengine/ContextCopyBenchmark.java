@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.PersistentContext;
+import com.pravles.processengine.impl.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costs of a context of {@code entries} entries as a {@code HashMap} and
+ * as a {@link PersistentContext}. Run with {@code -prof gc}: the
+ * {@code gc.alloc.rate.norm} of {@link #build()} approximates the footprint
+ * of a context, the one of {@link #branch()} what a branch or subprocess
+ * boundary costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ContextCopyBenchmark {
+    @Param({"10", "100", "10000"})
+    private int entries;
+
+    @Param({"hashmap", "persistent"})
+    private String context;
+
+    private Map<String, Object> values;
+    private Map<String, Object> ctx;
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        values = new HashMap<>(entries * 2);
+        for (int i = 0; i < entries; i++) {
+            values.put("key" + i, (long) i);
+        }
+        ctx = build();
+    }
+
+    /**
+     * Creates the context from scratch.
+     */
+    @Benchmark
+    public Map<String, Object> build() {
+        return "persistent".equals(context)
+                ? PersistentContext.of(values)
+                : new HashMap<>(values);
+    }
+
+    /**
+     * Isolates the context for a branch, which then updates one key.
+     */
+    @Benchmark
+    public Map<String, Object> branch() {
+        final Map<String, Object> branchCtx = Utils.copyContext(ctx);
+        branchCtx.put("key0", counter++);
+        return branchCtx;
+    }
+
+    /**
+     * Updates one key in place, what every activity does.
+     */
+    @Benchmark
+    public Object update() {
+        return ctx.put("key0", counter++);
+    }
+
+    @Benchmark
+    public Object get() {
+        return ctx.get("key1");
+    }
+}
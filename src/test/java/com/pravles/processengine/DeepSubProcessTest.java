@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessInstanceHandle;
+import com.pravles.processengine.impl.EngineImpl;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeepSubProcessTest {
+    private static final int DEPTH = 100_000;
+
+    @Test
+    public void givenDataDrivenRecursion_whenRun_thenNoStackOverflow() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("countdown", sut.compile("countdown",
+                        countdown("{:type :end}")));
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("remaining", DEPTH);
+
+        // When
+        final Map<String, Object> actual = sut.runDefinitionWithSubprocesses(
+                definitionsByProcessIds, initCtx, countdownFns(),
+                Collections.emptyMap(), "countdown");
+
+        // Then
+        assertEquals(0, actual.get("remaining"));
+        assertEquals(DEPTH, actual.get("returned"));
+    }
+
+    @Test
+    public void givenWaitAtBottomOfRecursion_whenResume_thenReturnThroughAllLevels() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("countdown", sut.compile("countdown",
+                        countdown("{:type :wait}")));
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("remaining", 1_000);
+
+        // When
+        final ProcessInstanceHandle waiting = sut.start(
+                definitionsByProcessIds, initCtx, countdownFns(),
+                Collections.emptyMap(), "countdown");
+        final ProcessInstanceHandle ended = sut.resume(
+                definitionsByProcessIds, waiting, null, countdownFns(),
+                Collections.emptyMap());
+
+        // Then
+        assertTrue(waiting.isWaiting());
+        assertFalse(ended.isWaiting());
+        assertEquals(1_000, ended.getCtx().get("returned"));
+    }
+
+    @Test
+    public void givenRecursiveGraphs_whenRunGraph_thenRunCyclicCallsOnCallStack() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, DefaultDirectedGraph> graphsByProcessIds =
+                new HashMap<>();
+        graphsByProcessIds.put("main", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("call", "{:type :call-subprocess :process \"countdown\"}")
+                .node("end", "{:type :end}")
+                .edge("start", "call")
+                .edge("call", "end")
+                .build());
+        graphsByProcessIds.put("countdown", countdown("{:type :end}"));
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("remaining", 1_000);
+
+        // When
+        final Map<String, Object> actual = sut.runGraphWithSubprocesses(
+                graphsByProcessIds, initCtx, countdownFns(),
+                Collections.emptyMap(), "main");
+
+        // Then
+        assertEquals(0, actual.get("remaining"));
+        assertEquals(1_000, actual.get("returned"));
+    }
+
+    /**
+     * Calls itself until {@code remaining} is 0, then runs the bottom node.
+     */
+    private static DefaultDirectedGraph countdown(final String bottom) {
+        final TestGraph graph = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("gw", "{:type :gateway-open}")
+                .node("decrement", "{:type :activity :fn \"decrement\"}")
+                .node("call", "{:type :call-subprocess :process \"countdown\"}")
+                .node("return", "{:type :activity :fn \"return\"}")
+                .node("bottom", bottom)
+                .node("close", "{:type :gateway-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "gw")
+                .edge("gw", "decrement", "remaining > 0")
+                .edge("gw", "bottom", "false")
+                .edge("decrement", "call")
+                .edge("call", "return")
+                .edge("return", "close")
+                .edge("close", "end");
+        if (!bottom.contains(":end")) {
+            graph.edge("bottom", "close");
+        }
+        return graph.build();
+    }
+
+    private static Map<String, ActivityFunction> countdownFns() {
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        fnBindings.put("decrement", ctx -> {
+            ctx.put("remaining", (Integer) ctx.get("remaining") - 1);
+            return ctx;
+        });
+        fnBindings.put("return", ctx -> {
+            ctx.merge("returned", 1, (a, b) -> (Integer) a + (Integer) b);
+            return ctx;
+        });
+        return fnBindings;
+    }
+}
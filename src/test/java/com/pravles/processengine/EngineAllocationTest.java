@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineAllocationTest {
+    private static final int SHORT_CHAIN = 10;
+    private static final int LONG_CHAIN = 10_010;
+
+    @Test
+    public void givenLinearChain_whenRun_thenNoAllocationPerStep() {
+        // Given
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> shortProcess =
+                Collections.singletonMap("p", sut.compile("p",
+                        TestGraph.linearProcess(SHORT_CHAIN, "noop").build()));
+        final Map<String, ProcessDefinition> longProcess =
+                Collections.singletonMap("p", sut.compile("p",
+                        TestGraph.linearProcess(LONG_CHAIN, "noop").build()));
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("noop", ctx -> ctx);
+        final Map<String, Object> ctx = new HashMap<>();
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < 200; i++) {
+            sut.runDefinitionWithSubprocesses(shortProcess, ctx, fnBindings,
+                    Collections.emptyMap(), "p");
+            sut.runDefinitionWithSubprocesses(longProcess, ctx, fnBindings,
+                    Collections.emptyMap(), "p");
+        }
+
+        // When
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        sut.runDefinitionWithSubprocesses(shortProcess, ctx, fnBindings,
+                Collections.emptyMap(), "p");
+        final long shortBytes =
+                threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadMXBean.getThreadAllocatedBytes(threadId);
+        sut.runDefinitionWithSubprocesses(longProcess, ctx, fnBindings,
+                Collections.emptyMap(), "p");
+        final long longBytes =
+                threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // Then
+        final double bytesPerStep =
+                (double) (longBytes - shortBytes) / (LONG_CHAIN - SHORT_CHAIN);
+        assertTrue(bytesPerStep < 1.0, String.format("%.2f bytes allocated " +
+                "per step (%d bytes for %d steps, %d bytes for %d steps)",
+                bytesPerStep, longBytes, LONG_CHAIN, shortBytes, SHORT_CHAIN));
+    }
+}
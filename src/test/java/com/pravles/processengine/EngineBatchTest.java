@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.InstanceResult;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessInstanceHandle;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineBatchTest {
+    @Test
+    public void givenOneFailingInstance_whenRunBatch_thenReportItAndRunOthers() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p",
+                        TestGraph.linearProcess(2, "double").build()));
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("double", ctx -> {
+                    final int value = (Integer) ctx.get("value");
+                    if (value < 0) {
+                        throw new IllegalArgumentException("negative value");
+                    }
+                    ctx.put("value", value * 2);
+                    return ctx;
+                });
+        final List<Map<String, Object>> initCtxs = new ArrayList<>();
+        for (final int value : new int[]{1, -1, 3}) {
+            final Map<String, Object> ctx = new HashMap<>();
+            ctx.put("value", value);
+            initCtxs.add(ctx);
+        }
+
+        // When
+        final List<InstanceResult> actualResults = sut.runBatch(
+                definitionsByProcessIds, initCtxs, fnBindings,
+                Collections.emptyMap(), "p");
+
+        // Then
+        assertEquals(3, actualResults.size());
+        assertEquals(asList(0, 1, 2), asList(
+                actualResults.get(0).getIndex(),
+                actualResults.get(1).getIndex(),
+                actualResults.get(2).getIndex()));
+        assertFalse(actualResults.get(0).isFailed());
+        assertEquals(4, actualResults.get(0).getCtx().get("value"));
+        assertTrue(actualResults.get(1).isFailed());
+        assertEquals("negative value",
+                actualResults.get(1).getError().getMessage());
+        assertFalse(actualResults.get(2).isFailed());
+        assertEquals(12, actualResults.get(2).getCtx().get("value"));
+    }
+
+    @Test
+    public void givenIterator_whenRunBatch_thenRunInstancesLazily() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p",
+                        TestGraph.linearProcess(1, "act").build()));
+        final List<String> executedActivities = new ArrayList<>();
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("act", ctx -> {
+                    executedActivities.add((String) ctx.get("name"));
+                    return ctx;
+                });
+        final Iterator<Map<String, Object>> initCtxs = asList("a", "b")
+                .stream()
+                .map(name -> {
+                    final Map<String, Object> ctx = new HashMap<>();
+                    ctx.put("name", name);
+                    return ctx;
+                })
+                .iterator();
+
+        // When
+        final Iterator<InstanceResult> actualResults = sut.runBatch(
+                definitionsByProcessIds, initCtxs, fnBindings,
+                Collections.emptyMap(), "p");
+
+        // Then
+        assertTrue(executedActivities.isEmpty());
+        assertEquals("a", actualResults.next().getCtx().get("name"));
+        assertEquals(asList("a"), executedActivities);
+        assertEquals("b", actualResults.next().getCtx().get("name"));
+        assertFalse(actualResults.hasNext());
+        assertEquals(asList("a", "b"), executedActivities);
+    }
+
+    @Test
+    public void givenWaitNode_whenRunBatch_thenReportInstanceAsWaiting() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("before", "{:type :activity :fn \"before\"}")
+                        .node("wait", "{:type :wait}")
+                        .node("after", "{:type :activity :fn \"after\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "before")
+                        .edge("before", "wait")
+                        .edge("wait", "after")
+                        .edge("after", "end")
+                        .build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        fnBindings.put("before", ctx -> {
+            ctx.put("before", true);
+            return ctx;
+        });
+        fnBindings.put("after", ctx -> {
+            ctx.put("after", true);
+            return ctx;
+        });
+
+        // When
+        final List<InstanceResult> actualResults = sut.runBatch(
+                definitionsByProcessIds,
+                asList(new HashMap<>(), new HashMap<>()), fnBindings,
+                Collections.emptyMap(), "p");
+
+        // Then
+        assertEquals(2, actualResults.size());
+        for (final InstanceResult result : actualResults) {
+            assertFalse(result.isFailed());
+            assertTrue(result.isWaiting());
+            assertEquals(true, result.getCtx().get("before"));
+            assertNull(result.getCtx().get("after"));
+        }
+        final ProcessInstanceHandle actualHandle = sut.resume(
+                definitionsByProcessIds,
+                ProcessInstanceHandle.fromSnapshot(
+                        actualResults.get(1).getSnapshot()),
+                null, fnBindings, Collections.emptyMap());
+        assertFalse(actualHandle.isWaiting());
+        assertEquals(true, actualHandle.getCtx().get("after"));
+    }
+}
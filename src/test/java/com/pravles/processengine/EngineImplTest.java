@@ -12,6 +12,7 @@ package com.pravles.processengine;
 
 import com.pravles.processengine.api.ActivityFunction;
 import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.ProcessDefinition;
 import com.pravles.processengine.impl.EngineImpl;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
@@ -257,4 +258,86 @@ class EngineImplTest {
                 executedActivities);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void givenCompiledDefinition_whenRunTwice_thenExecuteCorrectActivitiesBothTimes()
+            throws Exception {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final ProcessDefinition definition;
+        try (final InputStream is = new FileInputStream("src/test/resources" +
+                "/process.1.fodg")) {
+            definition = sut.compile(StringUtils.EMPTY, is);
+        }
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put(StringUtils.EMPTY, definition);
+
+        final Map<String, ActivityFunction> fnBindings = asList(
+                "act1-fn",
+                "act2-fn",
+                "act3-fn",
+                "act4-fn")
+                .stream()
+                .collect(Collectors.toMap(
+                        name -> name,
+                        TestActivity::new));
+
+        for (final Boolean condition : asList(Boolean.TRUE, Boolean.FALSE)) {
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("executedActivities", new ArrayList<String>());
+            initCtx.put("my-condition", condition);
+
+            // When
+            final Map<String, Object> actualCtx =
+                    sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                            initCtx, fnBindings, new HashMap<>(),
+                            StringUtils.EMPTY);
+
+            // Then
+            final List<String> executedActivities = (List<String>) actualCtx.get(
+                    "executedActivities");
+            if (condition) {
+                assertEquals(asList("act1-fn",
+                        "act2-fn", "act3-fn", "act4-fn"), executedActivities);
+            } else {
+                assertEquals(asList("act1-fn",
+                        "act4-fn"), executedActivities);
+            }
+        }
+    }
+
+    @Test
+    public void givenIterations_whenWarmUp_thenRunProcessThatManyTimes()
+            throws Exception {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        try (final InputStream is = new FileInputStream("src/test/resources" +
+                "/process.1.fodg")) {
+            definitionsByProcessIds.put(StringUtils.EMPTY,
+                    sut.compile(StringUtils.EMPTY, is));
+        }
+        final List<String> executedActivities = new ArrayList<>();
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", executedActivities);
+        initCtx.put("my-condition", Boolean.FALSE);
+
+        final Map<String, ActivityFunction> fnBindings = asList(
+                "act1-fn",
+                "act4-fn")
+                .stream()
+                .collect(Collectors.toMap(
+                        name -> name,
+                        TestActivity::new));
+
+        // When
+        sut.warmUp(definitionsByProcessIds, initCtx, fnBindings,
+                new HashMap<>(), StringUtils.EMPTY, 3);
+
+        // Then
+        assertEquals(asList("act1-fn", "act4-fn",
+                "act1-fn", "act4-fn",
+                "act1-fn", "act4-fn"), executedActivities);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ConditionFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes an instance to the last of {@code edges} edges, through a
+ * {@code gateway-open} node with one condition function per edge or
+ * through a {@code gateway-switch} node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class GatewayBenchmark {
+    @Param({"4", "32"})
+    private int edges;
+
+    @Param({"open", "switch"})
+    private String gateway;
+
+    private EngineImpl engine;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private Map<String, ActivityFunction> fnBindings;
+    private Map<String, ConditionFunction> conditionFns;
+    private String lastRegion;
+
+    @Setup
+    public void setUp() {
+        engine = new EngineImpl();
+        final boolean isSwitch = "switch".equals(gateway);
+        final TestGraph graph = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("gw", isSwitch
+                        ? "{:type :gateway-switch :key \"region\"}"
+                        : "{:type :gateway-open}")
+                .node("act", "{:type :activity :fn \"act\"}")
+                .node("close", "{:type :gateway-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "gw")
+                .edge("act", "close")
+                .edge("close", "end");
+        conditionFns = new HashMap<>();
+        for (int i = 0; i < edges; i++) {
+            final String region = "region" + i;
+            graph.node("empty" + i, "{:type :gateway-close}")
+                    .edge("gw", "empty" + i, isSwitch ? region : "is-" + region)
+                    .edge("empty" + i, "act");
+            conditionFns.put("is-" + region,
+                    ctx -> region.equals(ctx.get("region")));
+        }
+        definitionsByProcessIds = Collections.singletonMap("p",
+                engine.compile("p", graph.build()));
+        fnBindings = Collections.singletonMap("act", ctx -> ctx);
+        lastRegion = "region" + (edges - 1);
+    }
+
+    @Benchmark
+    public Map<String, Object> route() {
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("region", lastRegion);
+        return engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                initCtx, fnBindings, conditionFns, "p");
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GatewaySwitchTest {
+    private static final int EDGES = 40;
+
+    @Test
+    public void givenManyEdges_whenRouteOnStringValue_thenTakeMatchingEdge() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                switchProcess(sut, true);
+
+        // When
+        final List<String> actual = run(sut, definitionsByProcessIds,
+                "region37");
+
+        // Then
+        assertEquals(asList("act37"), actual);
+    }
+
+    @Test
+    public void givenIntegerLabels_whenRouteOnNumber_thenMatchAnyIntegralType() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("switch", "{:type :gateway-switch :key :code}")
+                        .node("one", "{:type :activity :fn \"one\"}")
+                        .node("two", "{:type :activity :fn \"two\"}")
+                        .node("close", "{:type :gateway-close}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "switch")
+                        .edge("switch", "one", "1")
+                        .edge("switch", "two", "200")
+                        .edge("one", "close")
+                        .edge("two", "close")
+                        .edge("close", "end")
+                        .build()));
+
+        // When
+        final List<String> intResult = run(sut, definitionsByProcessIds,
+                "code", 200);
+        final List<String> longResult = run(sut, definitionsByProcessIds,
+                "code", 1L);
+
+        // Then
+        assertEquals(asList("two"), intResult);
+        assertEquals(asList("one"), longResult);
+    }
+
+    @Test
+    public void givenUnknownValue_whenRoute_thenTakeDefaultEdge() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                switchProcess(sut, true);
+
+        // When
+        final List<String> actual = run(sut, definitionsByProcessIds,
+                "atlantis");
+
+        // Then
+        assertEquals(asList("fallback"), actual);
+    }
+
+    @Test
+    public void givenUnknownValueAndNoDefault_whenRoute_thenStop() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                switchProcess(sut, false);
+
+        // When
+        final List<String> actual = run(sut, definitionsByProcessIds,
+                "atlantis");
+
+        // Then
+        assertEquals(Collections.emptyList(), actual);
+    }
+
+    static Map<String, ProcessDefinition> switchProcess(
+            final EngineImpl engine,
+            final boolean withDefault) {
+        final TestGraph graph = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("switch", "{:type :gateway-switch :key \"region\"}")
+                .node("close", "{:type :gateway-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "switch")
+                .edge("close", "end");
+        for (int i = 0; i < EDGES; i++) {
+            graph.node("act" + i, "{:type :activity :fn \"act" + i + "\"}")
+                    .edge("switch", "act" + i, "region" + i)
+                    .edge("act" + i, "close");
+        }
+        if (withDefault) {
+            graph.node("fallback", "{:type :activity :fn \"fallback\"}")
+                    .edge("switch", "fallback", "default")
+                    .edge("fallback", "close");
+        }
+        return Collections.singletonMap("p", engine.compile("p",
+                graph.build()));
+    }
+
+    private static List<String> run(
+            final EngineImpl engine,
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final String region) {
+        return run(engine, definitionsByProcessIds, "region", region);
+    }
+
+    private static List<String> run(
+            final EngineImpl engine,
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final String key,
+            final Object value) {
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put(key, value);
+        initCtx.put("executedActivities", new ArrayList<String>());
+        return (List<String>) engine.runDefinitionWithSubprocesses(
+                definitionsByProcessIds, initCtx, recordingFns(),
+                Collections.emptyMap(), "p").get("executedActivities");
+    }
+
+    private static Map<String, ActivityFunction> recordingFns() {
+        final List<String> fns = new ArrayList<>(asList("fallback", "one",
+                "two"));
+        for (int i = 0; i < EDGES; i++) {
+            fns.add("act" + i);
+        }
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String fn : fns) {
+            fnBindings.put(fn, ctx -> {
+                ((List<String>) ctx.get("executedActivities")).add(fn);
+                return ctx;
+            });
+        }
+        return fnBindings;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.libreofficedraw.LibreOfficeDrawStaxParser;
+import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.ClojureGraphBuilder;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.GraphBuilder;
+import com.pravles.processengine.impl.JavaGraphBuilder;
+import org.apache.commons.io.FileUtils;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The steps between a parsed diagram and a runnable definition, for the
+ * bundled diagrams: building the graph with either {@link GraphBuilder} and
+ * compiling it. {@code LibreOfficeDrawParserBenchmark} covers parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class GraphBuildBenchmark {
+    @Param({"process.1.fodg", "process.2.fodg", "process.3.fodg"})
+    private String fileName;
+
+    @Param({"java", "clojure"})
+    private String builder;
+
+    private GraphBuilder graphBuilder;
+    private LibreOfficeDrawParsingResult parsingResult;
+    private EngineImpl engine;
+    private DefaultDirectedGraph graph;
+
+    @Setup
+    public void setUp() throws Exception {
+        graphBuilder = "clojure".equals(builder)
+                ? new ClojureGraphBuilder()
+                : new JavaGraphBuilder();
+        parsingResult = new LibreOfficeDrawStaxParser().read(
+                new ByteArrayInputStream(FileUtils.readFileToByteArray(
+                        new File("src/test/resources/" + fileName))));
+        engine = new EngineImpl(graphBuilder);
+        graph = graphBuilder.apply(parsingResult);
+    }
+
+    @Benchmark
+    public DefaultDirectedGraph buildGraph() {
+        return graphBuilder.apply(parsingResult);
+    }
+
+    @Benchmark
+    public ProcessDefinition compile() {
+        return engine.compile("p", graph);
+    }
+}
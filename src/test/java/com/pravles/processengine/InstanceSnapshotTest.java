@@ -0,0 +1,143 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.impl.CallStackEntry;
+import com.pravles.processengine.impl.InstanceSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.io.ObjectInputFilter;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceSnapshotTest {
+    @Test
+    public void givenCommonValueTypes_whenRoundTrip_thenRestoreThem() {
+        // Given
+        final Map<String, Object> ctx = new HashMap<>();
+        ctx.put("null", null);
+        ctx.put("flag", true);
+        ctx.put("int", -42);
+        ctx.put("long", Long.MAX_VALUE);
+        ctx.put("double", 0.5);
+        ctx.put("string", "Ühe päeva");
+        ctx.put("bytes", new byte[]{1, 2, 3});
+        ctx.put("list", asList(1, "two", false));
+        ctx.put("map", Collections.singletonMap("nested", 7L));
+        ctx.put("serializable", new BigDecimal("12.34"));
+        final List<CallStackEntry> callStack = asList(
+                new CallStackEntry("main", "call"),
+                new CallStackEntry("sub", "wait"));
+
+        // When
+        final InstanceSnapshot actual = InstanceSnapshot.fromBytes(
+                new InstanceSnapshot(callStack, ctx).toBytes());
+
+        // Then
+        assertEquals(callStack, actual.getCallStack());
+        assertArrayEquals((byte[]) ctx.remove("bytes"),
+                (byte[]) actual.getCtx().remove("bytes"));
+        assertEquals(ctx, actual.getCtx());
+    }
+
+    @Test
+    public void givenSmallContext_whenToBytes_thenStayCompact() {
+        // Given
+        final Map<String, Object> ctx = new HashMap<>();
+        ctx.put("orderId", 123456);
+        ctx.put("approved", true);
+
+        // When
+        final byte[] actual = new InstanceSnapshot(
+                Collections.singletonList(new CallStackEntry("p", "wait")),
+                ctx).toBytes();
+
+        // Then
+        assertTrue(actual.length < 40, "Snapshot has " + actual.length +
+                " bytes");
+    }
+
+    @Test
+    public void givenNonSerializableValue_whenToBytes_thenThrow() {
+        // Given
+        final Map<String, Object> ctx =
+                Collections.singletonMap("thread", new Object());
+        final InstanceSnapshot sut = new InstanceSnapshot(
+                Collections.singletonList(new CallStackEntry("p", "wait")),
+                ctx);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, sut::toBytes);
+    }
+
+    @Test
+    public void givenClassOutsideAllowList_whenFromBytes_thenThrow() {
+        // Given
+        final byte[] snapshot = new InstanceSnapshot(
+                Collections.singletonList(new CallStackEntry("p", "wait")),
+                Collections.singletonMap("point", new Point(1, 2)))
+                .toBytes();
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> InstanceSnapshot.fromBytes(snapshot));
+    }
+
+    @Test
+    public void givenCustomFilter_whenFromBytes_thenReadClassesItAllows() {
+        // Given
+        final byte[] snapshot = new InstanceSnapshot(
+                Collections.singletonList(new CallStackEntry("p", "wait")),
+                Collections.singletonMap("point", new Point(1, 2)))
+                .toBytes();
+        final ObjectInputFilter filter = ObjectInputFilter.Config
+                .createFilter("java.awt.Point;java.lang.*;!*");
+
+        // When
+        final InstanceSnapshot actual = InstanceSnapshot.fromBytes(snapshot,
+                filter);
+
+        // Then
+        assertEquals(new Point(1, 2), actual.getCtx().get("point"));
+    }
+
+    @Test
+    public void givenCallStackDepthBeyondInput_whenFromBytes_thenThrow() {
+        // Given
+        final byte[] snapshot = {1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                0x7F};
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> InstanceSnapshot.fromBytes(snapshot));
+    }
+
+    @Test
+    public void givenByteArrayLengthBeyondInput_whenFromBytes_thenThrow() {
+        // Given
+        final byte[] snapshot = {1, 0, 9, 1, 6, 1, 'k', 7, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> InstanceSnapshot.fromBytes(snapshot));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.libreofficedraw.LibreOfficeDrawStaxParser;
+import com.pravles.libreofficedraw.model.Edge;
+import com.pravles.libreofficedraw.model.LibreOfficeDrawParsingResult;
+import com.pravles.libreofficedraw.model.Vertex;
+import com.pravles.processengine.impl.ClojureGraphBuilder;
+import com.pravles.processengine.impl.JavaGraphBuilder;
+import org.apache.commons.io.FileUtils;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JavaGraphBuilderTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "process.1.fodg",
+            "process.2.fodg",
+            "process.3.fodg"})
+    public void givenDiagram_whenApply_thenSameGraphAsClojureScript(
+            final String fileName) throws Exception {
+        // Given
+        final LibreOfficeDrawParsingResult lodData;
+        try (final InputStream is = FileUtils.openInputStream(
+                new File("src/test/resources/" + fileName))) {
+            lodData = new LibreOfficeDrawStaxParser().read(is);
+        }
+        final DefaultDirectedGraph expectedGraph =
+                new ClojureGraphBuilder().apply(lodData);
+        final JavaGraphBuilder sut = new JavaGraphBuilder();
+
+        // When
+        final DefaultDirectedGraph actualGraph = sut.apply(lodData);
+
+        // Then
+        assertEquals(expectedGraph.vertexSet(), actualGraph.vertexSet());
+        assertEquals(expectedGraph.edgeSet(), actualGraph.edgeSet());
+        for (final Object edge : expectedGraph.edgeSet()) {
+            assertEquals(expectedGraph.getEdgeSource(edge),
+                    actualGraph.getEdgeSource(edge));
+            assertEquals(expectedGraph.getEdgeTarget(edge),
+                    actualGraph.getEdgeTarget(edge));
+        }
+    }
+
+    @Test
+    public void givenDanglingEdges_whenApply_thenLeaveThemOut() {
+        // Given
+        final Vertex v1 = Vertex.builder().id("id1").build();
+        final Vertex v2 = Vertex.builder().id("id2").build();
+        final Edge validEdge = Edge.builder()
+                .source("id1")
+                .target("id2")
+                .build();
+        final LibreOfficeDrawParsingResult lodData =
+                LibreOfficeDrawParsingResult.builder()
+                        .vertices(asList(v1, v2))
+                        .edges(asList(
+                                validEdge,
+                                Edge.builder()
+                                        .source("id1")
+                                        .target("unknown")
+                                        .build(),
+                                Edge.builder()
+                                        .source("unknown")
+                                        .target("id2")
+                                        .build()))
+                        .build();
+        final JavaGraphBuilder sut = new JavaGraphBuilder();
+
+        // When
+        final DefaultDirectedGraph actualGraph = sut.apply(lodData);
+
+        // Then
+        assertEquals(new HashSet<>(asList(v1, v2)), actualGraph.vertexSet());
+        assertEquals(new HashSet<>(asList(validEdge)), actualGraph.edgeSet());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.FsyncPolicy;
+import com.pravles.processengine.impl.Journal;
+import com.pravles.processengine.impl.JournalConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per instance of a process with {@link #ACTIVITIES} activities, each
+ * changing one context entry, without a journal and with each fsync
+ * policy. The difference divided by the number of nodes is the journaling
+ * overhead per step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+    private static final int ACTIVITIES = 10;
+
+    @Param({"none", "NEVER", "GROUP_COMMIT", "EVERY_RECORD"})
+    private String fsyncPolicy;
+
+    private Path directory;
+    private Journal journal;
+    private EngineImpl engine;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private Map<String, ActivityFunction> fnBindings;
+
+    @Setup
+    public void setUp() throws IOException {
+        final EngineConfiguration.EngineConfigurationBuilder configuration =
+                EngineConfiguration.builder();
+        if (!"none".equals(fsyncPolicy)) {
+            directory = Files.createTempDirectory("journal-benchmark");
+            journal = new Journal(JournalConfiguration.builder()
+                    .directory(directory)
+                    .fsyncPolicy(FsyncPolicy.valueOf(fsyncPolicy))
+                    .groupCommitIntervalMicros(0)
+                    .build());
+            configuration.journal(journal);
+        }
+        engine = new EngineImpl(configuration.build());
+        definitionsByProcessIds = Collections.singletonMap("p",
+                engine.compile("p", TestGraph.linearProcess(ACTIVITIES,
+                        "increment").build()));
+        fnBindings = Collections.singletonMap("increment", ctx -> {
+            ctx.put("counter", (Integer) ctx.get("counter") + 1);
+            return ctx;
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            FileUtils.deleteDirectory(directory.toFile());
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> runInstance() {
+        final Map<String, Object> ctx = new HashMap<>();
+        ctx.put("counter", 0);
+        ctx.put("customerId", "C-0001");
+        return engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                ctx, fnBindings, Collections.emptyMap(), "p");
+    }
+}
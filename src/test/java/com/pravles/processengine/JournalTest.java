@@ -0,0 +1,284 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessInstanceHandle;
+import com.pravles.processengine.impl.CallStackEntry;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.FsyncPolicy;
+import com.pravles.processengine.impl.Journal;
+import com.pravles.processengine.impl.JournalConfiguration;
+import com.pravles.processengine.impl.JournalCursor;
+import com.pravles.processengine.impl.ParallelEngine;
+import com.pravles.processengine.impl.RecoveredInstance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenCrashInSubprocess_whenRecover_thenContinueAtInterruptedNode()
+            throws Exception {
+        // Given
+        final Path journalDir = tempDir.resolve("journal");
+        final Path crashImage = tempDir.resolve("crash");
+        final CountDownLatch reachedB = new CountDownLatch(1);
+        final CountDownLatch releaseB = new CountDownLatch(1);
+        final Map<String, ActivityFunction> fnBindings = recordingFns();
+        fnBindings.put("b", ctx -> {
+            reachedB.countDown();
+            try {
+                releaseB.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ctx;
+        });
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+
+        try (final Journal journal = new Journal(JournalConfiguration.builder()
+                .directory(journalDir)
+                .fsyncPolicy(FsyncPolicy.NEVER)
+                .build())) {
+            final EngineImpl engine = new EngineImpl(EngineConfiguration
+                    .builder()
+                    .journal(journal)
+                    .build());
+            final CompletableFuture<Map<String, Object>> running =
+                    CompletableFuture.supplyAsync(() ->
+                            engine.runDefinitionWithSubprocesses(
+                                    definitions(engine), initCtx, fnBindings,
+                                    Collections.emptyMap(), "main"));
+            reachedB.await();
+            copyDirectory(journalDir, crashImage);
+            releaseB.countDown();
+            running.get();
+        }
+
+        // When
+        final List<RecoveredInstance> actualInstances;
+        final ProcessInstanceHandle actualHandle;
+        try (final Journal journal = new Journal(JournalConfiguration.builder()
+                .directory(crashImage)
+                .build())) {
+            final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                    .journal(journal)
+                    .build());
+            actualInstances = journal.getRecoveredInstances();
+            actualHandle = sut.recover(definitions(sut),
+                    actualInstances.get(0), recordingFns(),
+                    Collections.emptyMap());
+        }
+
+        // Then
+        assertEquals(1, actualInstances.size());
+        assertEquals(asList(new CallStackEntry("main", "call"),
+                        new CallStackEntry("sub", "act0")),
+                actualInstances.get(0).getCallStack());
+        assertFalse(actualHandle.isWaiting());
+        assertEquals(asList("a", "b", "c"),
+                actualHandle.getCtx().get("executedActivities"));
+    }
+
+    @Test
+    public void givenLongRunningInstance_whenSegmentsFill_thenKeepSegmentsFromItsFirstOn()
+            throws Exception {
+        // Given
+        final Path journalDir = tempDir.resolve("journal");
+        final Map<String, Object> ctx = new HashMap<>();
+        ctx.put("executedActivities", new ArrayList<String>());
+
+        try (final Journal sut = new Journal(JournalConfiguration.builder()
+                .directory(journalDir)
+                .segmentSize(4 * 1024)
+                .fsyncPolicy(FsyncPolicy.NEVER)
+                .build())) {
+            final JournalCursor longRunning = sut.start("main", ctx);
+
+            // When
+            for (int i = 0; i < 1_000; i++) {
+                final JournalCursor cursor = sut.start("main", ctx);
+                sut.step(cursor, "a", ctx);
+                sut.end(cursor);
+            }
+            final long whileRunning = segmentCount(journalDir);
+            final boolean firstKept =
+                    Files.exists(journalDir.resolve("segment-00000001.journal"));
+            sut.end(longRunning);
+            for (int i = 0; i < 200; i++) {
+                final JournalCursor cursor = sut.start("main", ctx);
+                sut.end(cursor);
+            }
+
+            // Then
+            assertTrue(firstKept);
+            assertTrue(whileRunning > 2);
+            assertEquals(1, segmentCount(journalDir));
+        }
+    }
+
+    @Test
+    public void givenInstanceEndingInLaterSegment_whenOlderSegmentKept_thenDontRecoverIt()
+            throws Exception {
+        // Given
+        final Path journalDir = tempDir.resolve("journal");
+        final Map<String, Object> ctx = new HashMap<>();
+        ctx.put("executedActivities", new ArrayList<String>());
+        final long longRunningId;
+        try (final Journal journal = new Journal(JournalConfiguration.builder()
+                .directory(journalDir)
+                .segmentSize(4 * 1024)
+                .fsyncPolicy(FsyncPolicy.NEVER)
+                .build())) {
+            final JournalCursor ended = journal.start("main", ctx);
+            final JournalCursor longRunning = journal.start("main", ctx);
+            longRunningId = longRunning.getInstanceId();
+            for (int i = 0; i < 200; i++) {
+                final JournalCursor cursor = journal.start("main", ctx);
+                journal.end(cursor);
+            }
+            journal.end(ended);
+            for (int i = 0; i < 200; i++) {
+                final JournalCursor cursor = journal.start("main", ctx);
+                journal.end(cursor);
+            }
+        }
+
+        // When
+        final List<RecoveredInstance> actualInstances;
+        try (final Journal sut = new Journal(JournalConfiguration.builder()
+                .directory(journalDir)
+                .build())) {
+            actualInstances = sut.getRecoveredInstances();
+        }
+
+        // Then
+        assertEquals(1, actualInstances.size());
+        assertEquals(longRunningId, actualInstances.get(0).getInstanceId());
+    }
+
+    @Test
+    public void givenGroupCommitAndSmallSegments_whenRunManyInstances_thenNothingIsLeftToRecover()
+            throws Exception {
+        // Given
+        final Path journalDir = tempDir.resolve("journal");
+        final List<Map<String, Object>> initCtxs = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("executedActivities", new ArrayList<String>());
+            initCtxs.add(initCtx);
+        }
+
+        // When
+        try (final Journal journal = new Journal(JournalConfiguration.builder()
+                .directory(journalDir)
+                .segmentSize(16 * 1024)
+                .fsyncPolicy(FsyncPolicy.GROUP_COMMIT)
+                .build())) {
+            final EngineImpl engine = new EngineImpl(EngineConfiguration
+                    .builder()
+                    .journal(journal)
+                    .build());
+            try (final ParallelEngine parallelEngine =
+                         new ParallelEngine(engine, 8)) {
+                final List<CompletableFuture<Map<String, Object>>> results =
+                        parallelEngine.submitAll(definitions(engine),
+                                initCtxs, recordingFns(),
+                                Collections.emptyMap(), "main");
+                CompletableFuture.allOf(results.toArray(
+                        new CompletableFuture[0])).get();
+            }
+        }
+        final List<RecoveredInstance> actualInstances;
+        try (final Journal journal = new Journal(JournalConfiguration.builder()
+                .directory(journalDir)
+                .build())) {
+            actualInstances = journal.getRecoveredInstances();
+        }
+
+        // Then
+        assertTrue(Files.notExists(journalDir.resolve(
+                "segment-00000001.journal")));
+        assertTrue(segmentCount(journalDir) <= 2);
+        assertEquals(0, actualInstances.size());
+    }
+
+    private static Map<String, ProcessDefinition> definitions(
+            final EngineImpl engine) {
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", engine.compile("main",
+                new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("a", "{:type :activity :fn \"a\"}")
+                        .node("call", "{:type :call-subprocess :process \"sub\"}")
+                        .node("c", "{:type :activity :fn \"c\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "a")
+                        .edge("a", "call")
+                        .edge("call", "c")
+                        .edge("c", "end")
+                        .build()));
+        definitionsByProcessIds.put("sub", engine.compile("sub",
+                TestGraph.linearProcess(1, "b").build()));
+        return definitionsByProcessIds;
+    }
+
+    private static Map<String, ActivityFunction> recordingFns() {
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String name : asList("a", "b", "c")) {
+            fnBindings.put(name, ctx -> {
+                ((List<String>) ctx.get("executedActivities")).add(name);
+                return ctx;
+            });
+        }
+        return fnBindings;
+    }
+
+    private static void copyDirectory(final Path source, final Path target)
+            throws IOException {
+        Files.createDirectories(target);
+        try (final Stream<Path> files = Files.list(source)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, target.resolve(file.getFileName()));
+            }
+        }
+    }
+
+    private static long segmentCount(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.EngineListener;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.MetricsListener;
+import com.pravles.processengine.impl.TraceRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a process of {@code activities} trivial activities on an engine
+ * without a listener, with a listener that does nothing, with a
+ * {@link MetricsListener} and with a {@link TraceRecorder} writing to a
+ * temporary file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ListenerBenchmark {
+    @Param({"10"})
+    private int activities;
+
+    @Param({"none", "noop", "metrics", "trace"})
+    private String listener;
+
+    private EngineImpl engine;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private Map<String, ActivityFunction> fnBindings;
+    private Path traceFile;
+    private TraceRecorder traceRecorder;
+
+    @Setup
+    public void setUp() throws IOException {
+        final EngineConfiguration.EngineConfigurationBuilder configuration =
+                EngineConfiguration.builder();
+        if ("noop".equals(listener)) {
+            configuration.listener(new EngineListener() {
+            });
+        } else if ("metrics".equals(listener)) {
+            configuration.listener(new MetricsListener());
+        } else if ("trace".equals(listener)) {
+            traceFile = Files.createTempFile("listener-benchmark", ".trace");
+            traceRecorder = new TraceRecorder(traceFile, 64 * 1024);
+            configuration.listener(traceRecorder);
+        }
+        engine = new EngineImpl(configuration.build());
+        definitionsByProcessIds = Collections.singletonMap("p",
+                engine.compile("p", TestGraph
+                        .linearProcess(activities, "act")
+                        .build()));
+        fnBindings = Collections.singletonMap("act", ctx -> ctx);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (traceRecorder != null) {
+            traceRecorder.close();
+            Files.delete(traceFile);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> run() {
+        return engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                new HashMap<>(), fnBindings, Collections.emptyMap(), "p");
+    }
+}
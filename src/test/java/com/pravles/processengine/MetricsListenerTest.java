@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.LatencyHistogram;
+import com.pravles.processengine.impl.MetricsListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsListenerTest {
+    @Test
+    public void givenMetricsListener_whenRunInstances_thenCountNodesAndCalls() {
+        // Given
+        final MetricsListener metrics = new MetricsListener();
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .listener(metrics)
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                definitions(sut);
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("sleep", ctx -> {
+                    sleep(2);
+                    return ctx;
+                });
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("region", (i == 0) ? "EU" : "US");
+            sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                    initCtx, fnBindings, Collections.emptyMap(), "p");
+        }
+
+        // Then
+        assertEquals(3, metrics.getInstancesStarted());
+        assertEquals(3, metrics.getInstancesCompleted());
+        assertEquals(0, metrics.getInstancesFailed());
+        assertEquals(1, metrics.getGatewayDecisions("switch", "eu"));
+        assertEquals(2, metrics.getGatewayDecisions("switch", "us"));
+        assertEquals(1, metrics.getSubProcessCalls("sub"));
+        assertEquals(3, metrics.getNodeLatency("p", "start").getCount());
+        assertEquals(1, metrics.getNodeLatency("sub", "act0").getCount());
+        assertNull(metrics.getNodeLatency("p", "unknown"));
+
+        final LatencyHistogram sleepLatency =
+                metrics.getActivityLatency("sleep");
+        assertEquals(3, sleepLatency.getCount());
+        assertTrue(sleepLatency.getValueAtPercentile(50) >= 2_000_000);
+        assertTrue(sleepLatency.getMean() >= 2_000_000);
+    }
+
+    @Test
+    public void givenFailingActivity_whenRun_thenCountFailedInstance() {
+        // Given
+        final MetricsListener metrics = new MetricsListener();
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .listener(metrics)
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", TestGraph
+                        .linearProcess(1, "fail")
+                        .build()));
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("fail", ctx -> {
+                    throw new IllegalStateException("failed");
+                });
+
+        // When
+        assertThrows(IllegalStateException.class, () ->
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        new HashMap<>(), fnBindings, Collections.emptyMap(),
+                        "p"));
+
+        // Then
+        assertEquals(1, metrics.getInstancesStarted());
+        assertEquals(0, metrics.getInstancesCompleted());
+        assertEquals(1, metrics.getInstancesFailed());
+    }
+
+    @Test
+    public void givenRecordedValues_whenGetPercentiles_thenStayWithinPrecision() {
+        // Given
+        final LatencyHistogram sut = new LatencyHistogram();
+
+        // When
+        for (long value = 1; value <= 100_000; value++) {
+            sut.record(value * 1000);
+        }
+
+        // Then
+        assertEquals(100_000, sut.getCount());
+        assertEquals(100_000_000, sut.getMax());
+        assertEquals(50_000_500, sut.getMean(), 1);
+        assertWithinPrecision(50_000_000, sut.getValueAtPercentile(50));
+        assertWithinPrecision(99_000_000, sut.getValueAtPercentile(99));
+        assertEquals(100_000_000, sut.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void givenSmallAndHugeValues_whenGetPercentiles_thenKeepExtremes() {
+        // Given
+        final LatencyHistogram sut = new LatencyHistogram();
+
+        // When
+        sut.record(0);
+        sut.record(63);
+        sut.record(Long.MAX_VALUE);
+
+        // Then
+        assertEquals(0, sut.getValueAtPercentile(0));
+        assertEquals(63, sut.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, sut.getValueAtPercentile(100));
+    }
+
+    private static void assertWithinPrecision(final long expected,
+                                              final long actual) {
+        assertTrue((actual >= expected) && (actual <= expected * 1.04),
+                String.format("%d isn't within 4 %% of %d", actual,
+                        expected));
+    }
+
+    private static Map<String, ProcessDefinition> definitions(
+            final EngineImpl engine) {
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("p", engine.compile("p", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("switch", "{:type :gateway-switch :key \"region\"}")
+                .node("eu", "{:type :call-subprocess :process \"sub\"}")
+                .node("us", "{:type :activity :fn \"sleep\"}")
+                .node("close", "{:type :gateway-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "switch")
+                .edge("switch", "eu", "EU")
+                .edge("switch", "us", "US")
+                .edge("eu", "close")
+                .edge("us", "close")
+                .edge("close", "end")
+                .build()));
+        definitionsByProcessIds.put("sub", engine.compile("sub", TestGraph
+                .linearProcess(1, "sleep")
+                .build()));
+        return definitionsByProcessIds;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiInstanceTest {
+    private static final int ITEMS = 1000;
+
+    @Test
+    public void givenSequentialMode_whenRun_thenProcessItemsInOrder() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final List<Integer> seen = Collections.synchronizedList(
+                new ArrayList<>());
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("square", ctx -> {
+                    final int item = (Integer) ctx.get("item");
+                    seen.add(item);
+                    ctx.put("item", item * item);
+                    return ctx;
+                });
+
+        // When
+        final Map<String, Object> actual = run(sut,
+                "{:type :multi-instance :fn \"square\" :collection :items " +
+                        ":item :item :output :squares}",
+                asList(1, 2, 3), fnBindings);
+
+        // Then
+        assertEquals(asList(1, 2, 3), seen);
+        assertEquals(asList(1, 4, 9), actual.get("squares"));
+        assertEquals(asList(1, 2, 3), actual.get("items"));
+        assertNull(actual.get("item"));
+    }
+
+    @Test
+    public void givenParallelMode_whenRun_thenKeepCollectionOrder() {
+        // Given
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final EngineImpl sut = new EngineImpl(EngineConfiguration
+                    .builder()
+                    .branchExecutor(executor)
+                    .build());
+
+            // When
+            final Map<String, Object> actual = run(sut,
+                    "{:type :multi-instance :fn \"double\" :mode :parallel " +
+                            ":parallelism 4 :collection :items :item :n " +
+                            ":output :doubled :result :twice}",
+                    numbers(ITEMS), doubling());
+
+            // Then
+            assertEquals(IntStream.range(0, ITEMS)
+                            .mapToObj(i -> 2 * i)
+                            .collect(Collectors.toList()),
+                    actual.get("doubled"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void givenChunkedMode_whenRun_thenBoundConcurrency() {
+        // Given
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final EngineImpl sut = new EngineImpl(EngineConfiguration
+                    .builder()
+                    .branchExecutor(executor)
+                    .build());
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final Map<String, ActivityFunction> fnBindings =
+                    Collections.singletonMap("double", ctx -> {
+                        maxRunning.accumulateAndGet(
+                                running.incrementAndGet(), Math::max);
+                        ctx.put("twice", 2 * (Integer) ctx.get("n"));
+                        running.decrementAndGet();
+                        return ctx;
+                    });
+
+            // When
+            final Map<String, Object> actual = run(sut,
+                    "{:type :multi-instance :fn \"double\" :mode :chunked " +
+                            ":parallelism 3 :chunk-size 50 " +
+                            ":collection :items :item :n " +
+                            ":output :doubled :result :twice}",
+                    numbers(ITEMS), fnBindings);
+
+            // Then
+            assertEquals(2 * (ITEMS - 1),
+                    ((List<?>) actual.get("doubled")).get(ITEMS - 1));
+            assertEquals(ITEMS, ((List<?>) actual.get("doubled")).size());
+            assertTrue(maxRunning.get() <= 3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void givenFailingItem_whenRunInParallel_thenRethrowFailure() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("double", ctx -> {
+                    if ((Integer) ctx.get("n") == 500) {
+                        throw new IllegalStateException("item 500");
+                    }
+                    return ctx;
+                });
+
+        // When
+        final IllegalStateException actual = assertThrows(
+                IllegalStateException.class, () -> run(sut,
+                        "{:type :multi-instance :fn \"double\" " +
+                                ":mode :chunked :parallelism 4 " +
+                                ":chunk-size 10 :collection :items " +
+                                ":item :n :output :doubled}",
+                        numbers(ITEMS), fnBindings));
+
+        // Then
+        assertEquals("item 500", actual.getMessage());
+    }
+
+    @Test
+    public void givenSubProcess_whenRun_thenRunItOncePerItem() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("p", sut.compile("p",
+                process("{:type :multi-instance :process \"sub\" " +
+                        ":mode :parallel :parallelism 2 " +
+                        ":collection :items :item :n :output :doubled " +
+                        ":result :twice}")));
+        definitionsByProcessIds.put("sub", sut.compile("sub", TestGraph
+                .linearProcess(1, "double")
+                .build()));
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("items", asList(1, 2, 3));
+
+        // When
+        final Map<String, Object> actual =
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        initCtx, doubling(), Collections.emptyMap(), "p");
+
+        // Then
+        assertEquals(asList(2, 4, 6), actual.get("doubled"));
+    }
+
+    @Test
+    public void givenMissingCollection_whenRun_thenOutputEmptyList() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+
+        // When
+        final Map<String, Object> actual = run(sut,
+                "{:type :multi-instance :fn \"double\" :collection :items " +
+                        ":item :n :output :doubled}",
+                null, doubling());
+
+        // Then
+        assertEquals(Collections.emptyList(), actual.get("doubled"));
+    }
+
+    @Test
+    public void givenCallerContext_whenRun_thenPutOutputIntoNewContext() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("items", asList(1, 2));
+
+        // When
+        final Map<String, Object> actual = sut.runDefinitionWithSubprocesses(
+                Collections.singletonMap("p", sut.compile("p", process(
+                        "{:type :multi-instance :fn \"double\" " +
+                                ":collection :items :item :n " +
+                                ":output :doubled :result :twice}"))),
+                initCtx, doubling(), Collections.emptyMap(), "p");
+
+        // Then
+        assertEquals(asList(2, 4), actual.get("doubled"));
+        assertFalse(initCtx.containsKey("doubled"));
+    }
+
+    private static Map<String, Object> run(
+            final EngineImpl engine,
+            final String multiInstanceNode,
+            final List<Integer> items,
+            final Map<String, ActivityFunction> fnBindings) {
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("items", items);
+        return engine.runDefinitionWithSubprocesses(
+                Collections.singletonMap("p",
+                        engine.compile("p", process(multiInstanceNode))),
+                initCtx, fnBindings, Collections.emptyMap(), "p");
+    }
+
+    private static DefaultDirectedGraph process(final String multiInstanceNode) {
+        return new TestGraph()
+                .node("start", "{:type :start}")
+                .node("each", multiInstanceNode)
+                .node("end", "{:type :end}")
+                .edge("start", "each")
+                .edge("each", "end")
+                .build();
+    }
+
+    private static Map<String, ActivityFunction> doubling() {
+        return Collections.singletonMap("double", ctx -> {
+            ctx.put("twice", 2 * (Integer) ctx.get("n"));
+            return ctx;
+        });
+    }
+
+    private static List<Integer> numbers(final int count) {
+        return IntStream.range(0, count)
+                .boxed()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ParallelEngine;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelEngineTest {
+    private static final int INSTANCES = 2_000;
+
+    @Test
+    public void givenManyInstances_whenSubmitAll_thenEveryInstanceGetsItsOwnResult()
+            throws Exception {
+        // Given
+        final EngineImpl engine = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        try (final InputStream is = new FileInputStream("src/test/resources" +
+                "/process.1.fodg")) {
+            definitionsByProcessIds.put(StringUtils.EMPTY,
+                    engine.compile(StringUtils.EMPTY, is));
+        }
+        final Map<String, ActivityFunction> fnBindings = asList(
+                "act1-fn",
+                "act2-fn",
+                "act3-fn",
+                "act4-fn")
+                .stream()
+                .collect(Collectors.toMap(
+                        name -> name,
+                        TestActivity::new));
+        final List<Map<String, Object>> initCtxs = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("executedActivities", new ArrayList<String>());
+            initCtx.put("my-condition", (i % 2) == 0);
+            initCtxs.add(initCtx);
+        }
+
+        // When
+        final List<CompletableFuture<Map<String, Object>>> actualResults;
+        try (final ParallelEngine sut = new ParallelEngine(engine, 4)) {
+            actualResults = sut.submitAll(definitionsByProcessIds, initCtxs,
+                    fnBindings, new HashMap<>(), StringUtils.EMPTY);
+            CompletableFuture.allOf(actualResults.toArray(
+                    new CompletableFuture[0])).get();
+        }
+
+        // Then
+        for (int i = 0; i < INSTANCES; i++) {
+            final List<String> executedActivities = (List<String>)
+                    actualResults.get(i).get().get("executedActivities");
+            if ((i % 2) == 0) {
+                assertEquals(asList("act1-fn",
+                        "act2-fn", "act3-fn", "act4-fn"), executedActivities);
+            } else {
+                assertEquals(asList("act1-fn",
+                        "act4-fn"), executedActivities);
+            }
+        }
+    }
+
+    @Test
+    public void givenBlockingActivities_whenRunOnVirtualThreads_thenRespectConcurrencyCap()
+            throws Exception {
+        // Given
+        final EngineImpl engine = new EngineImpl(EngineConfiguration.builder()
+                .subProcessExecutor(Executors.newVirtualThreadPerTaskExecutor())
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", engine.compile("main",
+                new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("call", "{:type :call-subprocess :process \"sub\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "call")
+                        .edge("call", "end")
+                        .build()));
+        definitionsByProcessIds.put("sub", engine.compile("sub",
+                TestGraph.linearProcess(1, "blocking").build()));
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Map<String, ActivityFunction> fnBindings =
+                Collections.singletonMap("blocking", ctx -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(),
+                            Math::max);
+                    try {
+                        Thread.sleep(10);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    ctx.put("virtual", Thread.currentThread().isVirtual());
+                    return ctx;
+                });
+        final List<Map<String, Object>> initCtxs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            initCtxs.add(new HashMap<>());
+        }
+
+        // When
+        final List<CompletableFuture<Map<String, Object>>> actualResults;
+        try (final ParallelEngine sut =
+                     ParallelEngine.withVirtualThreads(engine, 50)) {
+            actualResults = sut.submitAll(definitionsByProcessIds, initCtxs,
+                    fnBindings, new HashMap<>(), "main");
+            CompletableFuture.allOf(actualResults.toArray(
+                    new CompletableFuture[0])).get();
+        }
+
+        // Then
+        for (final CompletableFuture<Map<String, Object>> actualResult :
+                actualResults) {
+            assertEquals(true, actualResult.get().get("virtual"));
+        }
+        assertTrue(maxRunning.get() <= 50);
+    }
+}
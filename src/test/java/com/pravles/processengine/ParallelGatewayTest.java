@@ -0,0 +1,222 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelGatewayTest {
+    private static final long SLEEP_MILLIS = 200;
+
+    @Test
+    public void givenThreeSlowBranches_whenRun_thenRunThemConcurrentlyAndMerge()
+            throws Exception {
+        // Given
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                    .branchExecutor(executor)
+                    .build());
+            final Map<String, ProcessDefinition> definitionsByProcessIds =
+                    Collections.singletonMap("p",
+                            sut.compile("p", forkOf("a", "b", "c").build()));
+            final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+            for (final String branch : new String[]{"a", "b", "c"}) {
+                fnBindings.put(branch, ctx -> {
+                    sleep();
+                    ctx.put(branch, true);
+                    return ctx;
+                });
+            }
+            fnBindings.put("after", ctx -> {
+                ctx.put("after", true);
+                return ctx;
+            });
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("before", true);
+
+            // When
+            final long start = System.nanoTime();
+            final Map<String, Object> actualCtx =
+                    sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                            initCtx, fnBindings, Collections.emptyMap(), "p");
+            final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            for (final String key : new String[]{"before", "a", "b", "c",
+                    "after"}) {
+                assertEquals(true, actualCtx.get(key), key);
+            }
+            assertTrue(elapsedMillis < 2 * SLEEP_MILLIS,
+                    "Took " + elapsedMillis + " ms");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void givenCustomMergeStrategy_whenRun_thenUseIt() {
+        // Given
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .branchMergeStrategy((ctxBeforeFork, branchCtxs) -> {
+                    int sum = 0;
+                    for (final Map<String, Object> branchCtx : branchCtxs) {
+                        sum += (Integer) branchCtx.get("value");
+                    }
+                    ctxBeforeFork.put("value", sum);
+                    return ctxBeforeFork;
+                })
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p",
+                        sut.compile("p", forkOf("a", "b").build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        fnBindings.put("a", ctx -> {
+            ctx.put("value", (Integer) ctx.get("value") + 1);
+            return ctx;
+        });
+        fnBindings.put("b", ctx -> {
+            ctx.put("value", (Integer) ctx.get("value") + 10);
+            return ctx;
+        });
+        fnBindings.put("after", ctx -> ctx);
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("value", 1);
+
+        // When
+        final Map<String, Object> actualCtx =
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        initCtx, fnBindings, Collections.emptyMap(), "p");
+
+        // Then
+        assertEquals(13, actualCtx.get("value"));
+    }
+
+    @Test
+    public void givenBranchChangingExistingKey_whenRun_thenKeepItsChange() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p",
+                        sut.compile("p", forkOf("a", "b").build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        fnBindings.put("a", ctx -> {
+            ctx.put("status", "approved");
+            ctx.remove("draft");
+            return ctx;
+        });
+        fnBindings.put("b", ctx -> {
+            ctx.put("other", true);
+            return ctx;
+        });
+        fnBindings.put("after", ctx -> ctx);
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("status", "new");
+        initCtx.put("draft", true);
+
+        // When
+        final Map<String, Object> actualCtx =
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        initCtx, fnBindings, Collections.emptyMap(), "p");
+
+        // Then
+        assertEquals("approved", actualCtx.get("status"));
+        assertEquals(true, actualCtx.get("other"));
+        assertFalse(actualCtx.containsKey("draft"));
+    }
+
+    @Test
+    public void givenNestedParallelGateways_whenRun_thenJoinEachOnItsOwnClose() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final TestGraph graph = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("fork", "{:type :gateway-parallel-open}")
+                .node("a", "{:type :activity :fn \"a\"}")
+                .node("innerFork", "{:type :gateway-parallel-open}")
+                .node("b", "{:type :activity :fn \"b\"}")
+                .node("c", "{:type :activity :fn \"c\"}")
+                .node("innerJoin", "{:type :gateway-parallel-close}")
+                .node("join", "{:type :gateway-parallel-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "fork")
+                .edge("fork", "a")
+                .edge("fork", "innerFork")
+                .edge("innerFork", "b")
+                .edge("innerFork", "c")
+                .edge("b", "innerJoin")
+                .edge("c", "innerJoin")
+                .edge("a", "join")
+                .edge("innerJoin", "join")
+                .edge("join", "end");
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", graph.build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String branch : List.of("a", "b", "c")) {
+            fnBindings.put(branch, ctx -> {
+                ctx.put(branch, true);
+                return ctx;
+            });
+        }
+
+        // When
+        final Map<String, Object> actualCtx =
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        new HashMap<>(), fnBindings, Collections.emptyMap(),
+                        "p");
+
+        // Then
+        assertEquals(true, actualCtx.get("a"));
+        assertEquals(true, actualCtx.get("b"));
+        assertEquals(true, actualCtx.get("c"));
+    }
+
+    private static TestGraph forkOf(final String... branches) {
+        final TestGraph result = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("fork", "{:type :gateway-parallel-open}")
+                .node("join", "{:type :gateway-parallel-close}")
+                .node("after", "{:type :activity :fn \"after\"}")
+                .node("end", "{:type :end}")
+                .edge("start", "fork")
+                .edge("join", "after")
+                .edge("after", "end");
+        for (final String branch : branches) {
+            result.node(branch, String.format("{:type :activity :fn \"%s\"}",
+                    branch));
+            result.edge("fork", branch);
+            result.edge(branch, "join");
+        }
+        return result;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(SLEEP_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.PersistentContext;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.ContextMode;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentContextTest {
+    @Test
+    public void givenFork_whenBothUpdated_thenNeitherSeesTheOther() {
+        // Given
+        final PersistentContext sut = PersistentContext.of(
+                Collections.singletonMap("shared", 1));
+        final PersistentContext fork = sut.fork();
+
+        // When
+        sut.put("a", 2);
+        fork.put("b", 3);
+        fork.remove("shared");
+
+        // Then
+        assertEquals(Map.of("shared", 1, "a", 2), sut);
+        assertEquals(Map.of("b", 3), fork);
+    }
+
+    @Test
+    public void givenSnapshot_whenContextUpdated_thenSnapshotUnchanged() {
+        // Given
+        final PersistentContext sut = new PersistentContext();
+        sut.put("a", 1);
+        final Map<String, Object> snapshot = sut.snapshot();
+
+        // When
+        sut.put("a", 2);
+
+        // Then
+        assertEquals(1L, ((Number) snapshot.get("a")).longValue());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.put("a", 3));
+    }
+
+    @Test
+    public void givenEntries_whenRemovedThroughIterator_thenRemovedFromContext() {
+        // Given
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("a", 1);
+        expected.put("b", null);
+        final PersistentContext sut = PersistentContext.of(expected);
+
+        // When
+        final Iterator<Map.Entry<String, Object>> entries =
+                sut.entrySet().iterator();
+        while (entries.hasNext()) {
+            if ("a".equals(entries.next().getKey())) {
+                entries.remove();
+            }
+        }
+
+        // Then
+        assertEquals(1, sut.size());
+        assertTrue(sut.containsKey("b"));
+        assertNull(sut.get("b"));
+        assertFalse(sut.containsKey("a"));
+    }
+
+    @Test
+    public void givenPersistentMode_whenSubprocessAndBranchesRun_thenCallerGetsMergedContext() {
+        // Given
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .contextMode(ContextMode.PERSISTENT)
+                .branchExecutor(Runnable::run)
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", sut.compile("main",
+                new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("call", "{:type :call-subprocess " +
+                                ":process \"sub\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "call")
+                        .edge("call", "end")
+                        .build()));
+        definitionsByProcessIds.put("sub", sut.compile("sub", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("fork", "{:type :gateway-parallel-open}")
+                .node("a", "{:type :activity :fn \"a\"}")
+                .node("b", "{:type :activity :fn \"b\"}")
+                .node("join", "{:type :gateway-parallel-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "fork")
+                .edge("fork", "a")
+                .edge("fork", "b")
+                .edge("a", "join")
+                .edge("b", "join")
+                .edge("join", "end")
+                .build()));
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        fnBindings.put("a", ctx -> {
+            ctx.put("a", true);
+            return ctx;
+        });
+        fnBindings.put("b", ctx -> {
+            ctx.put("b", !ctx.containsKey("a"));
+            return ctx;
+        });
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("before", true);
+
+        // When
+        final Map<String, Object> actual = sut.runDefinitionWithSubprocesses(
+                definitionsByProcessIds, initCtx, fnBindings,
+                Collections.emptyMap(), "main");
+
+        // Then
+        assertInstanceOf(PersistentContext.class, actual);
+        assertEquals(Map.of("before", true, "a", true, "b", true), actual);
+        assertEquals(Map.of("before", true), initCtx);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ContextSchema;
+import com.pravles.processengine.api.ContextType;
+import com.pravles.processengine.api.ProcessContext;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ProcessDefinitionImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessContextTest {
+    private static final ContextSchema SCHEMA = ContextSchema.builder()
+            .key("approved", ContextType.BOOLEAN)
+            .key("amount", ContextType.LONG)
+            .key("rate", ContextType.DOUBLE)
+            .key("customer", ContextType.OBJECT)
+            .build();
+
+    @Test
+    public void givenDeclaredAndUndeclaredKeys_whenUsedAsMap_thenBehaveLikeHashMap() {
+        // Given
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("approved", true);
+        expected.put("amount", 42L);
+        expected.put("rate", 0.5);
+        expected.put("customer", null);
+        expected.put("note", "rush");
+
+        // When
+        final ProcessContext sut = ProcessContext.of(SCHEMA, expected);
+
+        // Then
+        assertEquals(expected, sut);
+        assertEquals(sut, expected);
+        assertEquals(expected.hashCode(), sut.hashCode());
+        assertEquals(5, sut.size());
+        assertTrue(sut.containsKey("customer"));
+        assertFalse(sut.containsKey("missing"));
+        assertEquals(42L, sut.remove("amount"));
+        assertFalse(sut.containsKey("amount"));
+        assertNull(sut.get("amount"));
+        assertEquals(4, sut.size());
+    }
+
+    @Test
+    public void givenTypedSetters_whenReadThroughMap_thenBoxedValues() {
+        // Given
+        final ProcessContext sut = new ProcessContext(SCHEMA);
+
+        // When
+        sut.setBoolean(SCHEMA.slotOf("approved"), true);
+        sut.setLong(SCHEMA.slotOf("amount"), 7);
+        sut.setDouble(SCHEMA.slotOf("rate"), 1.25);
+
+        // Then
+        assertEquals(true, sut.get("approved"));
+        assertEquals(7L, sut.get("amount"));
+        assertEquals(1.25, sut.get("rate"));
+        assertFalse(sut.isSet(SCHEMA.slotOf("customer")));
+        assertEquals(3, sut.entrySet().size());
+    }
+
+    @Test
+    public void givenIntegerForLongKey_whenPut_thenWidened() {
+        // Given
+        final ProcessContext sut = new ProcessContext(SCHEMA);
+
+        // When
+        sut.put("amount", 3);
+
+        // Then
+        assertEquals(3L, sut.getLong(SCHEMA.slotOf("amount")));
+    }
+
+    @Test
+    public void givenStringForBooleanKey_whenPut_thenThrow() {
+        // Given
+        final ProcessContext sut = new ProcessContext(SCHEMA);
+
+        // When, Then
+        assertThrows(IllegalArgumentException.class,
+                () -> sut.put("approved", "yes"));
+    }
+
+    @Test
+    public void givenSchemaOnStartNode_whenRun_thenGatewayReadsSlot() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final ProcessDefinition definition = sut.compile("p", new TestGraph()
+                .node("start", "{:type :start " +
+                        ":context {:approved :boolean :amount :long}}")
+                .node("gw", "{:type :gateway-open}")
+                .node("yes", "{:type :activity :fn \"increment\"}")
+                .node("no", "{:type :activity :fn \"reject\"}")
+                .node("close", "{:type :gateway-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "gw")
+                .edge("gw", "yes", "approved")
+                .edge("gw", "no", "false")
+                .edge("yes", "close")
+                .edge("no", "close")
+                .edge("close", "end")
+                .build());
+        final ContextSchema schema =
+                ((ProcessDefinitionImpl) definition).getContextSchema();
+        final int amount = schema.slotOf("amount");
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        fnBindings.put("increment", ctx -> {
+            final ProcessContext typedCtx = (ProcessContext) ctx;
+            typedCtx.setLong(amount, typedCtx.getLong(amount) + 1);
+            return ctx;
+        });
+        fnBindings.put("reject", ctx -> {
+            ctx.put("rejected", true);
+            return ctx;
+        });
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("approved", true);
+        initCtx.put("amount", 41L);
+
+        // When
+        final Map<String, Object> actual = sut.runDefinitionWithSubprocesses(
+                Collections.singletonMap("p", definition), initCtx,
+                fnBindings, Collections.emptyMap(), "p");
+
+        // Then
+        assertInstanceOf(ProcessContext.class, actual);
+        assertEquals(42L, actual.get("amount"));
+        assertFalse(actual.containsKey("rejected"));
+    }
+}
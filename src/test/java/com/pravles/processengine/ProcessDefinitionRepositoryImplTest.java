@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ProcessDefinitionRepositoryImpl;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProcessDefinitionRepositoryImplTest {
+    @Test
+    public void givenSameDiagramLoadedTwice_whenLoad_thenCompileOnce()
+            throws IOException {
+        // Given
+        final EngineImpl engine = new EngineImpl();
+        final ProcessDefinitionRepositoryImpl sut =
+                new ProcessDefinitionRepositoryImpl(engine, 10);
+
+        // When
+        final ProcessDefinition first = load(sut, "p", "process.1.fodg");
+        final ProcessDefinition second = load(sut, "p", "process.1.fodg");
+
+        // Then
+        assertSame(first, second);
+        assertSame(first, sut.get("p"));
+        assertEquals(1, sut.getHits());
+        assertEquals(1, sut.getMisses());
+        assertEquals(0, sut.getEvictions());
+    }
+
+    @Test
+    public void givenMaxSizeReached_whenLoad_thenEvictSupersededVersion()
+            throws IOException {
+        // Given
+        final EngineImpl engine = new EngineImpl();
+        final ProcessDefinitionRepositoryImpl sut =
+                new ProcessDefinitionRepositoryImpl(engine, 2);
+        load(sut, "p1", "process.1.fodg");
+        final ProcessDefinition current = load(sut, "p1", "process.2.fodg");
+
+        // When
+        load(sut, "p2", "process.3.fodg");
+        load(sut, "p1", "process.2.fodg");
+
+        // Then
+        assertEquals(1, sut.getEvictions());
+        assertEquals(1, sut.getHits());
+        assertSame(current, sut.get("p1"));
+        assertEquals("p2", sut.get("p2").getProcessId());
+    }
+
+    @Test
+    public void givenOnlyCurrentDefinitions_whenMaxSizeExceeded_thenKeepThem()
+            throws IOException {
+        // Given
+        final EngineImpl engine = new EngineImpl();
+        final ProcessDefinitionRepositoryImpl sut =
+                new ProcessDefinitionRepositoryImpl(engine, 1);
+        final ProcessDefinition p1 = load(sut, "p1", "process.1.fodg");
+
+        // When
+        load(sut, "p2", "process.2.fodg");
+
+        // Then
+        assertEquals(0, sut.getEvictions());
+        assertSame(p1, sut.get("p1"));
+        assertEquals("p2", sut.get("p2").getProcessId());
+    }
+
+    @Test
+    public void givenRepository_whenRun_thenExecuteRightActivities()
+            throws IOException {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final ProcessDefinitionRepositoryImpl repository =
+                new ProcessDefinitionRepositoryImpl(sut, 10);
+        load(repository, StringUtils.EMPTY, "process.3.fodg");
+        load(repository, "sub-process", "process.1.fodg");
+
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+        initCtx.put("parent.my-condition", Boolean.TRUE);
+        initCtx.put("my-condition", Boolean.FALSE);
+
+        final Map<String, ActivityFunction> fnBindings = asList(
+                "parent.act1-fn",
+                "parent.act2-fn",
+                "act1-fn",
+                "act4-fn",
+                "parent.act4-fn")
+                .stream()
+                .collect(Collectors.toMap(
+                        name -> name,
+                        TestActivity::new));
+
+        // When
+        final Map<String, Object> actualCtx = sut.runWithSubprocesses(
+                repository, initCtx, fnBindings, new HashMap<>(),
+                StringUtils.EMPTY);
+
+        // Then
+        final List<String> executedActivities = (List<String>) actualCtx.get(
+                "executedActivities");
+        assertEquals(asList(
+                "parent.act1-fn",
+                "parent.act2-fn",
+                "act1-fn",
+                "act4-fn",
+                "parent.act4-fn"),
+                executedActivities);
+    }
+
+    private static ProcessDefinition load(
+            final ProcessDefinitionRepositoryImpl repository,
+            final String processId,
+            final String fileName) throws IOException {
+        try (final InputStream is = new FileInputStream("src/test/resources/"
+                + fileName)) {
+            return repository.load(processId, is);
+        }
+    }
+}
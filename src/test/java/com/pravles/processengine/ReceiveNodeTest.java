@@ -0,0 +1,239 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.CompiledNode;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ProcessDefinitionImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReceiveNodeTest {
+    private static final int INSTANCES = 100_000;
+
+    @Test
+    public void givenManyWaitingInstances_whenCorrelate_thenDeliverToTheMatchingOne()
+            throws Exception {
+        // Given
+        final ExecutorService asyncExecutor = Executors.newFixedThreadPool(2);
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .asyncExecutor(asyncExecutor)
+                .expectedWaitingInstances(INSTANCES)
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                definitions(sut);
+        final List<CompletableFuture<Map<String, Object>>> results =
+                new ArrayList<>(INSTANCES);
+        for (int i = 0; i < INSTANCES; i++) {
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("orderId", "order-" + i);
+            results.add(sut.runAsync(definitionsByProcessIds, initCtx,
+                    fnBindings(), Collections.emptyMap(),
+                    Collections.emptyMap(), "p"));
+        }
+
+        // When
+        final long start = System.nanoTime();
+        for (int i = INSTANCES - 1; i >= 0; i--) {
+            assertTrue(sut.correlate("payment", "order-" + i,
+                    Collections.singletonMap("amount", i)));
+        }
+        final long nanosPerDelivery = (System.nanoTime() - start) / INSTANCES;
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .get(30, TimeUnit.SECONDS);
+
+        // Then
+        for (int i = 0; i < INSTANCES; i++) {
+            final Map<String, Object> actualCtx = results.get(i).get();
+            assertEquals(i, actualCtx.get("amount"));
+            assertEquals(true, actualCtx.get("shipped"));
+        }
+        assertFalse(sut.correlate("payment", "order-0",
+                Collections.emptyMap()));
+        assertTrue(nanosPerDelivery < 50_000,
+                nanosPerDelivery + " ns per delivery");
+        asyncExecutor.shutdown();
+    }
+
+    @Test
+    public void givenBlockingRun_whenCorrelate_thenContinueOnCallingThread()
+            throws Exception {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                definitions(sut);
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("orderId", 42L);
+        final CompletableFuture<Map<String, Object>> running =
+                CompletableFuture.supplyAsync(() ->
+                        sut.runDefinitionWithSubprocesses(
+                                definitionsByProcessIds, initCtx, fnBindings(),
+                                Collections.emptyMap(), "p"));
+
+        // When
+        while (!sut.correlate("payment", 42L,
+                Collections.singletonMap("amount", 10))) {
+            Thread.sleep(1);
+        }
+
+        // Then
+        assertEquals(true, running.get(5, TimeUnit.SECONDS).get("shipped"));
+    }
+
+    @Test
+    public void givenTwoInstancesWithSameKey_whenRunAsync_thenFailTheSecond() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                definitions(sut);
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("orderId", "order-1");
+
+        // When
+        sut.runAsync(definitionsByProcessIds, new HashMap<>(initCtx),
+                fnBindings(), Collections.emptyMap(), Collections.emptyMap(),
+                "p");
+        final CompletableFuture<Map<String, Object>> actualSecond =
+                sut.runAsync(definitionsByProcessIds, new HashMap<>(initCtx),
+                        fnBindings(), Collections.emptyMap(),
+                        Collections.emptyMap(), "p");
+
+        // Then
+        final ExecutionException actualException = assertThrows(
+                ExecutionException.class, actualSecond::get);
+        assertInstanceOf(IllegalStateException.class,
+                actualException.getCause());
+    }
+
+    @Test
+    public void givenNoMessage_whenBlockingRunTimesOut_thenFailAndStopWaiting() {
+        // Given
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .receiveTimeoutMillis(50)
+                .build());
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                definitions(sut);
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("orderId", 42L);
+
+        // When
+        assertThrows(IllegalStateException.class, () ->
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        initCtx, fnBindings(), Collections.emptyMap(), "p"));
+
+        // Then
+        assertFalse(sut.correlate("payment", 42L, Collections.emptyMap()));
+    }
+
+    @Test
+    public void givenWaitingInstance_whenCancelRunAsync_thenStopWaiting() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("orderId", "order-1");
+        final CompletableFuture<Map<String, Object>> running = sut.runAsync(
+                definitions(sut), initCtx, fnBindings(),
+                Collections.emptyMap(), Collections.emptyMap(), "p");
+
+        // When
+        running.cancel(false);
+
+        // Then
+        assertFalse(sut.correlate("payment", "order-1",
+                Collections.emptyMap()));
+    }
+
+    @Test
+    public void givenNoCorrelationKey_whenRunAsync_thenFail() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+
+        // When
+        final CompletableFuture<Map<String, Object>> actual = sut.runAsync(
+                definitions(sut), new HashMap<>(), fnBindings(),
+                Collections.emptyMap(), Collections.emptyMap(), "p");
+
+        // Then
+        final ExecutionException actualException = assertThrows(
+                ExecutionException.class, actual::get);
+        assertInstanceOf(IllegalArgumentException.class,
+                actualException.getCause());
+    }
+
+    @Test
+    public void givenReceiveNode_whenCompile_thenResolveMessageAndKey() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final TestGraph graph = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("receive", "{:type :receive :message \"payment\" " +
+                        ":correlation-key :orderId}")
+                .node("incomplete", "{:type :receive :message \"payment\"}")
+                .node("end", "{:type :end}")
+                .edge("start", "receive")
+                .edge("receive", "incomplete")
+                .edge("incomplete", "end");
+
+        // When
+        final ProcessDefinitionImpl actual =
+                (ProcessDefinitionImpl) sut.compile("p", graph.build());
+
+        // Then
+        final CompiledNode receive =
+                actual.getNode(actual.getNodeIndex("receive"));
+        assertEquals("payment", receive.getMessageName());
+        assertEquals("orderId", receive.getCorrelationKey());
+        assertNull(actual.getNode(actual.getNodeIndex("incomplete"))
+                .getMessageName());
+    }
+
+    private static Map<String, ProcessDefinition> definitions(
+            final EngineImpl engine) {
+        return Collections.singletonMap("p", engine.compile("p",
+                new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("receive", "{:type :receive :message " +
+                                "\"payment\" :correlation-key \"orderId\"}")
+                        .node("ship", "{:type :activity :fn \"ship\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "receive")
+                        .edge("receive", "ship")
+                        .edge("ship", "end")
+                        .build()));
+    }
+
+    private static Map<String, ActivityFunction> fnBindings() {
+        return Collections.singletonMap("ship", ctx -> {
+            ctx.put("shipped", true);
+            return ctx;
+        });
+    }
+}
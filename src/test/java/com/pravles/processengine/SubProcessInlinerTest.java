@@ -0,0 +1,196 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessInstanceHandle;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ProcessDefinitionImpl;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubProcessInlinerTest {
+    @Test
+    public void givenNestedSubprocesses_whenInlined_thenRunLikeCalls() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", sut.compile("main",
+                callingProcess("before", "sub", "after")));
+        definitionsByProcessIds.put("sub", sut.compile("sub",
+                callingProcess("sub-before", "leaf", "sub-after")));
+        definitionsByProcessIds.put("leaf", sut.compile("leaf",
+                TestGraph.linearProcess(1, "leaf").build()));
+        final Map<String, ActivityFunction> fnBindings = recordingFns(
+                "before", "after", "sub-before", "sub-after", "leaf");
+
+        // When
+        final Map<String, ProcessDefinition> inlined =
+                sut.inlineSubProcesses(definitionsByProcessIds);
+        final List<String> called = run(sut, definitionsByProcessIds,
+                fnBindings);
+        final List<String> actual = run(sut, inlined, fnBindings);
+
+        // Then
+        assertEquals(asList("before", "sub-before", "leaf", "sub-after",
+                "after"), actual);
+        assertEquals(called, actual);
+        final ProcessDefinitionImpl main =
+                (ProcessDefinitionImpl) inlined.get("main");
+        assertEquals(5 + 5 + 3, main.getNodes().size());
+        assertTrue(main.getNodeIndex("call/call/act0") >= 0);
+    }
+
+    @Test
+    public void givenCyclicCalls_whenInlined_thenThrow() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("a", sut.compile("a",
+                callingProcess("a1", "b", "a2")));
+        definitionsByProcessIds.put("b", sut.compile("b",
+                callingProcess("b1", "a", "b2")));
+
+        // When
+        final IllegalArgumentException actual = assertThrows(
+                IllegalArgumentException.class,
+                () -> sut.inlineSubProcesses(definitionsByProcessIds));
+
+        // Then
+        assertTrue(actual.getMessage().contains("a -> b -> a")
+                || actual.getMessage().contains("b -> a -> b"));
+    }
+
+    @Test
+    public void givenSubProcessExecutor_whenRunGraph_thenRunCallsOnIt() {
+        // Given
+        final AtomicInteger executed = new AtomicInteger();
+        final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                .subProcessExecutor(task -> {
+                    executed.incrementAndGet();
+                    task.run();
+                })
+                .build());
+        final Map<String, DefaultDirectedGraph> graphsByProcessIds =
+                new HashMap<>();
+        graphsByProcessIds.put("main", callingProcess("before", "sub",
+                "after"));
+        graphsByProcessIds.put("sub", TestGraph.linearProcess(1, "sub")
+                .build());
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+
+        // When
+        final Map<String, Object> actual = sut.runGraphWithSubprocesses(
+                graphsByProcessIds, initCtx,
+                recordingFns("before", "sub", "after"),
+                Collections.emptyMap(), "main");
+
+        // Then
+        assertEquals(asList("before", "sub", "after"),
+                actual.get("executedActivities"));
+        assertEquals(1, executed.get());
+    }
+
+    @Test
+    public void givenWaitInInlinedSubprocess_whenResume_thenContinueInCaller() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", sut.compile("main",
+                callingProcess("before", "sub", "after")));
+        definitionsByProcessIds.put("sub", sut.compile("sub", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("wait", "{:type :wait}")
+                .node("end", "{:type :end}")
+                .edge("start", "wait")
+                .edge("wait", "end")
+                .build()));
+        final Map<String, ProcessDefinition> inlined =
+                sut.inlineSubProcesses(definitionsByProcessIds);
+        final Map<String, ActivityFunction> fnBindings =
+                recordingFns("before", "after");
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+
+        // When
+        final ProcessInstanceHandle waiting = sut.start(inlined, initCtx,
+                fnBindings, Collections.emptyMap(), "main");
+        final ProcessInstanceHandle ended = sut.resume(inlined,
+                ProcessInstanceHandle.fromSnapshot(waiting.getSnapshot()),
+                null, fnBindings, Collections.emptyMap());
+
+        // Then
+        assertTrue(waiting.isWaiting());
+        assertEquals(asList("before", "after"),
+                ended.getCtx().get("executedActivities"));
+    }
+
+    private static DefaultDirectedGraph callingProcess(
+            final String before,
+            final String subProcessId,
+            final String after) {
+        return new TestGraph()
+                .node("start", "{:type :start}")
+                .node("before", String.format("{:type :activity :fn \"%s\"}",
+                        before))
+                .node("call", String.format("{:type :call-subprocess " +
+                        ":process \"%s\"}", subProcessId))
+                .node("after", String.format("{:type :activity :fn \"%s\"}",
+                        after))
+                .node("end", "{:type :end}")
+                .edge("start", "before")
+                .edge("before", "call")
+                .edge("call", "after")
+                .edge("after", "end")
+                .build();
+    }
+
+    private static List<String> run(
+            final EngineImpl engine,
+            final Map<String, ProcessDefinition> definitionsByProcessIds,
+            final Map<String, ActivityFunction> fnBindings) {
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+        return (List<String>) engine.runDefinitionWithSubprocesses(
+                definitionsByProcessIds, initCtx, fnBindings,
+                Collections.emptyMap(), "main").get("executedActivities");
+    }
+
+    private static Map<String, ActivityFunction> recordingFns(
+            final String... fns) {
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String fn : fns) {
+            fnBindings.put(fn, ctx -> {
+                ((List<String>) ctx.get("executedActivities")).add(fn);
+                return ctx;
+            });
+        }
+        return fnBindings;
+    }
+}
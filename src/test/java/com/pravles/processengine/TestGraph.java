@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.libreofficedraw.model.Edge;
+import com.pravles.libreofficedraw.model.Vertex;
+import org.jgrapht.graph.DefaultDirectedGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds process graphs in tests without drawing a diagram.
+ */
+public class TestGraph {
+    private final DefaultDirectedGraph<Vertex, Edge> graph =
+            new DefaultDirectedGraph<>(Edge.class);
+    private final Map<String, Vertex> verticesByIds = new HashMap<>();
+
+    public TestGraph node(final String id, final String description) {
+        final Vertex vertex = Vertex.builder()
+                .id(id)
+                .name(id)
+                .description(description)
+                .build();
+        verticesByIds.put(id, vertex);
+        graph.addVertex(vertex);
+        return this;
+    }
+
+    public TestGraph edge(final String source, final String target) {
+        return edge(source, target, "");
+    }
+
+    public TestGraph edge(final String source,
+                          final String target,
+                          final String label) {
+        graph.addEdge(verticesByIds.get(source), verticesByIds.get(target),
+                Edge.builder()
+                        .source(source)
+                        .target(target)
+                        .label(label)
+                        .build());
+        return this;
+    }
+
+    public DefaultDirectedGraph build() {
+        return graph;
+    }
+
+    public static TestGraph linearProcess(final int activities,
+                                          final String fnName) {
+        final TestGraph result = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("end", "{:type :end}");
+        String previous = "start";
+        for (int i = 0; i < activities; i++) {
+            final String id = "act" + i;
+            result.node(id, String.format("{:type :activity :fn \"%s\"}",
+                    fnName));
+            result.edge(previous, id);
+            previous = id;
+        }
+        return result.edge(previous, "end");
+    }
+}
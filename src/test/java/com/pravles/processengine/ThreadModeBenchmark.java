@@ -0,0 +1,112 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.ParallelEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instances per second for a process whose two activities block for
+ * {@code blockMillis} each, like a JDBC or HTTP call. Platform threads are
+ * a fixed pool of {@link #PLATFORM_THREADS}; virtual threads are capped at
+ * {@link #INSTANCES_PER_OP} concurrent instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ThreadModeBenchmark {
+    private static final int PLATFORM_THREADS = 200;
+    private static final int INSTANCES_PER_OP = 2_000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"5"})
+    private long blockMillis;
+
+    private ExecutorService platformThreads;
+    private ParallelEngine parallelEngine;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private Map<String, ActivityFunction> fnBindings;
+
+    @Setup
+    public void setUp() {
+        final EngineImpl engine = new EngineImpl();
+        definitionsByProcessIds = Collections.singletonMap("p",
+                engine.compile("p",
+                        TestGraph.linearProcess(2, "io").build()));
+        fnBindings = Collections.singletonMap("io", ctx -> {
+            try {
+                Thread.sleep(blockMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ctx;
+        });
+        if ("virtual".equals(threads)) {
+            parallelEngine = ParallelEngine.withVirtualThreads(engine,
+                    INSTANCES_PER_OP);
+        } else {
+            platformThreads = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            parallelEngine = new ParallelEngine(engine, platformThreads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelEngine.close();
+        if (platformThreads != null) {
+            platformThreads.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES_PER_OP)
+    public Object runInstances() {
+        final List<CompletableFuture<Map<String, Object>>> results =
+                new ArrayList<>(INSTANCES_PER_OP);
+        for (int i = 0; i < INSTANCES_PER_OP; i++) {
+            results.add(parallelEngine.submit(definitionsByProcessIds,
+                    new HashMap<>(), fnBindings, Collections.emptyMap(),
+                    "p"));
+        }
+        return CompletableFuture.allOf(results.toArray(
+                new CompletableFuture[0])).join();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.ClojureGraphBuilder;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.JavaGraphBuilder;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Prints the time from JVM start until the first process instance has
+ * finished. Pass {@code clojure} as the first argument to build the graph
+ * with the Clojure script. Compare runs with and without an AppCDS archive,
+ * e.g. {@code -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=ppe.jsa}.
+ */
+public class TimeToFirstInstance {
+    public static void main(final String[] args) throws Exception {
+        final EngineImpl engine = ((args.length > 0)
+                && "clojure".equals(args[0]))
+                ? new EngineImpl(new ClojureGraphBuilder())
+                : new EngineImpl(new JavaGraphBuilder());
+
+        final ProcessDefinition definition;
+        try (final InputStream is = new FileInputStream("src/test/resources" +
+                "/process.1.fodg")) {
+            definition = engine.compile(StringUtils.EMPTY, is);
+        }
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put(StringUtils.EMPTY, definition);
+
+        final Map<String, ActivityFunction> fnBindings = asList(
+                "act1-fn",
+                "act2-fn",
+                "act3-fn",
+                "act4-fn")
+                .stream()
+                .collect(Collectors.toMap(
+                        name -> name,
+                        TestActivity::new));
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+        initCtx.put("my-condition", Boolean.TRUE);
+
+        engine.runDefinitionWithSubprocesses(definitionsByProcessIds, initCtx,
+                fnBindings, new HashMap<>(), StringUtils.EMPTY);
+
+        System.out.printf("Time to first instance: %d ms%n",
+                ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
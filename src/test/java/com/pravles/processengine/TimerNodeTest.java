@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerNodeTest {
+    private static final int INSTANCES = 20_000;
+
+    @Test
+    public void givenManyInstancesOnTimers_whenRunAsync_thenFireAllWithoutHoldingThreads()
+            throws Exception {
+        // Given
+        final ExecutorService asyncExecutor = Executors.newFixedThreadPool(2);
+        try {
+            final EngineImpl sut = new EngineImpl(EngineConfiguration.builder()
+                    .asyncExecutor(asyncExecutor)
+                    .build());
+            final Map<String, ProcessDefinition> definitionsByProcessIds =
+                    Collections.singletonMap("p",
+                            sut.compile("p", timerProcess(
+                                    "{:type :timer :millis 200}")));
+
+            // When
+            final long start = System.nanoTime();
+            final List<CompletableFuture<Map<String, Object>>> results =
+                    new ArrayList<>(INSTANCES);
+            for (int i = 0; i < INSTANCES; i++) {
+                results.add(sut.runAsync(definitionsByProcessIds,
+                        new HashMap<>(), escalate(), Collections.emptyMap(),
+                        Collections.emptyMap(), "p"));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                    .get(30, TimeUnit.SECONDS);
+            final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            for (final CompletableFuture<Map<String, Object>> result : results) {
+                assertEquals(true, result.get().get("escalated"));
+            }
+            assertTrue(elapsedMillis >= 200);
+            assertTrue(elapsedMillis < 3_000, "Took " + elapsedMillis + " ms");
+        } finally {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void givenIsoDuration_whenRun_thenWaitOnCallingThread() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p",
+                        timerProcess("{:type :timer :duration \"PT0.1S\"}")));
+
+        // When
+        final long start = System.nanoTime();
+        final Map<String, Object> actualCtx =
+                sut.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        new HashMap<>(), escalate(), Collections.emptyMap(),
+                        "p");
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(true, actualCtx.get("escalated"));
+        assertTrue(elapsedMillis >= 100, "Took " + elapsedMillis + " ms");
+    }
+
+    private static DefaultDirectedGraph timerProcess(
+            final String timerDescription) {
+        return new TestGraph()
+                .node("start", "{:type :start}")
+                .node("timer", timerDescription)
+                .node("escalate", "{:type :activity :fn \"escalate\"}")
+                .node("end", "{:type :end}")
+                .edge("start", "timer")
+                .edge("timer", "escalate")
+                .edge("escalate", "end")
+                .build();
+    }
+
+    private static Map<String, ActivityFunction> escalate() {
+        return Collections.singletonMap("escalate", ctx -> {
+            ctx.put("escalated", true);
+            return ctx;
+        });
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.impl.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final int TIMEOUTS = 200_000;
+
+    @Test
+    public void givenManyTimeouts_whenHalfAreCancelled_thenFireTheOthersOnTime()
+            throws Exception {
+        // Given
+        final Random random = new Random(42);
+        final AtomicInteger early = new AtomicInteger();
+        final AtomicInteger firedCancelled = new AtomicInteger();
+        final CountDownLatch remaining = new CountDownLatch(TIMEOUTS / 2);
+        final List<TimingWheel.Timeout> toCancel = new ArrayList<>();
+
+        try (final TimingWheel sut = new TimingWheel(1, 8, Runnable::run)) {
+            // When
+            for (int i = 0; i < TIMEOUTS; i++) {
+                // Delays up to 600 ms span three levels of an 8-slot wheel
+                final long delayMillis = random.nextInt(600);
+                final long deadline = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                final boolean cancel = (i % 2) == 1;
+                final TimingWheel.Timeout timeout = sut.schedule(delayMillis,
+                        () -> {
+                            if (cancel) {
+                                firedCancelled.incrementAndGet();
+                                return;
+                            }
+                            if (System.nanoTime() < deadline) {
+                                early.incrementAndGet();
+                            }
+                            remaining.countDown();
+                        });
+                if (cancel) {
+                    toCancel.add(timeout);
+                }
+            }
+            int actuallyCancelled = 0;
+            for (final TimingWheel.Timeout timeout : toCancel) {
+                if (timeout.cancel()) {
+                    actuallyCancelled++;
+                }
+            }
+
+            // Then
+            assertTrue(remaining.await(10, TimeUnit.SECONDS));
+            final CountDownLatch allDue = new CountDownLatch(1);
+            sut.schedule(50, allDue::countDown);
+            assertTrue(allDue.await(5, TimeUnit.SECONDS));
+            assertEquals(0, early.get());
+            assertEquals(TIMEOUTS / 2 - actuallyCancelled, firedCancelled.get());
+        }
+    }
+
+    @Test
+    public void givenFiredTimeout_whenCancel_thenReturnFalse() throws Exception {
+        // Given
+        final CountDownLatch fired = new CountDownLatch(1);
+        try (final TimingWheel sut = new TimingWheel(1, 8, Runnable::run)) {
+            final TimingWheel.Timeout timeout = sut.schedule(5,
+                    fired::countDown);
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+
+            // When / Then
+            assertFalse(timeout.cancel());
+        }
+    }
+
+    @Test
+    public void givenDelayBeyondSpan_whenScheduled_thenFireItAndOthersOnTime()
+            throws Exception {
+        // Given
+        final CountDownLatch shortFired = new CountDownLatch(1);
+        final CountDownLatch longFired = new CountDownLatch(2);
+        final AtomicInteger early = new AtomicInteger();
+        // Four levels of a 4-slot wheel with 1 ms ticks span 256 ms
+        try (final TimingWheel sut = new TimingWheel(1, 4, Runnable::run)) {
+            final long longDeadline = System.nanoTime()
+                    + TimeUnit.MILLISECONDS.toNanos(1000);
+            for (int i = 0; i < 2; i++) {
+                sut.schedule(1000, () -> {
+                    if (System.nanoTime() < longDeadline) {
+                        early.incrementAndGet();
+                    }
+                    longFired.countDown();
+                });
+            }
+            Thread.sleep(300);
+
+            // When
+            sut.schedule(20, shortFired::countDown);
+
+            // Then
+            assertTrue(shortFired.await(3, TimeUnit.SECONDS));
+            assertTrue(longFired.await(3, TimeUnit.SECONDS));
+            assertEquals(0, early.get());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessInstanceHandle;
+import com.pravles.processengine.impl.EngineConfiguration;
+import com.pravles.processengine.impl.EngineImpl;
+import com.pravles.processengine.impl.InstanceTrace;
+import com.pravles.processengine.impl.MetricsListener;
+import com.pravles.processengine.impl.TraceEvent;
+import com.pravles.processengine.impl.TraceRecorder;
+import com.pravles.processengine.impl.TraceReplayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRecorderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenRecordedInstances_whenRead_thenReturnPathsAndDurations() {
+        // Given
+        final Path file = directory.resolve("instances.trace");
+
+        // When
+        record(file, asList("EU", "US"));
+        final List<InstanceTrace> actual = TraceRecorder.read(file);
+
+        // Then
+        assertEquals(2, actual.size());
+        final InstanceTrace eu = actual.get(0);
+        assertEquals("p", eu.getProcessId());
+        assertFalse(eu.isFailed());
+        assertEquals(asList("p:start", "p:switch", "p:eu", "sub:start",
+                        "sub:act0", "sub:end", "p:close", "p:end"),
+                nodes(eu));
+        assertTrue(eu.getEvents().contains(TraceEvent.builder()
+                .type(TraceEvent.Type.DECISION)
+                .processId("p")
+                .vertexId("switch")
+                .target("eu")
+                .build()));
+        assertTrue(eu.getEvents().contains(TraceEvent.builder()
+                .type(TraceEvent.Type.CALL)
+                .processId("p")
+                .vertexId("eu")
+                .target("sub")
+                .build()));
+
+        final TraceEvent sleep = actual.get(1).getEvents().stream()
+                .filter(event -> "sleep".equals(event.getFn()))
+                .findFirst()
+                .get();
+        assertEquals("us", sleep.getVertexId());
+        assertTrue(sleep.getDurationNanos() >= 1_000_000);
+    }
+
+    @Test
+    public void givenManyInstances_whenRecord_thenWriteEveryIdOnce()
+            throws IOException {
+        // Given
+        final Path file = directory.resolve("many.trace");
+
+        // When
+        record(file, Collections.nCopies(100, "US"));
+
+        // Then
+        final String content = new String(Files.readAllBytes(file),
+                StandardCharsets.ISO_8859_1);
+        assertEquals(content.indexOf("switch"), content.lastIndexOf("switch"));
+        assertEquals(100, TraceRecorder.read(file).size());
+    }
+
+    @Test
+    public void givenInstanceSuspendedAtWait_whenRecord_thenKeepItOutOfOtherTraces() {
+        // Given
+        final Path file = directory.resolve("wait.trace");
+
+        // When
+        try (TraceRecorder recorder = new TraceRecorder(file, 1024)) {
+            final EngineImpl engine = new EngineImpl(EngineConfiguration
+                    .builder()
+                    .listener(recorder)
+                    .build());
+            final Map<String, ProcessDefinition> definitionsByProcessIds =
+                    new HashMap<>(definitions(engine));
+            definitionsByProcessIds.put("w", engine.compile("w",
+                    new TestGraph()
+                            .node("start", "{:type :start}")
+                            .node("wait", "{:type :wait}")
+                            .node("end", "{:type :end}")
+                            .edge("start", "wait")
+                            .edge("wait", "end")
+                            .build()));
+            final Map<String, ActivityFunction> fnBindings =
+                    Collections.singletonMap("sleep", ctx -> ctx);
+            final Map<String, Object> initCtx = new HashMap<>();
+            initCtx.put("region", "EU");
+
+            final ProcessInstanceHandle waiting = engine.start(
+                    definitionsByProcessIds, new HashMap<>(), fnBindings,
+                    Collections.emptyMap(), "w");
+            engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                    new HashMap<>(initCtx), fnBindings,
+                    Collections.emptyMap(), "p");
+            engine.resume(definitionsByProcessIds, waiting, null, fnBindings,
+                    Collections.emptyMap());
+            engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                    new HashMap<>(initCtx), fnBindings,
+                    Collections.emptyMap(), "p");
+        }
+        final List<InstanceTrace> actual = TraceRecorder.read(file);
+
+        // Then
+        assertEquals(2, actual.size());
+        for (final InstanceTrace trace : actual) {
+            assertEquals("p", trace.getProcessId());
+            assertEquals(asList("p:start", "p:switch", "p:eu", "sub:start",
+                    "sub:act0", "sub:end", "p:close", "p:end"), nodes(trace));
+        }
+    }
+
+    @Test
+    public void givenTrace_whenReplay_thenTakeRecordedPath() {
+        // Given
+        final Path file = directory.resolve("replay.trace");
+        record(file, asList("EU", "US"));
+        final MetricsListener metrics = new MetricsListener();
+        final EngineImpl engine = new EngineImpl(EngineConfiguration.builder()
+                .listener(metrics)
+                .build());
+        final TraceReplayer sut = new TraceReplayer(engine);
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                definitions(engine);
+
+        // When
+        for (final InstanceTrace trace : TraceRecorder.read(file)) {
+            final TraceReplayer.Replay replay = sut.prepare(trace,
+                    definitionsByProcessIds, false);
+            replay.run();
+            replay.run();
+        }
+
+        // Then
+        assertEquals(2, metrics.getGatewayDecisions("switch", "eu"));
+        assertEquals(2, metrics.getGatewayDecisions("switch", "us"));
+        assertEquals(2, metrics.getSubProcessCalls("sub"));
+        assertEquals(4, metrics.getInstancesCompleted());
+    }
+
+    @Test
+    public void givenTraceOfOtherProcess_whenPrepare_thenThrowException() {
+        // Given
+        final Path file = directory.resolve("other.trace");
+        record(file, asList("EU"));
+        final EngineImpl engine = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>(definitions(engine));
+        definitionsByProcessIds.put("p", engine.compile("p", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("switch", "{:type :gateway-switch :key \"region\"}")
+                .node("end", "{:type :end}")
+                .edge("start", "switch")
+                .edge("switch", "end", "default")
+                .build()));
+
+        // When
+        final IllegalArgumentException actual = assertThrows(
+                IllegalArgumentException.class, () -> new TraceReplayer(engine)
+                        .prepare(TraceRecorder.read(file).get(0),
+                                definitionsByProcessIds, false));
+
+        // Then
+        assertEquals("Node 'eu' of process 'p' not found", actual.getMessage());
+    }
+
+    private static void record(final Path file, final List<String> regions) {
+        try (TraceRecorder recorder = new TraceRecorder(file, 1024)) {
+            final EngineImpl engine = new EngineImpl(EngineConfiguration
+                    .builder()
+                    .listener(recorder)
+                    .build());
+            final Map<String, ProcessDefinition> definitionsByProcessIds =
+                    definitions(engine);
+            final Map<String, ActivityFunction> fnBindings =
+                    Collections.singletonMap("sleep", ctx -> {
+                        try {
+                            Thread.sleep(1);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return ctx;
+                    });
+            for (final String region : regions) {
+                final Map<String, Object> initCtx = new HashMap<>();
+                initCtx.put("region", region);
+                engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                        initCtx, fnBindings, Collections.emptyMap(), "p");
+            }
+        }
+    }
+
+    private static Map<String, ProcessDefinition> definitions(
+            final EngineImpl engine) {
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("p", engine.compile("p", new TestGraph()
+                .node("start", "{:type :start}")
+                .node("switch", "{:type :gateway-switch :key \"region\"}")
+                .node("eu", "{:type :call-subprocess :process \"sub\"}")
+                .node("us", "{:type :activity :fn \"sleep\"}")
+                .node("close", "{:type :gateway-close}")
+                .node("end", "{:type :end}")
+                .edge("start", "switch")
+                .edge("switch", "eu", "EU")
+                .edge("switch", "us", "US")
+                .edge("eu", "close")
+                .edge("us", "close")
+                .edge("close", "end")
+                .build()));
+        definitionsByProcessIds.put("sub", engine.compile("sub", TestGraph
+                .linearProcess(1, "sleep")
+                .build()));
+        return definitionsByProcessIds;
+    }
+
+    private static List<String> nodes(final InstanceTrace trace) {
+        return trace.getEvents().stream()
+                .filter(event -> event.getType() == TraceEvent.Type.NODE)
+                .map(event -> event.getProcessId() + ":"
+                        + event.getVertexId())
+                .collect(Collectors.toList());
+    }
+}
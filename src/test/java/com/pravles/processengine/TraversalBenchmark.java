@@ -0,0 +1,144 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.impl.EngineImpl;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs processes of three shapes, each with {@link #STAGES} stages:
+ * {@code linear} has two activities per stage, {@code gateways} an
+ * exclusive gateway with {@link #BRANCHES} condition expressions per stage
+ * and {@code subprocesses} a call of a two-activity subprocess per stage.
+ * {@link #runGraph()} goes through {@code runGraphWithSubprocesses}, which
+ * compiles and inlines the graphs for every instance; the other benchmarks
+ * run precompiled definitions, on one thread and on
+ * {@link #THREADS} threads sharing the engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TraversalBenchmark {
+    private static final int STAGES = 10;
+    private static final int BRANCHES = 4;
+    private static final int THREADS = 4;
+
+    @Param({"linear", "gateways", "subprocesses"})
+    private String shape;
+
+    private EngineImpl engine;
+    private Map<String, DefaultDirectedGraph> graphsByProcessIds;
+    private Map<String, ProcessDefinition> definitionsByProcessIds;
+    private Map<String, ActivityFunction> fnBindings;
+
+    @Setup
+    public void setUp() {
+        engine = new EngineImpl();
+        graphsByProcessIds = new HashMap<>();
+        graphsByProcessIds.put("p", graph(shape));
+        if ("subprocesses".equals(shape)) {
+            graphsByProcessIds.put("sub", TestGraph.linearProcess(2, "act")
+                    .build());
+        }
+        definitionsByProcessIds = new HashMap<>();
+        for (final Map.Entry<String, DefaultDirectedGraph> entry :
+                graphsByProcessIds.entrySet()) {
+            definitionsByProcessIds.put(entry.getKey(),
+                    engine.compile(entry.getKey(), entry.getValue()));
+        }
+        fnBindings = Collections.singletonMap("act", ctx -> {
+            ctx.put("steps", (Integer) ctx.get("steps") + 1);
+            return ctx;
+        });
+    }
+
+    @Benchmark
+    public Map<String, Object> runGraph() {
+        return engine.runGraphWithSubprocesses(graphsByProcessIds, initCtx(),
+                fnBindings, Collections.emptyMap(), "p");
+    }
+
+    @Benchmark
+    public Map<String, Object> runDefinition() {
+        return engine.runDefinitionWithSubprocesses(definitionsByProcessIds,
+                initCtx(), fnBindings, Collections.emptyMap(), "p");
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Map<String, Object> runDefinitionConcurrently() {
+        return runDefinition();
+    }
+
+    private static Map<String, Object> initCtx() {
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("steps", 0);
+        initCtx.put("route", BRANCHES - 1);
+        return initCtx;
+    }
+
+    private static DefaultDirectedGraph graph(final String shape) {
+        final TestGraph graph = new TestGraph()
+                .node("start", "{:type :start}")
+                .node("end", "{:type :end}");
+        String previous = "start";
+        for (int i = 0; i < STAGES; i++) {
+            final String stage = "stage" + i;
+            if ("linear".equals(shape)) {
+                graph.node(stage + "a", "{:type :activity :fn \"act\"}")
+                        .node(stage + "b", "{:type :activity :fn \"act\"}")
+                        .edge(previous, stage + "a")
+                        .edge(stage + "a", stage + "b");
+                previous = stage + "b";
+            } else if ("gateways".equals(shape)) {
+                graph.node(stage, "{:type :gateway-open}")
+                        .node(stage + "close", "{:type :gateway-close}")
+                        .edge(previous, stage);
+                for (int j = 0; j < BRANCHES; j++) {
+                    final String branch = stage + "branch" + j;
+                    graph.node(branch, "{:type :activity :fn \"act\"}")
+                            .edge(stage, branch, "route == " + j)
+                            .edge(branch, stage + "close");
+                }
+                previous = stage + "close";
+            } else {
+                graph.node(stage, "{:type :call-subprocess :process \"sub\"}")
+                        .edge(previous, stage);
+                previous = stage;
+            }
+        }
+        return graph.edge(previous, "end").build();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2025 Pravles Redneckoff
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the “Software”), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.pravles.processengine;
+
+import com.pravles.processengine.api.ActivityFunction;
+import com.pravles.processengine.api.ProcessDefinition;
+import com.pravles.processengine.api.ProcessInstanceHandle;
+import com.pravles.processengine.impl.EngineImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitNodeTest {
+    @Test
+    public void givenWaitNode_whenStartAndResume_thenContinueAfterIt() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                Collections.singletonMap("p", sut.compile("p", new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("a", "{:type :activity :fn \"a\"}")
+                        .node("wait", "{:type :wait}")
+                        .node("b", "{:type :activity :fn \"b\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "a")
+                        .edge("a", "wait")
+                        .edge("wait", "b")
+                        .edge("b", "end")
+                        .build()));
+        final Map<String, ActivityFunction> fnBindings = recordingFns("a", "b");
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+
+        // When
+        final ProcessInstanceHandle waiting = sut.start(
+                definitionsByProcessIds, initCtx, fnBindings,
+                Collections.emptyMap(), "p");
+        final ProcessInstanceHandle ended = sut.resume(
+                definitionsByProcessIds, waiting,
+                Collections.singletonMap("approved", true), fnBindings,
+                Collections.emptyMap());
+
+        // Then
+        assertTrue(waiting.isWaiting());
+        assertNull(waiting.getCtx());
+        assertFalse(ended.isWaiting());
+        assertEquals(asList("a", "b"),
+                ended.getCtx().get("executedActivities"));
+        assertEquals(true, ended.getCtx().get("approved"));
+    }
+
+    @Test
+    public void givenWaitNodesInSubprocessAndCaller_whenResumeInNewEngine_thenRestoreCallStack() {
+        // Given
+        final EngineImpl engine = new EngineImpl();
+        final Map<String, ProcessDefinition> definitionsByProcessIds =
+                new HashMap<>();
+        definitionsByProcessIds.put("main", engine.compile("main",
+                new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("call", "{:type :call-subprocess :process \"sub\"}")
+                        .node("wait", "{:type :wait}")
+                        .node("c", "{:type :activity :fn \"c\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "call")
+                        .edge("call", "wait")
+                        .edge("wait", "c")
+                        .edge("c", "end")
+                        .build()));
+        definitionsByProcessIds.put("sub", engine.compile("sub",
+                new TestGraph()
+                        .node("start", "{:type :start}")
+                        .node("a", "{:type :activity :fn \"a\"}")
+                        .node("wait", "{:type :wait}")
+                        .node("b", "{:type :activity :fn \"b\"}")
+                        .node("end", "{:type :end}")
+                        .edge("start", "a")
+                        .edge("a", "wait")
+                        .edge("wait", "b")
+                        .edge("b", "end")
+                        .build()));
+        final Map<String, ActivityFunction> fnBindings =
+                recordingFns("a", "b", "c");
+        final Map<String, Object> initCtx = new HashMap<>();
+        initCtx.put("executedActivities", new ArrayList<String>());
+
+        // When
+        final byte[] stored = engine.start(definitionsByProcessIds, initCtx,
+                fnBindings, Collections.emptyMap(), "main").getSnapshot();
+        final EngineImpl otherEngine = new EngineImpl();
+        final ProcessInstanceHandle waitingInMain = otherEngine.resume(
+                definitionsByProcessIds,
+                ProcessInstanceHandle.fromSnapshot(
+                        Arrays.copyOf(stored, stored.length)),
+                null, fnBindings, Collections.emptyMap());
+        final ProcessInstanceHandle ended = otherEngine.resume(
+                definitionsByProcessIds, waitingInMain, null, fnBindings,
+                Collections.emptyMap());
+
+        // Then
+        assertTrue(waitingInMain.isWaiting());
+        assertEquals(asList("a", "b", "c"),
+                ended.getCtx().get("executedActivities"));
+    }
+
+    @Test
+    public void givenEndedInstance_whenResume_thenThrow() {
+        // Given
+        final EngineImpl sut = new EngineImpl();
+        final ProcessInstanceHandle ended = ProcessInstanceHandle.builder()
+                .ctx(new HashMap<>())
+                .build();
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> sut.resume(
+                Collections.emptyMap(), ended, null, Collections.emptyMap(),
+                Collections.emptyMap()));
+    }
+
+    private static Map<String, ActivityFunction> recordingFns(
+            final String... names) {
+        final Map<String, ActivityFunction> fnBindings = new HashMap<>();
+        for (final String name : names) {
+            fnBindings.put(name, ctx -> {
+                ((List<String>) ctx.get("executedActivities")).add(name);
+                return ctx;
+            });
+        }
+        return fnBindings;
+    }
+}